@@ -1,22 +1,17 @@
 package org.sbtitcourses.mdwiki;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Главный класс с точкой входа приложения.
  */
 @SpringBootApplication
+@EnableScheduling
 public class MdWikiApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(MdWikiApplication.class, args);
     }
-
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
-    }
 }
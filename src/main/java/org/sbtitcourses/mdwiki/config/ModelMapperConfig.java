@@ -0,0 +1,317 @@
+package org.sbtitcourses.mdwiki.config;
+
+import org.modelmapper.Converter;
+import org.modelmapper.ModelMapper;
+import org.sbtitcourses.mdwiki.dto.document.DocumentRequest;
+import org.sbtitcourses.mdwiki.dto.document.DocumentResponse;
+import org.sbtitcourses.mdwiki.dto.document.DocumentSearchResponse;
+import org.sbtitcourses.mdwiki.dto.document.PdfExportJobResponse;
+import org.sbtitcourses.mdwiki.dto.page.PageCompletionResponse;
+import org.sbtitcourses.mdwiki.dto.page.PageRequest;
+import org.sbtitcourses.mdwiki.dto.page.PageResponse;
+import org.sbtitcourses.mdwiki.dto.page.PlainPageResponse;
+import org.sbtitcourses.mdwiki.dto.page.SearchPageResponse;
+import org.sbtitcourses.mdwiki.dto.person.PersonRegistration;
+import org.sbtitcourses.mdwiki.dto.person.PersonRequest;
+import org.sbtitcourses.mdwiki.dto.person.PersonResponse;
+import org.sbtitcourses.mdwiki.dto.space.SpaceRequest;
+import org.sbtitcourses.mdwiki.dto.space.SpaceResponse;
+import org.sbtitcourses.mdwiki.model.Document;
+import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.projection.DocumentSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+import org.sbtitcourses.mdwiki.repository.projection.PersonSummary;
+import org.sbtitcourses.mdwiki.repository.projection.SpaceSummary;
+import org.sbtitcourses.mdwiki.util.PageCompletion;
+import org.sbtitcourses.mdwiki.util.PdfExportJob;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Конфигурация маппера для конвертации сущностей и DTO.
+ * Для каждой пары типов заранее регистрируется {@link org.modelmapper.TypeMap}
+ * с конвертером, который копирует поля явными вызовами геттеров и сеттеров,
+ * поэтому маппер не сопоставляет свойства и не обращается к ним через рефлексию.
+ * Прокси Hibernate и проекции Spring Data маппер сводит к зарегистрированному типу источника.
+ */
+@Configuration
+public class ModelMapperConfig {
+
+    /**
+     * Бин маппера с зарегистрированными конвертерами.
+     */
+    @Bean
+    public ModelMapper modelMapper() {
+        ModelMapper modelMapper = new ModelMapper();
+
+        register(modelMapper, PersonRegistration.class, Person.class, ModelMapperConfig::toPerson);
+        register(modelMapper, PersonRequest.class, Person.class, ModelMapperConfig::toPerson);
+        register(modelMapper, Person.class, PersonResponse.class, ModelMapperConfig::toPersonResponse);
+        register(modelMapper, PersonSummary.class, PersonResponse.class, ModelMapperConfig::toPersonResponse);
+
+        register(modelMapper, SpaceRequest.class, Space.class, ModelMapperConfig::toSpace);
+        register(modelMapper, Space.class, SpaceResponse.class, ModelMapperConfig::toSpaceResponse);
+        register(modelMapper, SpaceSummary.class, SpaceResponse.class, ModelMapperConfig::toSpaceResponse);
+
+        register(modelMapper, PageRequest.class, Page.class, ModelMapperConfig::toPage);
+        register(modelMapper, Page.class, PageResponse.class, ModelMapperConfig::toPageResponse);
+        register(modelMapper, Page.class, PlainPageResponse.class, ModelMapperConfig::toPlainPageResponse);
+        register(modelMapper, PageSummary.class, PageResponse.class, ModelMapperConfig::toPageResponse);
+        register(modelMapper, PageSummary.class, PlainPageResponse.class, ModelMapperConfig::toPlainPageResponse);
+        register(modelMapper, PageSummary.class, SearchPageResponse.class, ModelMapperConfig::toSearchPageResponse);
+        register(modelMapper, PageSearchResult.class, SearchPageResponse.class, ModelMapperConfig::toSearchPageResponse);
+        register(modelMapper, PageCompletion.class, PageCompletionResponse.class, ModelMapperConfig::toPageCompletionResponse);
+
+        register(modelMapper, DocumentRequest.class, Document.class, ModelMapperConfig::toDocument);
+        register(modelMapper, Document.class, DocumentResponse.class, ModelMapperConfig::toDocumentResponse);
+        register(modelMapper, DocumentSearchResult.class, DocumentSearchResponse.class, ModelMapperConfig::toDocumentSearchResponse);
+        register(modelMapper, PdfExportJob.class, PdfExportJobResponse.class, ModelMapperConfig::toPdfExportJobResponse);
+
+        return modelMapper;
+    }
+
+    private static <S, D> void register(ModelMapper modelMapper, Class<S> source, Class<D> destination,
+                                        Function<S, D> mapping) {
+        Converter<S, D> converter = context -> mapping.apply(context.getSource());
+        modelMapper.createTypeMap(source, destination).setConverter(converter);
+    }
+
+    private static Person toPerson(PersonRegistration registration) {
+        Person person = new Person();
+        person.setUsername(registration.getUsername());
+        person.setPassword(registration.getPassword());
+        person.setName(registration.getName());
+        person.setEmail(registration.getEmail());
+
+        return person;
+    }
+
+    private static Person toPerson(PersonRequest request) {
+        Person person = new Person();
+        person.setUsername(request.getUsername());
+        person.setPassword(request.getPassword());
+        person.setName(request.getName());
+        person.setEmail(request.getEmail());
+        person.setEnabled(request.isEnabled());
+
+        return person;
+    }
+
+    private static PersonResponse toPersonResponse(Person person) {
+        PersonResponse response = new PersonResponse();
+        response.setId(person.getId());
+        response.setUsername(person.getUsername());
+        response.setName(person.getName());
+        response.setEmail(person.getEmail());
+        response.setCreatedAt(person.getCreatedAt());
+        response.setUpdatedAt(person.getUpdatedAt());
+        response.setEnabled(person.isEnabled());
+        response.setNote(person.getNote());
+
+        return response;
+    }
+
+    private static PersonResponse toPersonResponse(PersonSummary person) {
+        PersonResponse response = new PersonResponse();
+        response.setId(person.getId());
+        response.setUsername(person.getUsername());
+        response.setName(person.getName());
+        response.setEmail(person.getEmail());
+        response.setCreatedAt(person.getCreatedAt());
+        response.setUpdatedAt(person.getUpdatedAt());
+        response.setEnabled(person.isEnabled());
+        response.setNote(person.getNote());
+
+        return response;
+    }
+
+    private static Space toSpace(SpaceRequest request) {
+        Space space = new Space();
+        space.setName(request.getName());
+        space.setShared(request.getShared());
+
+        return space;
+    }
+
+    private static SpaceResponse toSpaceResponse(Space space) {
+        SpaceResponse response = new SpaceResponse();
+        response.setId(space.getId());
+        response.setName(space.getName());
+        response.setCreatedAt(toDate(space.getCreatedAt()));
+        response.setUpdatedAt(toDate(space.getUpdatedAt()));
+        response.setShared(space.isShared());
+
+        return response;
+    }
+
+    private static SpaceResponse toSpaceResponse(SpaceSummary space) {
+        SpaceResponse response = new SpaceResponse();
+        response.setId(space.getId());
+        response.setName(space.getName());
+        response.setCreatedAt(toDate(space.getCreatedAt()));
+        response.setUpdatedAt(toDate(space.getUpdatedAt()));
+        response.setShared(space.isShared());
+
+        return response;
+    }
+
+    private static Page toPage(PageRequest request) {
+        Page page = new Page();
+        page.setName(request.getName());
+        page.setShared(request.isShared());
+
+        return page;
+    }
+
+    /**
+     * Метод, конвертирующий страницу вместе со всеми ее подстраницами.
+     *
+     * @param page страница.
+     * @return информацию о странице и ее подстраницах.
+     */
+    private static PageResponse toPageResponse(Page page) {
+        PageResponse response = new PageResponse();
+        response.setId(page.getId());
+        response.setName(page.getName());
+        response.setCreatedAt(page.getCreatedAt());
+        response.setUpdatedAt(page.getUpdatedAt());
+        response.setShared(page.isShared());
+
+        if (page.getSubpages() != null) {
+            List<PageResponse> subpages = new ArrayList<>(page.getSubpages().size());
+            for (Page subpage : page.getSubpages()) {
+                subpages.add(toPageResponse(subpage));
+            }
+            response.setSubpages(subpages);
+        }
+
+        return response;
+    }
+
+    private static PageResponse toPageResponse(PageSummary page) {
+        PageResponse response = new PageResponse();
+        response.setId(page.getId());
+        response.setName(page.getName());
+        response.setCreatedAt(page.getCreatedAt());
+        response.setUpdatedAt(page.getUpdatedAt());
+        response.setShared(page.isShared());
+
+        return response;
+    }
+
+    private static PlainPageResponse toPlainPageResponse(Page page) {
+        PlainPageResponse response = new PlainPageResponse();
+        response.setId(page.getId());
+        response.setName(page.getName());
+        response.setCreatedAt(page.getCreatedAt());
+        response.setUpdatedAt(page.getUpdatedAt());
+        response.setShared(page.isShared());
+
+        return response;
+    }
+
+    private static PlainPageResponse toPlainPageResponse(PageSummary page) {
+        PlainPageResponse response = new PlainPageResponse();
+        response.setId(page.getId());
+        response.setName(page.getName());
+        response.setCreatedAt(page.getCreatedAt());
+        response.setUpdatedAt(page.getUpdatedAt());
+        response.setShared(page.isShared());
+
+        return response;
+    }
+
+    /**
+     * Метод, конвертирующий страницу-предка результата поиска.
+     * Пространство и предков страницы заполняет контроллер поиска.
+     *
+     * @param page страница-предок.
+     * @return информацию о странице.
+     */
+    private static SearchPageResponse toSearchPageResponse(PageSummary page) {
+        SearchPageResponse response = new SearchPageResponse();
+        response.setId(page.getId());
+        response.setName(page.getName());
+        response.setCreatedAt(page.getCreatedAt());
+        response.setUpdatedAt(page.getUpdatedAt());
+        response.setShared(page.isShared());
+
+        return response;
+    }
+
+    /**
+     * Метод, конвертирующий результат поиска страниц.
+     * Предков страницы заполняет контроллер поиска.
+     *
+     * @param page найденная страница.
+     * @return информацию о странице и ее пространстве.
+     */
+    private static SearchPageResponse toSearchPageResponse(PageSearchResult page) {
+        SearchPageResponse response = new SearchPageResponse();
+        response.setId(page.getId());
+        response.setName(page.getName());
+        response.setSpaceId(page.getSpaceId());
+        response.setSpaceName(page.getSpaceName());
+        response.setCreatedAt(page.getCreatedAt());
+        response.setUpdatedAt(page.getUpdatedAt());
+        response.setShared(page.isShared());
+
+        return response;
+    }
+
+    private static PageCompletionResponse toPageCompletionResponse(PageCompletion completion) {
+        PageCompletionResponse response = new PageCompletionResponse();
+        response.setId(completion.getId());
+        response.setName(completion.getName());
+        response.setSpaceId(completion.getSpaceId());
+
+        return response;
+    }
+
+    private static Document toDocument(DocumentRequest request) {
+        Document document = new Document();
+        document.setText(request.getText());
+
+        return document;
+    }
+
+    private static DocumentResponse toDocumentResponse(Document document) {
+        DocumentResponse response = new DocumentResponse();
+        response.setText(document.getText());
+
+        return response;
+    }
+
+    private static DocumentSearchResponse toDocumentSearchResponse(DocumentSearchResult result) {
+        DocumentSearchResponse response = new DocumentSearchResponse();
+        response.setPageId(result.getPageId());
+        response.setPageName(result.getPageName());
+        response.setSpaceId(result.getSpaceId());
+        response.setSpaceName(result.getSpaceName());
+        response.setRank(result.getRank());
+        response.setSnippet(result.getSnippet());
+
+        return response;
+    }
+
+    private static PdfExportJobResponse toPdfExportJobResponse(PdfExportJob job) {
+        PdfExportJobResponse response = new PdfExportJobResponse();
+        response.setId(job.getId());
+        response.setStatus(job.getStatus());
+
+        return response;
+    }
+
+    private static Date toDate(Instant instant) {
+        return instant != null ? Date.from(instant) : null;
+    }
+}
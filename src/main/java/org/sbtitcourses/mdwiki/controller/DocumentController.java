@@ -6,18 +6,22 @@ import org.sbtitcourses.mdwiki.dto.document.DocumentResponse;
 import org.sbtitcourses.mdwiki.model.Document;
 import org.sbtitcourses.mdwiki.service.DocumentService;
 import org.sbtitcourses.mdwiki.util.ConvertedDocument;
+import org.sbtitcourses.mdwiki.util.RenderedDocument;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * REST контроллер, обрабатывающий запросы на взаимодействие с сущностью {@link Document}.
@@ -86,6 +90,28 @@ public class DocumentController {
         return ResponseEntity.ok().body(response);
     }
 
+    /**
+     * Метод, обрабатывающий запрос на получение документа в формате HTML.
+     * Ответ содержит ETag, поэтому повторный запрос неизмененного документа
+     * с заголовком If-None-Match получает ответ со статусом 304.
+     * Документ открывается браузером в песочнице без выполнения скриптов и доступа к сессии.
+     *
+     * @param spaceId ID пространства.
+     * @param pageId  ID страницы.
+     * @return HTTP ответ с HTML документа и статусом 200.
+     */
+    @GetMapping("/html")
+    public ResponseEntity<String> getHtml(@PathVariable("spaceId") int spaceId,
+                                          @PathVariable("pageId") int pageId) {
+        RenderedDocument renderedDocument = documentService.getHtml(pageId, spaceId);
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .eTag(renderedDocument.getETag())
+                .header("Content-Security-Policy", "sandbox")
+                .body(renderedDocument.getHtml());
+    }
+
     /**
      * Метод, обрабатывающий запрос на обновление документа по его ID для данной страницы и пространства.
      *
@@ -123,28 +149,45 @@ public class DocumentController {
 
     /**
      * Метод, обрабатывающий запросы на скачку документа в PDF формате.
+     * Ответ содержит ETag, поэтому повторный запрос неизмененного документа
+     * с заголовком If-None-Match получает ответ со статусом 304.
+     * Документ конвертируется до отправки ответа, поэтому ошибка конвертации возвращается
+     * со статусом 409, а медленная загрузка ответа клиентом не задерживает другие конвертации.
      *
-     * @param spaceId ID пространтсва.
-     * @param pageId  ID страницы.
-     * @return HTTP ответ с PDF файлом и статусом 200.
+     * @param spaceId    ID пространтсва.
+     * @param pageId     ID страницы.
+     * @param webRequest HTTP запрос, по которому проверяется совпадение ETag.
+     * @return HTTP ответ с PDF файлом и статусом 200 или без файла со статусом 304.
+     * @throws IOException если не удалось записать сконвертированный документ во временный файл.
      */
     @GetMapping("/pdf")
-    public ResponseEntity<InputStreamResource>
+    public ResponseEntity<StreamingResponseBody>
     convertToPdf(@PathVariable("spaceId") int spaceId,
                  @PathVariable("pageId") int pageId,
                  @RequestParam(name = "font", required = false, defaultValue = "times") String font,
                  @RequestParam(name = "fontSize", required = false, defaultValue = "16") @Min(6) @Max(66) int fontSize,
-                 @RequestParam(name = "tree", required = false, defaultValue = "false") boolean tree) {
+                 @RequestParam(name = "tree", required = false, defaultValue = "false") boolean tree,
+                 WebRequest webRequest) throws IOException {
         ConvertedDocument convertedDocument = documentService
                 .convertToPdf(spaceId, pageId, font, fontSize, tree);
 
-        InputStreamResource inputStreamResource = convertedDocument.getInputStreamResource();
+        // Обработчик StreamingResponseBody не проверяет условные заголовки сам.
+        if (webRequest.checkNotModified(convertedDocument.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        ConvertedDocument.Content content = convertedDocument.render();
         String documentName = convertedDocument.getDocumentName();
 
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_PDF)
+                .eTag(convertedDocument.getETag())
                 .header(HttpHeaders.CONTENT_DISPOSITION,
                         String.format("attachment; filename=\"%s.%s\"", documentName, "pdf"))
-                .body(inputStreamResource);
+                .body(outputStream -> {
+                    try (content) {
+                        content.writeTo(outputStream);
+                    }
+                });
     }
 }
\ No newline at end of file
@@ -3,18 +3,21 @@ package org.sbtitcourses.mdwiki.controller;
 import org.sbtitcourses.mdwiki.dto.file.FileUploadResponse;
 import org.sbtitcourses.mdwiki.model.StoredFile;
 import org.sbtitcourses.mdwiki.service.ImageStorageService;
+import org.sbtitcourses.mdwiki.util.Cursors;
+import org.sbtitcourses.mdwiki.util.FileResponses;
 import org.sbtitcourses.mdwiki.util.LoadedFile;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,7 +26,7 @@ import java.util.List;
  */
 @RestController
 @Validated
-@CrossOrigin
+@CrossOrigin(exposedHeaders = Cursors.NEXT_CURSOR_HEADER)
 public class FileController {
 
     /**
@@ -65,58 +68,64 @@ public class FileController {
 
     /**
      * Метод, обрабатывающий запрос на скачку изображения.
+     * Ответ кэшируется клиентом, поддерживает условные запросы и запросы части изображения.
      *
-     * @param GUID уникальный идентификатор изображения.
-     * @return HTTP ответ с изображением и статусом 200.
+     * @param GUID    уникальный идентификатор изображения.
+     * @param request HTTP запрос.
+     * @return HTTP ответ с изображением и статусом 200, 206 или 304.
      */
     @GetMapping("/download/image/{GUID}")
-    public ResponseEntity<Resource> downloadImage(@PathVariable("GUID") String GUID) {
+    public ResponseEntity<Resource> downloadImage(@PathVariable("GUID") String GUID, ServletWebRequest request) {
         LoadedFile loadedFile = imageStorageService.loadImage(GUID);
 
-        String fileName = loadedFile.getStoredFile().getOriginalName();
-        String contentType = loadedFile.getStoredFile().getMimeType();
-        Resource resource = loadedFile.getResource();
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"".concat(fileName).concat("\""))
-                .body(resource);
+        return FileResponses.download(loadedFile, request);
     }
 
     /**
      * Метод, обрабатывающий запрос на скачку превью изображения.
+     * Если размер и формат не указаны, возвращается превью, созданное при загрузке изображения,
+     * иначе превью данного размера и формата создается из изображения и кэшируется.
+     * Ответ кэшируется клиентом, поддерживает условные запросы и запросы части превью.
      *
-     * @param GUID уникальный идентификатор изображения.
-     * @return HTTP ответ с превью изображения и статусом 200.
+     * @param GUID    уникальный идентификатор изображения.
+     * @param width   максимальная ширина превью.
+     * @param height  максимальная высота превью.
+     * @param format  формат превью.
+     * @param request HTTP запрос.
+     * @return HTTP ответ с превью изображения и статусом 200, 206 или 304.
      */
     @GetMapping("/download/thumbnail/{GUID}")
-    public ResponseEntity<Resource> downloadThumbnail(@PathVariable("GUID") String GUID) {
-        LoadedFile loadedFile = imageStorageService.loadThumbnail(GUID);
-
-        String fileName = loadedFile.getStoredFile().getOriginalName();
-        String contentType = loadedFile.getStoredFile().getMimeType();
-        Resource resource = loadedFile.getResource();
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"".concat(fileName).concat("\""))
-                .body(resource);
+    public ResponseEntity<Resource>
+    downloadThumbnail(@PathVariable("GUID") String GUID,
+                      @RequestParam(name = "w", required = false) @Min(1) @Max(2048) Integer width,
+                      @RequestParam(name = "h", required = false) @Min(1) @Max(2048) Integer height,
+                      @RequestParam(name = "format", required = false) @Pattern(regexp = "png|jpg|gif|bmp") String format,
+                      ServletWebRequest request) {
+        LoadedFile loadedFile = width == null && height == null && format == null
+                ? imageStorageService.loadThumbnail(GUID)
+                : imageStorageService.loadThumbnailVariant(GUID, width, height, format);
+
+        return FileResponses.download(loadedFile, request);
     }
 
     /**
      * Метод, обрабатывающий запрос на получение информации обо всех загруженных пользователем файлов.
+     * Если номер страницы не указан, страница выбирается по курсору, а ответ содержит
+     * курсор следующей страницы в заголовке {@link Cursors#NEXT_CURSOR_HEADER}.
      *
-     * @param bunch номер страницы при пагинации.
-     * @param size  количество элементов в странице при пагинации.
+     * @param bunch  номер страницы при пагинации.
+     * @param cursor курсор страницы при курсорной пагинации.
+     * @param size   количество элементов в странице при пагинации.
      * @return HTTP ответ со списком файлов и статусом 200.
      */
     @GetMapping("/user/uploads")
     public ResponseEntity<List<FileUploadResponse>>
-    getUserStoredFiles(@RequestParam("bunch") @Min(0) int bunch,
+    getUserStoredFiles(@RequestParam(name = "bunch", required = false) @Min(0) Integer bunch,
+                       @RequestParam(name = "cursor", required = false) String cursor,
                        @RequestParam("size") @Min(1) int size) {
-        List<StoredFile> storedFiles = imageStorageService.getUserStoredFiles(bunch, size);
+        List<StoredFile> storedFiles = bunch != null
+                ? imageStorageService.getUserStoredFiles(bunch, size)
+                : imageStorageService.getUserStoredFilesAfter(Cursors.decode(cursor), size);
         List<FileUploadResponse> response = new ArrayList<>();
 
         for (StoredFile storedFile : storedFiles) {
@@ -124,7 +133,7 @@ public class FileController {
                     storedFile.getMimeType(), storedFile.getSize()));
         }
 
-        return ResponseEntity.ok().body(response);
+        return Cursors.ok(storedFiles, size, StoredFile::getId).body(response);
     }
 
     /**
@@ -3,9 +3,14 @@ package org.sbtitcourses.mdwiki.controller;
 import org.modelmapper.ModelMapper;
 import org.sbtitcourses.mdwiki.dto.page.PageRequest;
 import org.sbtitcourses.mdwiki.dto.page.PageResponse;
+import org.sbtitcourses.mdwiki.dto.page.PageTreeResponse;
 import org.sbtitcourses.mdwiki.dto.page.PlainPageResponse;
 import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
 import org.sbtitcourses.mdwiki.service.PageService;
+import org.sbtitcourses.mdwiki.util.Cursors;
+import org.sbtitcourses.mdwiki.util.PageForest;
+import org.sbtitcourses.mdwiki.util.PageTree;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,9 +18,13 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST контроллер, обрабатывающий запросы на взаимодействие с сущностью {@link Page}.
@@ -23,7 +32,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/spaces/{spaceId}/pages")
 @Validated
-@CrossOrigin
+@CrossOrigin(exposedHeaders = Cursors.NEXT_CURSOR_HEADER)
 public class PageController {
 
     /**
@@ -88,46 +97,66 @@ public class PageController {
 
     /**
      * Метод, обрабатывающий запрос на получение всех страниц данного пространства.
+     * Страницы и все их подстраницы загружаются одним вызовом сервиса.
+     * Если номер страницы не указан, страница выбирается по курсору, а ответ содержит
+     * курсор следующей страницы в заголовке {@link Cursors#NEXT_CURSOR_HEADER}.
      *
      * @param spaceId ID пространства.
      * @param bunch   номер страницы при пагинации.
+     * @param cursor  курсор страницы при курсорной пагинации.
      * @param size    количество элементов в странице при пагинации.
      * @return HTTP ответ со списком страниц и статусом 200.
      */
     @GetMapping
     public ResponseEntity<List<PageResponse>> get(@PathVariable("spaceId") int spaceId,
-                                                  @RequestParam("bunch") @Min(0) int bunch,
+                                                  @RequestParam(name = "bunch", required = false) @Min(0) Integer bunch,
+                                                  @RequestParam(name = "cursor", required = false) String cursor,
                                                   @RequestParam("size") @Min(1) int size) {
+        PageForest found = bunch != null
+                ? pageService.getWithDescendants(spaceId, bunch, size)
+                : pageService.getAfterWithDescendants(spaceId, Cursors.decode(cursor), size);
         List<PageResponse> pages = new LinkedList<>();
+        Map<Integer, PageResponse> responses = new HashMap<>();
 
-        for (Page page : pageService.get(spaceId, bunch, size)) {
-            PageResponse pageResponse = modelMapper.map(page, PageResponse.class);
+        for (PageSummary page : found.getPages()) {
+            PageResponse pageResponse = toResponse(page);
             pages.add(pageResponse);
+            responses.put(page.getId(), pageResponse);
         }
 
-        return ResponseEntity.ok().body(pages);
+        linkSubpages(responses, found.getDescendants());
+
+        return Cursors.ok(found.getPages(), size, PageSummary::getId).body(pages);
     }
 
     /**
      * Метод, обрабатывающий запрос на получение всех страниц данного пространства без списка подстраниц.
+     * Если номер страницы не указан, страница выбирается по курсору, а ответ содержит
+     * курсор следующей страницы в заголовке {@link Cursors#NEXT_CURSOR_HEADER}.
      *
      * @param spaceId ID пространства.
      * @param bunch   номер страницы при пагинации.
+     * @param cursor  курсор страницы при курсорной пагинации.
      * @param size    количество элементов в странице при пагинации.
      * @return HTTP ответ со списком страниц и статусом 200.
      */
     @GetMapping("/plain")
-    public ResponseEntity<List<PlainPageResponse>> getPlain(@PathVariable("spaceId") int spaceId,
-                                                            @RequestParam("bunch") @Min(0) int bunch,
-                                                            @RequestParam("size") @Min(1) int size) {
+    public ResponseEntity<List<PlainPageResponse>>
+    getPlain(@PathVariable("spaceId") int spaceId,
+             @RequestParam(name = "bunch", required = false) @Min(0) Integer bunch,
+             @RequestParam(name = "cursor", required = false) String cursor,
+             @RequestParam("size") @Min(1) int size) {
+        List<PageSummary> found = bunch != null
+                ? pageService.get(spaceId, bunch, size)
+                : pageService.getAfter(spaceId, Cursors.decode(cursor), size);
         List<PlainPageResponse> pages = new LinkedList<>();
 
-        for (Page page : pageService.get(spaceId, bunch, size)) {
+        for (PageSummary page : found) {
             PlainPageResponse plainPageResponse = modelMapper.map(page, PlainPageResponse.class);
             pages.add(plainPageResponse);
         }
 
-        return ResponseEntity.ok().body(pages);
+        return Cursors.ok(found, size, PageSummary::getId).body(pages);
     }
 
     /**
@@ -162,6 +191,32 @@ public class PageController {
         return ResponseEntity.ok().body(response);
     }
 
+    /**
+     * Метод, обрабатывающий запрос на получение поддерева страницы не глубже данного уровня.
+     * Поддерево загружается одним запросом, а общее количество подстраниц подсчитывается без их загрузки.
+     *
+     * @param spaceId ID пространства.
+     * @param pageId  ID корневой страницы.
+     * @param depth   максимальная глубина подстраниц, 0 - только корневая страница.
+     * @return HTTP ответ с поддеревом страницы и статусом 200.
+     */
+    @GetMapping("/{pageId}/tree")
+    public ResponseEntity<PageTreeResponse> getTree(@PathVariable("spaceId") int spaceId,
+                                                    @PathVariable("pageId") int pageId,
+                                                    @RequestParam(name = "depth", required = false, defaultValue = "1")
+                                                    @Min(0) @Max(100) int depth) {
+        PageTree tree = pageService.getTree(pageId, spaceId, depth);
+        Map<Integer, PageResponse> responses = new HashMap<>();
+
+        linkSubpages(responses, tree.getPages());
+
+        PageTreeResponse response = new PageTreeResponse();
+        response.setRoot(responses.get(pageId));
+        response.setDepth(depth);
+        response.setDescendantCount(tree.getDescendantCount());
+        return ResponseEntity.ok().body(response);
+    }
+
     /**
      * Метод, обрабатывающий запрос на получение подстраниц по ID страницы-родителя.
      *
@@ -217,4 +272,36 @@ public class PageController {
 
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Метод, конвертирующий страницы и добавляющий их в списки подстраниц их родителей.
+     * Страницы, родителей которых нет среди ответов, только добавляются в ответы.
+     *
+     * @param responses ответы по ID страниц, в которые добавляются сконвертированные страницы.
+     * @param pages     страницы для конвертации.
+     */
+    private void linkSubpages(Map<Integer, PageResponse> responses, List<PageSummary> pages) {
+        for (PageSummary page : pages) {
+            responses.put(page.getId(), toResponse(page));
+        }
+        for (PageSummary page : pages) {
+            PageResponse parent = page.getParentId() != null ? responses.get(page.getParentId()) : null;
+            if (parent != null) {
+                parent.getSubpages().add(responses.get(page.getId()));
+            }
+        }
+    }
+
+    /**
+     * Метод, конвертирующий страницу в ответ с пустым списком подстраниц.
+     *
+     * @param page страница.
+     * @return информацию о странице.
+     */
+    private PageResponse toResponse(PageSummary page) {
+        PageResponse response = modelMapper.map(page, PageResponse.class);
+        response.setSubpages(new ArrayList<>());
+
+        return response;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package org.sbtitcourses.mdwiki.controller;
+
+import org.modelmapper.ModelMapper;
+import org.sbtitcourses.mdwiki.dto.document.PdfExportJobResponse;
+import org.sbtitcourses.mdwiki.service.PdfExportJobService;
+import org.sbtitcourses.mdwiki.util.ConvertedDocument;
+import org.sbtitcourses.mdwiki.util.PdfExportJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST контроллер, обрабатывающий запросы на фоновый экспорт документов в PDF формат.
+ */
+@RestController
+@RequestMapping("/spaces/{spaceId}/pages/{pageId}/document/pdf/jobs")
+@Validated
+@CrossOrigin
+public class PdfExportJobController {
+
+    /**
+     * Сервис фонового экспорта документов в PDF формат.
+     */
+    private final PdfExportJobService pdfExportJobService;
+
+    /**
+     * Маппер для конвертации сущностей.
+     */
+    private final ModelMapper modelMapper;
+
+    /**
+     * Конструктор для автоматичекого внедрения зависимостей.
+     *
+     * @param pdfExportJobService сервис фонового экспорта документов в PDF формат.
+     * @param modelMapper         маппер для конвертации сущностей.
+     */
+    @Autowired
+    public PdfExportJobController(PdfExportJobService pdfExportJobService, ModelMapper modelMapper) {
+        this.pdfExportJobService = pdfExportJobService;
+        this.modelMapper = modelMapper;
+    }
+
+    /**
+     * Метод, обрабатывающий запрос на постановку документа в очередь на экспорт в PDF формат.
+     *
+     * @param spaceId ID пространства.
+     * @param pageId  ID страницы.
+     * @return HTTP ответ с информацией о задаче экспорта и статусом 202,
+     * или статусом 503, если очередь экспорта переполнена.
+     */
+    @PostMapping
+    public ResponseEntity<PdfExportJobResponse>
+    submit(@PathVariable("spaceId") int spaceId,
+           @PathVariable("pageId") int pageId,
+           @RequestParam(name = "font", required = false, defaultValue = "times") String font,
+           @RequestParam(name = "fontSize", required = false, defaultValue = "16") @Min(6) @Max(66) int fontSize,
+           @RequestParam(name = "tree", required = false, defaultValue = "false") boolean tree) {
+        PdfExportJob job = pdfExportJobService.submit(spaceId, pageId, font, fontSize, tree);
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{jobId}")
+                .buildAndExpand(job.getId())
+                .toUri();
+
+        PdfExportJobResponse response = modelMapper.map(job, PdfExportJobResponse.class);
+        return ResponseEntity.accepted().location(location).body(response);
+    }
+
+    /**
+     * Метод, обрабатывающий запрос на получение состояния задачи экспорта.
+     * Если задача не завершена, ответ откладывается до ее завершения,
+     * но не более чем на переданное количество секунд.
+     *
+     * @param spaceId ID пространства.
+     * @param pageId  ID страницы.
+     * @param jobId   ID задачи.
+     * @param wait    максимальное время ожидания завершения задачи в секундах.
+     * @return HTTP ответ с информацией о задаче экспорта и статусом 200.
+     */
+    @GetMapping("/{jobId}")
+    public DeferredResult<ResponseEntity<PdfExportJobResponse>>
+    get(@PathVariable("spaceId") int spaceId,
+        @PathVariable("pageId") int pageId,
+        @PathVariable("jobId") String jobId,
+        @RequestParam(name = "wait", required = false, defaultValue = "0") @Min(0) @Max(60) int wait) {
+        PdfExportJob job = pdfExportJobService.get(spaceId, pageId, jobId);
+
+        DeferredResult<ResponseEntity<PdfExportJobResponse>> result =
+                new DeferredResult<>(TimeUnit.SECONDS.toMillis(Math.max(wait, 1)), () -> responseOf(job));
+
+        if (wait == 0 || job.isFinished()) {
+            result.setResult(responseOf(job));
+        } else {
+            job.getCompletion().thenRun(() -> result.setResult(responseOf(job)));
+        }
+
+        return result;
+    }
+
+    /**
+     * Метод, обрабатывающий запрос на скачку результата завершенной задачи экспорта.
+     * Результат закрепляется до отправки ответа и не удаляется, пока клиент его загружает.
+     *
+     * @param spaceId ID пространства.
+     * @param pageId  ID страницы.
+     * @param jobId   ID задачи.
+     * @return HTTP ответ с PDF файлом и статусом 200.
+     * @throws IOException если не удалось прочитать результат задачи.
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<StreamingResponseBody> getResult(@PathVariable("spaceId") int spaceId,
+                                                           @PathVariable("pageId") int pageId,
+                                                           @PathVariable("jobId") String jobId)
+            throws IOException {
+        ConvertedDocument convertedDocument = pdfExportJobService.getResult(spaceId, pageId, jobId);
+        ConvertedDocument.Content content = convertedDocument.render();
+
+        String documentName = convertedDocument.getDocumentName();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .eTag(convertedDocument.getETag())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        String.format("attachment; filename=\"%s.%s\"", documentName, "pdf"))
+                .body(outputStream -> {
+                    try (content) {
+                        content.writeTo(outputStream);
+                    }
+                });
+    }
+
+    private ResponseEntity<PdfExportJobResponse> responseOf(PdfExportJob job) {
+        PdfExportJobResponse response = modelMapper.map(job, PdfExportJobResponse.class);
+        return ResponseEntity.ok().body(response);
+    }
+}
@@ -5,7 +5,9 @@ import org.sbtitcourses.mdwiki.dto.person.PersonNoteRequest;
 import org.sbtitcourses.mdwiki.dto.person.PersonRequest;
 import org.sbtitcourses.mdwiki.dto.person.PersonResponse;
 import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.repository.projection.PersonSummary;
 import org.sbtitcourses.mdwiki.service.PersonService;
+import org.sbtitcourses.mdwiki.util.Cursors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,7 +25,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/people")
 @Validated
-@CrossOrigin
+@CrossOrigin(exposedHeaders = Cursors.NEXT_CURSOR_HEADER)
 public class PersonController {
 
     /**
@@ -50,22 +52,29 @@ public class PersonController {
 
     /**
      * Метод, обрабатывающий запрос на получение всех пользователей.
+     * Если номер страницы не указан, страница выбирается по курсору, а ответ содержит
+     * курсор следующей страницы в заголовке {@link Cursors#NEXT_CURSOR_HEADER}.
      *
-     * @param bunch номер страницы при пагинации.
-     * @param size  количество элементов на странице при пагинации.
+     * @param bunch  номер страницы при пагинации.
+     * @param cursor курсор страницы при курсорной пагинации.
+     * @param size   количество элементов на странице при пагинации.
      * @return HTTP ответ со списком пользователей и статусом 200.
      */
     @GetMapping
-    public ResponseEntity<List<PersonResponse>> get(@RequestParam("bunch") @Min(0) int bunch,
+    public ResponseEntity<List<PersonResponse>> get(@RequestParam(name = "bunch", required = false) @Min(0) Integer bunch,
+                                                    @RequestParam(name = "cursor", required = false) String cursor,
                                                     @RequestParam("size") @Min(1) int size) {
+        List<PersonSummary> found = bunch != null
+                ? personService.get(bunch, size)
+                : personService.getAfter(Cursors.decode(cursor), size);
         List<PersonResponse> people = new LinkedList<>();
 
-        for (Person person : personService.get(bunch, size)) {
+        for (PersonSummary person : found) {
             PersonResponse response = modelMapper.map(person, PersonResponse.class);
             people.add(response);
         }
 
-        return ResponseEntity.ok().body(people);
+        return Cursors.ok(found, size, PersonSummary::getId).body(people);
     }
 
     /**
@@ -1,15 +1,30 @@
 package org.sbtitcourses.mdwiki.controller;
 
 import org.modelmapper.ModelMapper;
+import org.sbtitcourses.mdwiki.dto.document.DocumentSearchResponse;
+import org.sbtitcourses.mdwiki.dto.page.PageCompletionResponse;
 import org.sbtitcourses.mdwiki.dto.page.SearchPageResponse;
 import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.repository.projection.DocumentSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+import org.sbtitcourses.mdwiki.service.DocumentService;
+import org.sbtitcourses.mdwiki.service.PageAutocompleteService;
 import org.sbtitcourses.mdwiki.service.PageService;
+import org.sbtitcourses.mdwiki.util.PageCompletion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Pattern;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -17,6 +32,7 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("/pages")
+@Validated
 @CrossOrigin
 public class SearchController {
 
@@ -25,6 +41,16 @@ public class SearchController {
      */
     private final PageService pageService;
 
+    /**
+     * Сервис с логикой взаимодействия с сущностью {@link org.sbtitcourses.mdwiki.model.Document}.
+     */
+    private final DocumentService documentService;
+
+    /**
+     * Сервис автодополнения названий страниц.
+     */
+    private final PageAutocompleteService pageAutocompleteService;
+
     /**
      * Маппер для конвертации сущностей.
      */
@@ -33,33 +59,123 @@ public class SearchController {
     /**
      * Конструктор для автоматичекого внедрения зависимостей.
      *
-     * @param pageService сервис с логикой взаимодействия с сущностью {@link Page}.
-     * @param modelMapper маппер для конвертации сущностей.
+     * @param pageService             сервис с логикой взаимодействия с сущностью {@link Page}.
+     * @param documentService         сервис с логикой взаимодействия с сущностью {@link org.sbtitcourses.mdwiki.model.Document}.
+     * @param pageAutocompleteService сервис автодополнения названий страниц.
+     * @param modelMapper             маппер для конвертации сущностей.
      */
     @Autowired
-    public SearchController(PageService pageService, ModelMapper modelMapper) {
+    public SearchController(PageService pageService, DocumentService documentService,
+                            PageAutocompleteService pageAutocompleteService, ModelMapper modelMapper) {
         this.pageService = pageService;
+        this.documentService = documentService;
+        this.pageAutocompleteService = pageAutocompleteService;
         this.modelMapper = modelMapper;
     }
 
     /**
      * Метод, обрабатывающий запрос на получение всех страниц по подстроке имени.
+     * В режиме prefix ищутся страницы, имя которых начинается с подстроки,
+     * в режиме fuzzy - страницы, имя которых содержит подстроку или похоже на нее с учетом опечаток.
+     * Страницы-родители всех найденных страниц загружаются одним запросом.
      *
      * @param searchPage подстрака имени страницы.
+     * @param mode       режим поиска: prefix или fuzzy.
+     * @param limit      максимальное количество страниц в режиме fuzzy.
      * @return HTTP ответ со списком страниц и статусом 200.
      */
     @GetMapping("/{searchPage}")
-    public ResponseEntity<List<SearchPageResponse>> search(@PathVariable("searchPage") String searchPage){
+    public ResponseEntity<List<SearchPageResponse>> search(@PathVariable("searchPage") String searchPage,
+                                                           @RequestParam(name = "mode", required = false, defaultValue = "prefix")
+                                                           @Pattern(regexp = "prefix|fuzzy") String mode,
+                                                           @RequestParam(name = "limit", required = false, defaultValue = "20")
+                                                           @Min(1) @Max(100) int limit) {
+        List<PageSearchResult> found = mode.equals("fuzzy")
+                ? pageService.search(searchPage, limit)
+                : pageService.get(searchPage);
+        Map<Integer, PageSummary> ancestors = pageService.getAncestors(found);
+        Map<Integer, SearchPageResponse> parents = new HashMap<>();
 
         List<SearchPageResponse> pages = new LinkedList<>();
 
-        for (Page page : pageService.get(searchPage)) {
+        for (PageSearchResult page : found) {
             SearchPageResponse pageResponse = modelMapper.map(page, SearchPageResponse.class);
-            pageResponse.setSpaceId(page.getSpace().getId());
-            pageResponse.setSpaceName(page.getSpace().getName());
+            pageResponse.setParent(toParentResponse(page.getParentId(), page, ancestors, parents));
             pages.add(pageResponse);
         }
 
         return ResponseEntity.ok().body(pages);
     }
-}
+
+    /**
+     * Метод, обрабатывающий запрос на автодополнение названия страницы.
+     * Страницы ищутся в памяти без обращения к базе данных.
+     *
+     * @param prefix префикс имени страницы.
+     * @param limit  максимальное количество страниц.
+     * @return HTTP ответ со списком страниц в алфавитном порядке и статусом 200.
+     */
+    @GetMapping("/autocomplete/{prefix}")
+    public ResponseEntity<List<PageCompletionResponse>> autocomplete(@PathVariable("prefix") String prefix,
+                                                                     @RequestParam(name = "limit", required = false, defaultValue = "10")
+                                                                     @Min(1) @Max(100) int limit) {
+        List<PageCompletionResponse> pages = new ArrayList<>(limit);
+
+        for (PageCompletion completion : pageAutocompleteService.complete(prefix, limit)) {
+            pages.add(modelMapper.map(completion, PageCompletionResponse.class));
+        }
+
+        return ResponseEntity.ok().body(pages);
+    }
+
+    /**
+     * Метод, обрабатывающий запрос на полнотекстовый поиск страниц по тексту их документов.
+     *
+     * @param query поисковый запрос.
+     * @param bunch номер страницы при пагинации.
+     * @param size  количество элементов на странице при пагинации.
+     * @return HTTP ответ со списком найденых документов, упорядоченным по релевантности, и статусом 200.
+     */
+    @GetMapping
+    public ResponseEntity<List<DocumentSearchResponse>> searchText(@RequestParam("query") String query,
+                                                                   @RequestParam("bunch") @Min(0) int bunch,
+                                                                   @RequestParam("size") @Min(1) @Max(100) int size) {
+        List<DocumentSearchResponse> documents = new LinkedList<>();
+
+        for (DocumentSearchResult result : documentService.search(query, bunch, size)) {
+            documents.add(modelMapper.map(result, DocumentSearchResponse.class));
+        }
+
+        return ResponseEntity.ok().body(documents);
+    }
+
+    /**
+     * Метод, конвертирующий страницу-предка в ответ вместе с ее предками.
+     * Каждый предок конвертируется один раз и переиспользуется для всех найденных страниц.
+     *
+     * @param pageId    ID страницы-предка или null, если предка нет.
+     * @param page      найденная страница, пространство которой разделяют ее предки.
+     * @param ancestors страницы-предки по их ID.
+     * @param parents   уже сконвертированные предки по их ID.
+     * @return информацию о странице-предке или null, если предка нет.
+     */
+    private SearchPageResponse toParentResponse(Integer pageId, PageSearchResult page,
+                                                Map<Integer, PageSummary> ancestors,
+                                                Map<Integer, SearchPageResponse> parents) {
+        PageSummary ancestor = pageId != null ? ancestors.get(pageId) : null;
+        if (ancestor == null) {
+            return null;
+        }
+
+        SearchPageResponse response = parents.get(pageId);
+        if (response == null) {
+            response = modelMapper.map(ancestor, SearchPageResponse.class);
+            response.setSpaceId(page.getSpaceId());
+            response.setSpaceName(page.getSpaceName());
+            response.setParent(toParentResponse(ancestor.getParentId(), page, ancestors, parents));
+            parents.put(pageId, response);
+        }
+
+        return response;
+    }
+}
\ No newline at end of file
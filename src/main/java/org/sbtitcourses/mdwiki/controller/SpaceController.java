@@ -4,7 +4,9 @@ import org.modelmapper.ModelMapper;
 import org.sbtitcourses.mdwiki.dto.space.SpaceRequest;
 import org.sbtitcourses.mdwiki.dto.space.SpaceResponse;
 import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.projection.SpaceSummary;
 import org.sbtitcourses.mdwiki.service.SpaceService;
+import org.sbtitcourses.mdwiki.util.Cursors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,7 +24,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/spaces")
 @Validated
-@CrossOrigin
+@CrossOrigin(exposedHeaders = Cursors.NEXT_CURSOR_HEADER)
 public class SpaceController {
 
     /**
@@ -65,42 +67,57 @@ public class SpaceController {
 
     /**
      * Метод, обрабатывающий запрос на получение всех пространств пользователя.
+     * Если номер страницы не указан, страница выбирается по курсору, а ответ содержит
+     * курсор следующей страницы в заголовке {@link Cursors#NEXT_CURSOR_HEADER}.
      *
-     * @param bunch номер страницы при пагинации.
-     * @param size  количество элементов на странице при пагинации.
+     * @param bunch  номер страницы при пагинации.
+     * @param cursor курсор страницы при курсорной пагинации.
+     * @param size   количество элементов на странице при пагинации.
      * @return HTTP ответ со списком пространств и статусом 200.
      */
     @GetMapping
-    public ResponseEntity<List<SpaceResponse>> get(@RequestParam("bunch") @Min(0) int bunch,
+    public ResponseEntity<List<SpaceResponse>> get(@RequestParam(name = "bunch", required = false) @Min(0) Integer bunch,
+                                                   @RequestParam(name = "cursor", required = false) String cursor,
                                                    @RequestParam("size") @Min(1) int size) {
+        List<SpaceSummary> found = bunch != null
+                ? spaceService.get(bunch, size)
+                : spaceService.getAfter(Cursors.decode(cursor), size);
         List<SpaceResponse> spaces = new LinkedList<>();
 
-        for (Space space : spaceService.get(bunch, size)) {
+        for (SpaceSummary space : found) {
             SpaceResponse spaceResponse = modelMapper.map(space, SpaceResponse.class);
             spaces.add(spaceResponse);
         }
 
-        return ResponseEntity.ok().body(spaces);
+        return Cursors.ok(found, size, SpaceSummary::getId).body(spaces);
     }
 
     /**
      * Метод, обрабатывающий запрос на получение всех публичных пространств.
+     * Если номер страницы не указан, страница выбирается по курсору, а ответ содержит
+     * курсор следующей страницы в заголовке {@link Cursors#NEXT_CURSOR_HEADER}.
      *
-     * @param bunch номер страницы при пагинации.
-     * @param size  количество элементов на странице при пагинации.
+     * @param bunch  номер страницы при пагинации.
+     * @param cursor курсор страницы при курсорной пагинации.
+     * @param size   количество элементов на странице при пагинации.
      * @return HTTP ответ со списком пространств и статусом 200.
      */
     @GetMapping("/shared")
-    public ResponseEntity<List<SpaceResponse>> getShared(@RequestParam("bunch") @Min(0) int bunch,
-                                                         @RequestParam("size") @Min(1) int size) {
+    public ResponseEntity<List<SpaceResponse>>
+    getShared(@RequestParam(name = "bunch", required = false) @Min(0) Integer bunch,
+              @RequestParam(name = "cursor", required = false) String cursor,
+              @RequestParam("size") @Min(1) int size) {
+        List<SpaceSummary> found = bunch != null
+                ? spaceService.getShared(bunch, size)
+                : spaceService.getSharedAfter(Cursors.decode(cursor), size);
         List<SpaceResponse> spaces = new LinkedList<>();
 
-        for (Space space : spaceService.getShared(bunch, size)) {
+        for (SpaceSummary space : found) {
             SpaceResponse spaceResponse = modelMapper.map(space, SpaceResponse.class);
             spaces.add(spaceResponse);
         }
 
-        return ResponseEntity.ok().body(spaces);
+        return Cursors.ok(found, size, SpaceSummary::getId).body(spaces);
     }
 
     /**
@@ -0,0 +1,85 @@
+package org.sbtitcourses.mdwiki.dto.document;
+
+/**
+ * DTO результата полнотекстового поиска по документам для ответа.
+ */
+public class DocumentSearchResponse {
+
+    /**
+     * ID записи, содержащей документ.
+     */
+    private int pageId;
+
+    /**
+     * Название записи, содержащей документ.
+     */
+    private String pageName;
+
+    /**
+     * ID пространства, содержащего запись.
+     */
+    private int spaceId;
+
+    /**
+     * Название пространства, содержащего запись.
+     */
+    private String spaceName;
+
+    /**
+     * Релевантность документа запросу.
+     */
+    private float rank;
+
+    /**
+     * Фрагменты текста документа, в которых найденные слова выделены как **жирный текст**.
+     */
+    private String snippet;
+
+    public int getPageId() {
+        return pageId;
+    }
+
+    public void setPageId(int pageId) {
+        this.pageId = pageId;
+    }
+
+    public String getPageName() {
+        return pageName;
+    }
+
+    public void setPageName(String pageName) {
+        this.pageName = pageName;
+    }
+
+    public int getSpaceId() {
+        return spaceId;
+    }
+
+    public void setSpaceId(int spaceId) {
+        this.spaceId = spaceId;
+    }
+
+    public String getSpaceName() {
+        return spaceName;
+    }
+
+    public void setSpaceName(String spaceName) {
+        this.spaceName = spaceName;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public void setRank(float rank) {
+        this.rank = rank;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+}
@@ -0,0 +1,35 @@
+package org.sbtitcourses.mdwiki.dto.document;
+
+import org.sbtitcourses.mdwiki.util.PdfExportJob;
+
+/**
+ * DTO задачи экспорта документа в PDF формат {@link PdfExportJob} для ответа.
+ */
+public class PdfExportJobResponse {
+
+    /**
+     * ID задачи.
+     */
+    private String id;
+
+    /**
+     * Состояние задачи.
+     */
+    private PdfExportJob.Status status;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public PdfExportJob.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(PdfExportJob.Status status) {
+        this.status = status;
+    }
+}
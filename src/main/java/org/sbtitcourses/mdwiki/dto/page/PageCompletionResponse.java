@@ -0,0 +1,46 @@
+package org.sbtitcourses.mdwiki.dto.page;
+
+/**
+ * DTO сущности {@link org.sbtitcourses.mdwiki.model.Page} для ответа автодополнения названий страниц.
+ */
+public class PageCompletionResponse {
+
+    /**
+     * ID записи.
+     */
+    private int id;
+
+    /**
+     * Название записи.
+     */
+    private String name;
+
+    /**
+     * Id пространства, которое содержит эту запись.
+     */
+    private int spaceId;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getSpaceId() {
+        return spaceId;
+    }
+
+    public void setSpaceId(int spaceId) {
+        this.spaceId = spaceId;
+    }
+}
@@ -0,0 +1,46 @@
+package org.sbtitcourses.mdwiki.dto.page;
+
+/**
+ * DTO сущности {@link org.sbtitcourses.mdwiki.model.Page} для ответа с поддеревом страниц.
+ */
+public class PageTreeResponse {
+
+    /**
+     * Корневая запись с подстраницами не глубже {@link #depth}.
+     */
+    private PageResponse root;
+
+    /**
+     * Максимальная глубина подстраниц в ответе.
+     */
+    private int depth;
+
+    /**
+     * Количество подстраниц корневой записи на любой глубине.
+     */
+    private long descendantCount;
+
+    public PageResponse getRoot() {
+        return root;
+    }
+
+    public void setRoot(PageResponse root) {
+        this.root = root;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public long getDescendantCount() {
+        return descendantCount;
+    }
+
+    public void setDescendantCount(long descendantCount) {
+        this.descendantCount = descendantCount;
+    }
+}
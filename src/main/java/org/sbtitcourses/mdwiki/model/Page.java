@@ -42,7 +42,7 @@ public class Page {
     /**
      * Запись-родитель, которая содержит эту запись.
      */
-    @ManyToOne(fetch = EAGER)
+    @ManyToOne(fetch = LAZY)
     @JoinColumn(name = "parent_id", referencedColumnName = "id")
     private Page parent;
 
@@ -71,6 +71,20 @@ public class Page {
     @Column(name = "shared", nullable = false)
     private boolean shared;
 
+    /**
+     * Путь записи в дереве: ID страниц-родителей от корня, каждый из которых завершается символом "/".
+     * Путь корневой записи - "/".
+     */
+    @Column(name = "path", nullable = false, updatable = false)
+    private String path;
+
+    /**
+     * Статус публичности записи с учетом страниц-родителей:
+     * true, если запись и все ее страницы-родители являются публичными.
+     */
+    @Column(name = "effectively_shared", nullable = false)
+    private boolean effectivelyShared;
+
     /**
      * Список документов, принадлжащих данной записи.
      */
@@ -89,6 +103,29 @@ public class Page {
         return space.getOwner();
     }
 
+    /**
+     * Метод, вычисляющий путь и статус публичности с учетом страниц-родителей перед сохранением новой записи.
+     */
+    @PrePersist
+    private void initPath() {
+        path = parent == null ? "/" : parent.getDescendantsPath();
+        updateEffectivelyShared();
+    }
+
+    /**
+     * Метод, пересчитывающий статус публичности записи с учетом страницы-родителя.
+     */
+    public void updateEffectivelyShared() {
+        effectivelyShared = shared && (parent == null || parent.isEffectivelyShared());
+    }
+
+    /**
+     * @return префикс путей всех подстраниц этой записи на любой глубине.
+     */
+    public String getDescendantsPath() {
+        return path + id + "/";
+    }
+
     public int getId() {
         return id;
     }
@@ -153,6 +190,22 @@ public class Page {
         this.shared = shared;
     }
 
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public boolean isEffectivelyShared() {
+        return effectivelyShared;
+    }
+
+    public void setEffectivelyShared(boolean effectivelyShared) {
+        this.effectivelyShared = effectivelyShared;
+    }
+
     public Document getDocument() {
         return document;
     }
@@ -208,6 +261,16 @@ public class Page {
             return this;
         }
 
+        public PageBuilder path(String path) {
+            page.setPath(path);
+            return this;
+        }
+
+        public PageBuilder effectivelyShared(boolean effectivelyShared) {
+            page.setEffectivelyShared(effectivelyShared);
+            return this;
+        }
+
         public PageBuilder document(Document document) {
             page.setDocument(document);
             return this;
@@ -23,7 +23,7 @@ public class StoredFile {
     /**
      * Уникальный идентификатор файла.
      */
-    @Column(name = "guid", nullable = false)
+    @Column(name = "guid", nullable = false, unique = true)
     private String GUID;
 
     /**
@@ -44,6 +44,13 @@ public class StoredFile {
     @Column(name = "size", nullable = false)
     private long size;
 
+    /**
+     * SHA-256 хэш содержимого файла, по которому файл хранится на диске.
+     * Равен null для файлов, записанных в директорию владельца до хранения по хэшу.
+     */
+    @Column(name = "content_hash")
+    private String contentHash;
+
     /**
      * Пользователь-владелец файла.
      */
@@ -58,6 +65,31 @@ public class StoredFile {
     @JoinColumn(name = "space_id", referencedColumnName = "id", nullable = false)
     private Space space;
 
+    /**
+     * Состояние создания превью файла.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "thumbnail_status", nullable = false)
+    private ThumbnailStatus thumbnailStatus = ThumbnailStatus.PENDING;
+
+    /**
+     * Высота превью файла.
+     */
+    @Column(name = "thumbnail_height", nullable = false)
+    private int thumbnailHeight;
+
+    /**
+     * Ширина превью файла.
+     */
+    @Column(name = "thumbnail_width", nullable = false)
+    private int thumbnailWidth;
+
+    /**
+     * Количество неудачных попыток создания превью файла.
+     */
+    @Column(name = "thumbnail_attempts", nullable = false)
+    private int thumbnailAttempts;
+
     public StoredFile() {
     }
 
@@ -111,6 +143,14 @@ public class StoredFile {
         this.size = size;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public Person getOwner() {
         return owner;
     }
@@ -126,4 +166,46 @@ public class StoredFile {
     public void setSpace(Space space) {
         this.space = space;
     }
+
+    public ThumbnailStatus getThumbnailStatus() {
+        return thumbnailStatus;
+    }
+
+    public void setThumbnailStatus(ThumbnailStatus thumbnailStatus) {
+        this.thumbnailStatus = thumbnailStatus;
+    }
+
+    public int getThumbnailHeight() {
+        return thumbnailHeight;
+    }
+
+    public void setThumbnailHeight(int thumbnailHeight) {
+        this.thumbnailHeight = thumbnailHeight;
+    }
+
+    public int getThumbnailWidth() {
+        return thumbnailWidth;
+    }
+
+    public void setThumbnailWidth(int thumbnailWidth) {
+        this.thumbnailWidth = thumbnailWidth;
+    }
+
+    public int getThumbnailAttempts() {
+        return thumbnailAttempts;
+    }
+
+    public void setThumbnailAttempts(int thumbnailAttempts) {
+        this.thumbnailAttempts = thumbnailAttempts;
+    }
+
+    /**
+     * Состояние создания превью файла. Для форматов, которые не удается прочитать, превью не создаются.
+     */
+    public enum ThumbnailStatus {
+        PENDING,
+        READY,
+        FAILED,
+        UNSUPPORTED
+    }
 }
@@ -2,8 +2,13 @@ package org.sbtitcourses.mdwiki.repository;
 
 import org.sbtitcourses.mdwiki.model.Document;
 import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.repository.projection.DocumentSearchResult;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -18,4 +23,35 @@ public interface DocumentRepository extends JpaRepository<Document, Integer> {
      * @return найденую страницу.
      */
     Optional<Document> findByPage(Page page);
+
+    /**
+     * Поиск документа по странице вместе со страницей, ее пространством и его владельцем одним запросом.
+     *
+     * @param pageId  ID страницы, по которой нужно найти документ.
+     * @param spaceId ID пространства, в котором находится страница.
+     * @return найденый документ.
+     */
+    @EntityGraph(attributePaths = {"page", "page.space", "page.space.owner"})
+    Optional<Document> findByPageIdAndPageSpaceId(int pageId, int spaceId);
+
+    /**
+     * Полнотекстовый поиск документов, доступных пользователю для чтения, по индексу search_vector.
+     * Документ доступен, если пользователь - владелец пространства, или пространство,
+     * страница документа и все ее страницы-родители являются публичными.
+     * Результаты упорядочены по убыванию релевантности.
+     *
+     * @param query    поисковый запрос.
+     * @param userId   ID пользователя, выполняющего поиск.
+     * @param pageable объект, определяющий нужное колличество результатов.
+     * @return список найденых документов.
+     */
+    @Query(value = "select p.id as \"pageId\", p.name as \"pageName\", s.id as \"spaceId\", s.name as \"spaceName\", " +
+            "ts_rank(d.search_vector, q) as \"rank\", " +
+            "ts_headline('russian', d.text, q, 'StartSel=**, StopSel=**, MaxFragments=2, MaxWords=20, MinWords=5') as \"snippet\" " +
+            "from documents d join pages p on p.id = d.page_id join spaces s on s.id = p.space_id, " +
+            "websearch_to_tsquery('russian', :query) q " +
+            "where d.search_vector @@ q and (s.owner_id = :userId or (s.shared and p.effectively_shared)) " +
+            "order by \"rank\" desc, p.id",
+            nativeQuery = true)
+    List<DocumentSearchResult> search(String query, int userId, Pageable pageable);
 }
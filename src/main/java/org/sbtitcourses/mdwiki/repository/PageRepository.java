@@ -3,10 +3,17 @@ package org.sbtitcourses.mdwiki.repository;
 import org.sbtitcourses.mdwiki.model.Page;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.projection.PageName;
+import org.sbtitcourses.mdwiki.repository.projection.PageSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+import org.sbtitcourses.mdwiki.repository.projection.PageTreeNode;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +46,16 @@ public interface PageRepository extends JpaRepository<Page, Integer> {
      */
     Optional<Page> findByIdAndSpace(int id, Space space);
 
+    /**
+     * Поиск записи данного пространства вместе с пространством, его владельцем и документом записи одним запросом.
+     *
+     * @param id      ID записи.
+     * @param spaceId ID пространства, в котором ищется запись.
+     * @return найденую запись.
+     */
+    @EntityGraph(attributePaths = {"space", "space.owner", "document"})
+    Optional<Page> findByIdAndSpaceId(int id, int spaceId);
+
     /**
      * Поиск корневых записей данного пространства.
      *
@@ -46,7 +63,48 @@ public interface PageRepository extends JpaRepository<Page, Integer> {
      * @param pageable объект, определяющий нужное колличество страниц.
      * @return список найденых записней.
      */
-    List<Page> findBySpaceAndParentIsNullOrderById(Space space, Pageable pageable);
+    @Query("select p.id as id, p.name as name, p.parent.id as parentId, p.createdAt as createdAt, " +
+            "p.updatedAt as updatedAt, p.shared as shared " +
+            "from Page p where p.space = :space and p.parent is null order by p.id")
+    List<PageSummary> findBySpaceAndParentIsNullOrderById(Space space, Pageable pageable);
+
+    /**
+     * Поиск корневых записей данного пространства, следующих за записью с данным ID.
+     *
+     * @param space    пространство, в котором ищутся записи.
+     * @param id       ID последней записи предыдущей страницы.
+     * @param pageable объект, определяющий нужное колличество записей.
+     * @return список найденых записей, упорядоченный по ID.
+     */
+    @Query("select p.id as id, p.name as name, p.parent.id as parentId, p.createdAt as createdAt, " +
+            "p.updatedAt as updatedAt, p.shared as shared " +
+            "from Page p where p.space = :space and p.parent is null and p.id > :id order by p.id")
+    List<PageSummary> findBySpaceAndParentIsNullAndIdGreaterThanOrderById(Space space, int id, Pageable pageable);
+
+    /**
+     * Поиск всех записей-потомков данных записей пространства одним запросом по пути записей.
+     *
+     * @param space   пространство, в котором ищутся записи.
+     * @param pageIds ID записей, потомков которых нужно найти.
+     * @return список найденых записей, упорядоченный по ID.
+     */
+    @Query("select p.id as id, p.name as name, p.parent.id as parentId, p.createdAt as createdAt, " +
+            "p.updatedAt as updatedAt, p.shared as shared " +
+            "from Page p, Page r where r.space = :space and r.id in :pageIds and p.space = :space " +
+            "and p.path like concat(r.path, str(r.id), '/%') order by p.id")
+    List<PageSummary> findDescendants(Space space, Collection<Integer> pageIds);
+
+    /**
+     * Поиск записей данного пользователя по ID.
+     *
+     * @param ids     ID записей.
+     * @param ownerId ID пользователя, у которого ищутся записи.
+     * @return список найденых записей.
+     */
+    @Query("select p.id as id, p.name as name, p.parent.id as parentId, p.createdAt as createdAt, " +
+            "p.updatedAt as updatedAt, p.shared as shared " +
+            "from Page p where p.id in :ids and p.space.owner.id = :ownerId")
+    List<PageSummary> findByIdInAndOwnerId(Collection<Integer> ids, int ownerId);
 
     /**
      * Поиск записи данного пространства по названию.
@@ -64,6 +122,110 @@ public interface PageRepository extends JpaRepository<Page, Integer> {
      * @param pageSearch подстрока имени записи.
      * @return Поиск записи данного пользователя по названию.
      */
-    @Query("select page from Person p join Space s on p.id = s.owner.id join Page page on s.id = page.space.id where p = :owner and page.name like :pageSearch || '%' order by page.name")
-    List<Page> findByOwnerAndNameStartingWith(Person owner, String pageSearch);
-}
\ No newline at end of file
+    @Query("select page.id as id, page.name as name, page.parent.id as parentId, page.path as path, " +
+            "s.id as spaceId, s.name as spaceName, page.createdAt as createdAt, page.updatedAt as updatedAt, " +
+            "page.shared as shared from Page page join page.space s " +
+            "where s.owner = :owner and page.name like :pageSearch || '%' order by page.name")
+    List<PageSearchResult> findByOwnerAndNameStartingWith(Person owner, String pageSearch);
+
+    /**
+     * Поиск названий всех записей данного пользователя.
+     *
+     * @param ownerId ID пользователя, у которого ищутся записи.
+     * @return список названий записей.
+     */
+    @Query("select p.id as id, p.name as name, p.space.id as spaceId, p.parent.id as parentId " +
+            "from Page p where p.space.owner.id = :ownerId")
+    List<PageName> findNamesByOwnerId(int ownerId);
+
+    /**
+     * Поиск записей данного пользователя по подстроке названия с учетом опечаток по индексу pages_name_trgm_idx.
+     * Запись находится, если ее название содержит строку поиска или похоже на нее по триграммам.
+     * Записи, название которых содержит строку поиска, идут первыми, остальные упорядочены по убыванию похожести.
+     *
+     * @param ownerId    ID пользователя, у которого ищутся записи.
+     * @param pageSearch строка поиска.
+     * @param pageable   объект, определяющий нужное колличество записей.
+     * @return список найденых записей.
+     */
+    @Query(value = "select p.id as \"id\", p.name as \"name\", p.parent_id as \"parentId\", p.path as \"path\", " +
+            "s.id as \"spaceId\", s.name as \"spaceName\", p.created_at as \"createdAt\", " +
+            "p.updated_at as \"updatedAt\", p.shared as \"shared\" from pages p join spaces s on s.id = p.space_id " +
+            "where s.owner_id = :ownerId and (p.name ilike '%' || " +
+            "replace(replace(replace(:pageSearch, '\\', '\\\\'), '%', '\\%'), '_', '\\_') || '%' " +
+            "or :pageSearch <% p.name) " +
+            "order by strpos(lower(p.name), lower(:pageSearch)) > 0 desc, word_similarity(:pageSearch, p.name) desc, p.name",
+            nativeQuery = true)
+    List<PageSearchResult> findByOwnerAndNameSimilarTo(int ownerId, String pageSearch, Pageable pageable);
+
+    /**
+     * Установка порога похожести для поиска записей по триграммам до конца текущей транзакции.
+     *
+     * @param threshold порог похожести от 0 до 1.
+     * @return установленное значение порога.
+     */
+    @Query(value = "select set_config('pg_trgm.word_similarity_threshold', cast(:threshold as text), true)",
+            nativeQuery = true)
+    String setWordSimilarityThreshold(double threshold);
+
+    /**
+     * Поиск записи и всех ее подстраниц вместе с текстами документов одним запросом.
+     * Подстраницы находятся по префиксу пути с помощью индекса pages_path_idx.
+     *
+     * @param id          ID корневой записи поддерева.
+     * @param pathPattern шаблон путей подстраниц записи: {@link Page#getDescendantsPath()} и символ "%".
+     * @return список записей поддерева.
+     */
+    @Query(value = "select p.id as \"id\", p.parent_id as \"parentId\", d.text as \"text\" " +
+            "from pages p left join documents d on d.page_id = p.id " +
+            "where p.id = :id or p.path like :pathPattern",
+            nativeQuery = true)
+    List<PageTreeNode> findTreeById(int id, String pathPattern);
+
+    /**
+     * Поиск записи и ее подстраниц не глубже данного уровня одним запросом.
+     * Подстраницы находятся по префиксу пути с помощью индекса pages_path_idx,
+     * а глубина подстраницы определяется количеством разделителей в ее пути.
+     *
+     * @param id             ID корневой записи поддерева.
+     * @param pathPattern    шаблон путей подстраниц записи: {@link Page#getDescendantsPath()} и символ "%".
+     * @param maxSeparators  максимальное количество разделителей "/" в пути подстраницы.
+     * @param includePrivate true - если нужно найти и непубличные подстраницы, false - только публичные.
+     * @return список записей поддерева, упорядоченный по ID.
+     */
+    @Query(value = "select p.id as \"id\", p.name as \"name\", p.parent_id as \"parentId\", " +
+            "p.created_at as \"createdAt\", p.updated_at as \"updatedAt\", p.shared as \"shared\" " +
+            "from pages p where p.id = :id or (p.path like :pathPattern " +
+            "and length(p.path) - length(replace(p.path, '/', '')) <= :maxSeparators " +
+            "and (:includePrivate or p.effectively_shared)) " +
+            "order by p.id",
+            nativeQuery = true)
+    List<PageSummary> findSubtreeById(int id, String pathPattern, int maxSeparators, boolean includePrivate);
+
+    /**
+     * Подсчет подстраниц записи на любой глубине без их загрузки.
+     *
+     * @param pathPattern    шаблон путей подстраниц записи: {@link Page#getDescendantsPath()} и символ "%".
+     * @param includePrivate true - если нужно учесть и непубличные подстраницы, false - только публичные.
+     * @return количество подстраниц.
+     */
+    @Query(value = "select count(*) from pages p " +
+            "where p.path like :pathPattern and (:includePrivate or p.effectively_shared)",
+            nativeQuery = true)
+    long countByPathLike(String pathPattern, boolean includePrivate);
+
+    /**
+     * Обновление статуса публичности с учетом страниц-родителей для подстраниц записи на любой глубине.
+     * Подстраница считается публичной, если публичны она сама, запись и все страницы между ними.
+     *
+     * @param pathPattern шаблон путей подстраниц записи: {@link Page#getDescendantsPath()} и символ "%".
+     * @param shared      статус публичности записи с учетом ее страниц-родителей.
+     */
+    @Modifying
+    @Query(value = "update pages d set effectively_shared = :shared and d.shared and not exists (" +
+            "select 1 from pages a where a.path like :pathPattern and not a.shared " +
+            "and d.path like a.path || a.id || '/%') " +
+            "where d.path like :pathPattern",
+            nativeQuery = true)
+    void updateEffectivelySharedByPathLike(String pathPattern, boolean shared);
+}
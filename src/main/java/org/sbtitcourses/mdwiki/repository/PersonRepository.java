@@ -1,8 +1,11 @@
 package org.sbtitcourses.mdwiki.repository;
 
 import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.repository.projection.PersonSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -34,4 +37,30 @@ public interface PersonRepository extends JpaRepository<Person, Integer> {
      * @return найденного пользователя.
      */
     Optional<Person> findByUsernameOrEmail(String username, String email);
+
+    /**
+     * Поиск всех пользователей с данным логином или эл. почтой.
+     *
+     * @param username логин пользователя.
+     * @param email    эл. почта пользователя.
+     * @return список найденных пользователей.
+     */
+    List<Person> findAllByUsernameOrEmail(String username, String email);
+
+    /**
+     * Поиск пользователей.
+     *
+     * @param pageable объект, определяющий нужное колличество страниц.
+     * @return список найденных пользователей, упорядоченный по ID.
+     */
+    List<PersonSummary> findAllByOrderById(Pageable pageable);
+
+    /**
+     * Поиск пользователей, следующих за пользователем с данным ID.
+     *
+     * @param id       ID последнего пользователя предыдущей страницы.
+     * @param pageable объект, определяющий нужное колличество пользователей.
+     * @return список найденных пользователей, упорядоченный по ID.
+     */
+    List<PersonSummary> findByIdGreaterThanOrderById(int id, Pageable pageable);
 }
@@ -2,6 +2,7 @@ package org.sbtitcourses.mdwiki.repository;
 
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.projection.SpaceSummary;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
@@ -27,7 +28,16 @@ public interface SpaceRepository extends JpaRepository<Space, Integer> {
      * @param pageable объект, определяющий нужное колличество страниц.
      * @return список найденых пространтсв.
      */
-    List<Space> findBySharedTrue(Pageable pageable);
+    List<SpaceSummary> findBySharedTrue(Pageable pageable);
+
+    /**
+     * Поиск публичных пространств, следующих за пространством с данным ID.
+     *
+     * @param id       ID последнего пространства предыдущей страницы.
+     * @param pageable объект, определяющий нужное колличество пространств.
+     * @return список найденых пространтсв, упорядоченный по ID.
+     */
+    List<SpaceSummary> findBySharedTrueAndIdGreaterThanOrderById(int id, Pageable pageable);
 
     /**
      * Поиск пространств по владельцу.
@@ -36,7 +46,17 @@ public interface SpaceRepository extends JpaRepository<Space, Integer> {
      * @param pageable объект, определяющий нужное колличество страниц.
      * @return возвращает список найденых пространтсв.
      */
-    List<Space> findByOwnerOrderById(Person owner, Pageable pageable);
+    List<SpaceSummary> findByOwnerOrderById(Person owner, Pageable pageable);
+
+    /**
+     * Поиск пространств по владельцу, следующих за пространством с данным ID.
+     *
+     * @param owner    владелец пространства.
+     * @param id       ID последнего пространства предыдущей страницы.
+     * @param pageable объект, определяющий нужное колличество пространств.
+     * @return список найденых пространтсв, упорядоченный по ID.
+     */
+    List<SpaceSummary> findByOwnerAndIdGreaterThanOrderById(Person owner, int id, Pageable pageable);
 
     /**
      * Поиск пространства по владельцу и названию.
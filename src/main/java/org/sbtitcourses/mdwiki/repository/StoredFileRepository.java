@@ -4,6 +4,9 @@ import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.StoredFile;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,4 +32,45 @@ public interface StoredFileRepository extends JpaRepository<StoredFile, Integer>
      * @return найденый файл.
      */
     List<StoredFile> findByOwner(Person owner, Pageable pageable);
+
+    /**
+     * Поиск файлов по владельцу, следующих за файлом с данным ID.
+     *
+     * @param owner    владелец файла.
+     * @param id       ID последнего файла предыдущей страницы.
+     * @param pageable объект, определяющий нужное колличество файлов.
+     * @return список найденых файлов, упорядоченный по ID.
+     */
+    List<StoredFile> findByOwnerAndIdGreaterThanOrderById(Person owner, int id, Pageable pageable);
+
+    /**
+     * Подсчет файлов с данным содержимым.
+     *
+     * @param contentHash SHA-256 хэш содержимого файла.
+     * @return количество файлов, ссылающихся на содержимое.
+     */
+    long countByContentHash(String contentHash);
+
+    /**
+     * Поиск файлов по состоянию создания превью.
+     *
+     * @param thumbnailStatus состояние создания превью.
+     * @param pageable        объект, определяющий нужное колличество файлов.
+     * @return список найденых файлов, упорядоченный по ID.
+     */
+    List<StoredFile> findByThumbnailStatusOrderById(StoredFile.ThumbnailStatus thumbnailStatus, Pageable pageable);
+
+    /**
+     * Обновление состояния создания превью файла.
+     * Обновляется только состояние, поэтому файл, удаленный во время создания превью, не будет записан снова.
+     *
+     * @param id                ID файла.
+     * @param thumbnailStatus   состояние создания превью.
+     * @param thumbnailAttempts количество неудачных попыток создания превью.
+     */
+    @Transactional
+    @Modifying
+    @Query("update StoredFile f set f.thumbnailStatus = :thumbnailStatus, " +
+            "f.thumbnailAttempts = :thumbnailAttempts where f.id = :id")
+    void updateThumbnailStatus(int id, StoredFile.ThumbnailStatus thumbnailStatus, int thumbnailAttempts);
 }
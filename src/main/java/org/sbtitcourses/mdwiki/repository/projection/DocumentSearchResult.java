@@ -0,0 +1,37 @@
+package org.sbtitcourses.mdwiki.repository.projection;
+
+/**
+ * Проекция результата полнотекстового поиска по документам.
+ */
+public interface DocumentSearchResult {
+
+    /**
+     * @return ID записи, содержащей документ.
+     */
+    int getPageId();
+
+    /**
+     * @return название записи, содержащей документ.
+     */
+    String getPageName();
+
+    /**
+     * @return ID пространства, содержащего запись.
+     */
+    int getSpaceId();
+
+    /**
+     * @return название пространства, содержащего запись.
+     */
+    String getSpaceName();
+
+    /**
+     * @return релевантность документа запросу.
+     */
+    float getRank();
+
+    /**
+     * @return фрагменты текста документа, в которых найденные слова выделены как **жирный текст**.
+     */
+    String getSnippet();
+}
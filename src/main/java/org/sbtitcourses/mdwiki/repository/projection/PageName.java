@@ -0,0 +1,27 @@
+package org.sbtitcourses.mdwiki.repository.projection;
+
+/**
+ * Проекция записи с ее названием и положением в пространстве.
+ */
+public interface PageName {
+
+    /**
+     * @return ID записи.
+     */
+    int getId();
+
+    /**
+     * @return название записи.
+     */
+    String getName();
+
+    /**
+     * @return ID пространства, которое содержит запись.
+     */
+    int getSpaceId();
+
+    /**
+     * @return ID записи-родителя или null для корневой записи.
+     */
+    Integer getParentId();
+}
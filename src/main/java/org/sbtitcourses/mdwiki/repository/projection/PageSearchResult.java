@@ -0,0 +1,54 @@
+package org.sbtitcourses.mdwiki.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Проекция записи, найденной по названию, вместе с ее пространством.
+ */
+public interface PageSearchResult {
+
+    /**
+     * @return ID записи.
+     */
+    int getId();
+
+    /**
+     * @return название записи.
+     */
+    String getName();
+
+    /**
+     * @return ID записи-родителя или null для корневой записи.
+     */
+    Integer getParentId();
+
+    /**
+     * @return путь от корня пространства до записи из ID ее записей-родителей.
+     */
+    String getPath();
+
+    /**
+     * @return ID пространства, которое содержит запись.
+     */
+    int getSpaceId();
+
+    /**
+     * @return название пространства, которое содержит запись.
+     */
+    String getSpaceName();
+
+    /**
+     * @return точное время создания записи.
+     */
+    Instant getCreatedAt();
+
+    /**
+     * @return точное время обновления записи.
+     */
+    Instant getUpdatedAt();
+
+    /**
+     * @return статус публичности записи.
+     */
+    boolean isShared();
+}
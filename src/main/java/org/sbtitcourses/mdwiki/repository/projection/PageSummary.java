@@ -0,0 +1,39 @@
+package org.sbtitcourses.mdwiki.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Проекция записи для списков записей без связанных сущностей.
+ */
+public interface PageSummary {
+
+    /**
+     * @return ID записи.
+     */
+    int getId();
+
+    /**
+     * @return название записи.
+     */
+    String getName();
+
+    /**
+     * @return ID записи-родителя или null для корневой записи.
+     */
+    Integer getParentId();
+
+    /**
+     * @return точное время создания записи.
+     */
+    Instant getCreatedAt();
+
+    /**
+     * @return точное время обновления записи.
+     */
+    Instant getUpdatedAt();
+
+    /**
+     * @return статус публичности записи.
+     */
+    boolean isShared();
+}
@@ -0,0 +1,22 @@
+package org.sbtitcourses.mdwiki.repository.projection;
+
+/**
+ * Проекция записи поддерева страниц вместе с текстом ее документа.
+ */
+public interface PageTreeNode {
+
+    /**
+     * @return ID записи.
+     */
+    int getId();
+
+    /**
+     * @return ID записи-родителя или null для корня поддерева.
+     */
+    Integer getParentId();
+
+    /**
+     * @return текст документа записи или null, если у записи нет документа.
+     */
+    String getText();
+}
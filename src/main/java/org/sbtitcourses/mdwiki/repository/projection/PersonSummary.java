@@ -0,0 +1,49 @@
+package org.sbtitcourses.mdwiki.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Проекция пользователя для списков пользователей без пароля и роли.
+ */
+public interface PersonSummary {
+
+    /**
+     * @return ID пользователя.
+     */
+    int getId();
+
+    /**
+     * @return логин пользователя.
+     */
+    String getUsername();
+
+    /**
+     * @return имя пользователя.
+     */
+    String getName();
+
+    /**
+     * @return адрес эл. почты пользователя.
+     */
+    String getEmail();
+
+    /**
+     * @return точное время создания пользователя.
+     */
+    Instant getCreatedAt();
+
+    /**
+     * @return точное время обновления пользователя.
+     */
+    Instant getUpdatedAt();
+
+    /**
+     * @return статус активности пользователя.
+     */
+    boolean isEnabled();
+
+    /**
+     * @return заметка пользователя.
+     */
+    String getNote();
+}
@@ -0,0 +1,34 @@
+package org.sbtitcourses.mdwiki.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Проекция пространства для списков пространств без владельца.
+ */
+public interface SpaceSummary {
+
+    /**
+     * @return ID пространства.
+     */
+    int getId();
+
+    /**
+     * @return название пространства.
+     */
+    String getName();
+
+    /**
+     * @return точное время создания пространства.
+     */
+    Instant getCreatedAt();
+
+    /**
+     * @return точное время обновления пространства.
+     */
+    Instant getUpdatedAt();
+
+    /**
+     * @return статус публичности пространства.
+     */
+    boolean isShared();
+}
@@ -39,6 +39,13 @@ public class PersonDetails implements UserDetails {
         return this.person.getPassword();
     }
 
+    /**
+     * @return ID пользователя.
+     */
+    public int getId() {
+        return this.person.getId();
+    }
+
     @Override
     public String getUsername() {
         return this.person.getUsername();
@@ -4,19 +4,32 @@ import org.sbtitcourses.mdwiki.model.Document;
 import org.sbtitcourses.mdwiki.model.Page;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.repository.DocumentRepository;
+import org.sbtitcourses.mdwiki.repository.PageRepository;
+import org.sbtitcourses.mdwiki.repository.projection.DocumentSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageTreeNode;
 import org.sbtitcourses.mdwiki.util.ConvertedDocument;
 import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.MarkdownRenderer;
+import org.sbtitcourses.mdwiki.util.PdfCache;
 import org.sbtitcourses.mdwiki.util.PdfConverter;
+import org.sbtitcourses.mdwiki.util.RenderedDocument;
 import org.sbtitcourses.mdwiki.util.ResourceAccessHelper;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.PdfConversionException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Сервис с логикой взаимодействия с сущностью {@link Document}.
@@ -30,22 +43,62 @@ public class DocumentService implements IDocumentService {
      */
     private final DocumentRepository documentRepository;
 
+    /**
+     * Репозиторий для взаимодействия с сущностью {@link Page}.
+     */
+    private final PageRepository pageRepository;
+
     /**
      * Компонент для получения сущностей.
      */
     private final EntityFetcher entityFetcher;
 
+    /**
+     * Кэш документов, сконвертированных в PDF формат.
+     */
+    private final PdfCache pdfCache;
+
+    /**
+     * Компонент для конвертации документов в PDF формат.
+     */
+    private final PdfConverter pdfConverter;
+
+    /**
+     * Компонент для конвертации markdown-документов в HTML.
+     */
+    private final MarkdownRenderer markdownRenderer;
+
+    /**
+     * Сервис с логикой записи и получения изображений.
+     */
+    private final ImageStorageService imageStorageService;
+
     /**
      * Конструктор для автоматичекого внедрения зависимостей.
      *
-     * @param documentRepository репозиторий для взаимодействия с сущностью {@link Document}.
-     * @param entityFetcher      компонент для получения ресурсов.
+     * @param documentRepository  репозиторий для взаимодействия с сущностью {@link Document}.
+     * @param pageRepository      репозиторий для взаимодействия с сущностью {@link Page}.
+     * @param entityFetcher       компонент для получения ресурсов.
+     * @param pdfCache            кэш документов, сконвертированных в PDF формат.
+     * @param pdfConverter        компонент для конвертации документов в PDF формат.
+     * @param markdownRenderer    компонент для конвертации markdown-документов в HTML.
+     * @param imageStorageService сервис с логикой записи и получения изображений.
      */
     @Autowired
     public DocumentService(DocumentRepository documentRepository,
-                           EntityFetcher entityFetcher) {
+                           PageRepository pageRepository,
+                           EntityFetcher entityFetcher,
+                           PdfCache pdfCache,
+                           PdfConverter pdfConverter,
+                           MarkdownRenderer markdownRenderer,
+                           ImageStorageService imageStorageService) {
         this.documentRepository = documentRepository;
+        this.pageRepository = pageRepository;
         this.entityFetcher = entityFetcher;
+        this.pdfCache = pdfCache;
+        this.pdfConverter = pdfConverter;
+        this.markdownRenderer = markdownRenderer;
+        this.imageStorageService = imageStorageService;
     }
 
     /**
@@ -94,6 +147,29 @@ public class DocumentService implements IDocumentService {
         return document;
     }
 
+    /**
+     * Метод, отвечающий за получение документа в формате HTML.
+     * HTML кэшируется по хэшу текста документа, поэтому каждая версия документа конвертируется один раз.
+     *
+     * @param pageId  ID страницы, в которой нужно найти документ.
+     * @param spaceId ID пространства, в котором нужно найти документ.
+     * @return документ в формате HTML.
+     * @throws AccessDeniedException если не удалось определить пользователя.
+     */
+    @Override
+    public RenderedDocument getHtml(int pageId, int spaceId) {
+        Document document = entityFetcher.fetchDocument(pageId, spaceId);
+        Person user = entityFetcher.getLoggedInUser();
+
+        if (ResourceAccessHelper.isAccessToReadDocumentDenied(document, user)) {
+            throw new AccessDeniedException("Доступ запрещен");
+        }
+
+        String markdown = document.getText();
+
+        return new RenderedDocument(markdownRenderer.renderForBrowser(markdown), MarkdownRenderer.eTagOf(markdown));
+    }
+
     /**
      * Метод, отвечающий за обновление документа.
      *
@@ -116,6 +192,7 @@ public class DocumentService implements IDocumentService {
         document.setText(documentToUpdateWith.getText());
 
         documentRepository.save(document);
+        pdfCache.evictPage(document.getPage().getId());
 
         return document;
     }
@@ -140,16 +217,24 @@ public class DocumentService implements IDocumentService {
         document.getPage().setDocument(null);
 
         documentRepository.delete(document);
+        pdfCache.evictPage(document.getPage().getId());
     }
 
     /**
      * Метод, отвечающий за конвертацию докумета в PDF формат.
+     * Результат конвертации кэшируется по хэшу текста документа и параметрам конвертации.
+     * Поддерево страниц читается одним запросом и собирается в порядке обхода в глубину,
+     * подстраницы одного уровня упорядочены по ID, страницы без документа пропускаются.
+     * Документы страниц конвертируются в HTML параллельно и независимо друг от друга.
+     * Данные документа читаются сразу, а сама конвертация выполняется по требованию.
+     * Документ конвертируется в буфер, который освобождает рендерер до записи результата
+     * в поток вывода, поэтому медленная запись не задерживает другие конвертации.
      *
      * @param spaceId ID пространства.
      * @param pageId  ID страницы.
      * @param font    название шрифта.
      * @param size    размер шрифта в писелях.
-     * @return поток данных с документом в формате PDF.
+     * @return документ, записывающий PDF файл в поток вывода.
      * @throws AccessDeniedException  если не удалось определить пользователя.
      * @throws PdfConversionException если возникла ошибка конвертации.
      */
@@ -167,28 +252,89 @@ public class DocumentService implements IDocumentService {
             throw new AccessDeniedException("Доступ запрещен");
         }
 
-        String markdown = tree ? treeOf(page) : document.getText();
+        List<Integer> pageIds = new ArrayList<>();
+        List<String> documents = tree ? treeOf(page, pageIds) : List.of(document.getText());
         String documentName = document.getPage().getName();
 
-        byte[] bytes = PdfConverter.convert(markdown, font, size, user.getUsername());
-        InputStream inputStream = new ByteArrayInputStream(bytes);
+        if (!tree) {
+            pageIds.add(page.getId());
+        }
 
-        InputStreamResource inputStreamResource = new InputStreamResource(inputStream);
+        String username = user.getUsername();
+        String key = PdfCache.keyOf(documents, font, size, tree, username);
 
-        return new ConvertedDocument(inputStreamResource, documentName);
+        return new ConvertedDocument(() -> {
+            byte[] cached = pdfCache.get(key);
+
+            if (cached != null) {
+                return outputStream -> outputStream.write(cached);
+            }
+
+            PdfCache.Recorder recorder = pdfCache.recorder(key, pageIds);
+            try {
+                pdfConverter.convert(markdownRenderer.render(documents), font, size,
+                        GUID -> imageStorageService.findImageLocation(GUID, user).orElse(null),
+                        recorder.getOutputStream());
+                recorder.commit();
+            } catch (IOException | RuntimeException e) {
+                recorder.close();
+                throw e;
+            }
+
+            return recorder;
+        }, documentName, key);
     }
 
-    private String treeOf(Page page) {
-        StringBuilder markdown = new StringBuilder();
-        readTree(page, markdown);
-        return markdown.toString();
+    /**
+     * Метод, отвечающий за полнотекстовый поиск документов, доступных пользователю для чтения.
+     *
+     * @param query поисковый запрос.
+     * @param bunch номер страницы при пагинации.
+     * @param size  количество элементов на странице при пагинации.
+     * @return список найденых документов, упорядоченный по релевантности.
+     * @throws AccessDeniedException если не удалось определить пользователя.
+     */
+    @Override
+    public List<DocumentSearchResult> search(String query, int bunch, int size) {
+        Person user = entityFetcher.getLoggedInUser();
+
+        Pageable pageable = PageRequest.of(bunch, size);
+
+        return documentRepository.search(query, user.getId(), pageable);
     }
 
-    private void readTree(Page page, StringBuilder markdown) {
-        markdown.append(page.getDocument().getText());
-        for (Page subpage : page.getSubpages()) {
-            markdown.append("\n\n");
-            readTree(subpage, markdown);
+    private List<String> treeOf(Page page, List<Integer> pageIds) {
+        Map<Integer, List<PageTreeNode>> subpages = new HashMap<>();
+        PageTreeNode root = null;
+
+        for (PageTreeNode node : pageRepository.findTreeById(page.getId(), page.getDescendantsPath() + "%")) {
+            if (node.getId() == page.getId()) {
+                root = node;
+            } else {
+                subpages.computeIfAbsent(node.getParentId(), id -> new ArrayList<>()).add(node);
+            }
         }
+
+        subpages.values().forEach(nodes -> nodes.sort(Comparator.comparingInt(PageTreeNode::getId)));
+
+        List<String> documents = new ArrayList<>();
+        Deque<PageTreeNode> stack = new ArrayDeque<>();
+        stack.push(root);
+
+        while (!stack.isEmpty()) {
+            PageTreeNode node = stack.pop();
+            pageIds.add(node.getId());
+
+            if (node.getText() != null) {
+                documents.add(node.getText());
+            }
+
+            List<PageTreeNode> children = subpages.getOrDefault(node.getId(), List.of());
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+
+        return documents;
     }
 }
\ No newline at end of file
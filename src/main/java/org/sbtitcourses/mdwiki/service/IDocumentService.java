@@ -1,7 +1,11 @@
 package org.sbtitcourses.mdwiki.service;
 
 import org.sbtitcourses.mdwiki.model.Document;
+import org.sbtitcourses.mdwiki.repository.projection.DocumentSearchResult;
 import org.sbtitcourses.mdwiki.util.ConvertedDocument;
+import org.sbtitcourses.mdwiki.util.RenderedDocument;
+
+import java.util.List;
 
 /**
  * Интерфейс сервиса взаимодействия с сущностью {@link Document}.
@@ -27,6 +31,15 @@ public interface IDocumentService {
      */
     Document get(int pageId, int spaceId);
 
+    /**
+     * Получить документ на странице в формате HTML.
+     *
+     * @param pageId  ID страницы, в которой нужно получить документ.
+     * @param spaceId ID пространства, в котором нужно получить документ.
+     * @return документ в формате HTML.
+     */
+    RenderedDocument getHtml(int pageId, int spaceId);
+
     /**
      * Обновить документ на странице.
      *
@@ -55,4 +68,14 @@ public interface IDocumentService {
      * @return документа в виде ресурса.
      */
     ConvertedDocument convertToPdf(int spaceId, int pageId, String font, int fontSize, boolean tree);
-}
\ No newline at end of file
+
+    /**
+     * Найти доступные пользователю документы по тексту.
+     *
+     * @param query поисковый запрос.
+     * @param bunch номер страницы при пагинации.
+     * @param size  количество элементов на странице при пагинации.
+     * @return список найденых документов, упорядоченный по релевантности.
+     */
+    List<DocumentSearchResult> search(String query, int bunch, int size);
+}
@@ -1,10 +1,13 @@
 package org.sbtitcourses.mdwiki.service;
 
+import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.StoredFile;
 import org.sbtitcourses.mdwiki.util.LoadedFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Интерфейс сервиса с логикой записи и получения файлов.
@@ -12,9 +15,8 @@ import java.util.List;
 public interface IImageStorageService {
 
     /**
-     * Метод, отвечающий за создание пользовательских директорий в файловой системе для хранения изображений,
-     * запись изображения в соответствующию директорию, создание превью для этого изображения,
-     * сохранение информации об изображении в базу данных.
+     * Метод, отвечающий за запись изображения и сохранение информации о нем в базу данных.
+     * Одинаковые изображения хранятся на диске один раз. Превью изображения создается в фоне.
      *
      * @param file            файл изображения.
      * @param spaceId         ID пространства, с которым связано изображение.
@@ -40,6 +42,18 @@ public interface IImageStorageService {
      */
     LoadedFile loadThumbnail(String GUID);
 
+    /**
+     * Метод, отвечающий за получение превью изображения данного размера и формата в виде ресурса.
+     * Превью создается из изображения при первом запросе и сохраняется в кэш.
+     *
+     * @param GUID   уникальный идентификатор изображения.
+     * @param width  максимальная ширина превью или null.
+     * @param height максимальная высота превью или null.
+     * @param format формат превью или null для формата изображения.
+     * @return объект с превью изображения в виде ресурса и информацию о нем.
+     */
+    LoadedFile loadThumbnailVariant(String GUID, Integer width, Integer height, String format);
+
     /**
      * Метод, отвечающий за удаление изображения и его превтю из файловой системы
      * и информации о нем из базы данных.
@@ -55,4 +69,39 @@ public interface IImageStorageService {
      * @param size  количество элементов в странице при пагинации.
      */
     List<StoredFile> getUserStoredFiles(int bunch, int size);
+
+    /**
+     * Метод, отвечающий за получение информации о загруженных пользователем файлах,
+     * следующих за файлом с данным ID.
+     *
+     * @param afterId ID последнего файла предыдущей страницы или 0 для первой страницы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return список объектов с информацией о файлах, упорядоченный по ID.
+     */
+    List<StoredFile> getUserStoredFilesAfter(int afterId, int size);
+
+    /**
+     * Метод, отвечающий за получение пути к изображению.
+     *
+     * @param storedFile информация об изображении.
+     * @return путь к изображению.
+     */
+    Path getImageLocation(StoredFile storedFile);
+
+    /**
+     * Метод, отвечающий за получение пути к превью изображения.
+     *
+     * @param storedFile информация об изображении.
+     * @return путь к превью изображения.
+     */
+    Path getThumbnailLocation(StoredFile storedFile);
+
+    /**
+     * Метод, отвечающий за поиск пути к изображению, доступному пользователю для чтения.
+     *
+     * @param GUID уникальный идентификатор изображения.
+     * @param user пользователь.
+     * @return путь к изображению или пустой объект, если изображение не найдено или недоступно.
+     */
+    Optional<Path> findImageLocation(String GUID, Person user);
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package org.sbtitcourses.mdwiki.service;
+
+import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.util.PageCompletion;
+
+import java.util.List;
+
+/**
+ * Интерфейс сервиса автодополнения названий страниц.
+ */
+public interface IPageAutocompleteService {
+
+    /**
+     * Получить страницы пользователя, названия которых начинаются с префикса.
+     *
+     * @param prefix префикс названия страницы.
+     * @param limit  максимальное количество страниц.
+     * @return список найденных страниц в алфавитном порядке.
+     */
+    List<PageCompletion> complete(String prefix, int limit);
+
+    /**
+     * Добавить созданную или обновленную страницу в индекс автодополнения.
+     *
+     * @param page страница.
+     */
+    void pageSaved(Page page);
+
+    /**
+     * Удалить страницу вместе с подстраницами из индекса автодополнения.
+     *
+     * @param page страница.
+     */
+    void pageDeleted(Page page);
+
+    /**
+     * Удалить все страницы пространства из индекса автодополнения.
+     *
+     * @param ownerId ID владельца пространства.
+     * @param spaceId ID пространства.
+     */
+    void spaceDeleted(int ownerId, int spaceId);
+
+    /**
+     * Удалить все страницы пользователя из индекса автодополнения.
+     *
+     * @param ownerId ID пользователя.
+     */
+    void ownerDeleted(int ownerId);
+}
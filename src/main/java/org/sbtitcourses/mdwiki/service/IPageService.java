@@ -1,8 +1,13 @@
 package org.sbtitcourses.mdwiki.service;
 
 import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.repository.projection.PageSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+import org.sbtitcourses.mdwiki.util.PageForest;
+import org.sbtitcourses.mdwiki.util.PageTree;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Интерфейс сервиса взаимодействия с сущностью {@link Page}.
@@ -36,7 +41,37 @@ public interface IPageService {
      * @param size    количество страниц в группе.
      * @return список найденых страниц.
      */
-    List<Page> get(int spaceId, int bunch, int size);
+    List<PageSummary> get(int spaceId, int bunch, int size);
+
+    /**
+     * Получить страницы в пространстве, следующие за страницей с данным ID.
+     *
+     * @param spaceId ID пространства, в котором нужно получить страницы.
+     * @param afterId ID последней страницы предыдущей группы или 0 для первой группы.
+     * @param size    количество страниц в группе.
+     * @return список найденых страниц, упорядоченный по ID.
+     */
+    List<PageSummary> getAfter(int spaceId, int afterId, int size);
+
+    /**
+     * Получить страницы в пространстве вместе со всеми их подстраницами.
+     *
+     * @param spaceId ID пространства, в котором нужно получить страницы.
+     * @param bunch   номер группы, на которые разбиваются страницы.
+     * @param size    количество страниц в группе.
+     * @return найденные страницы и их подстраницы.
+     */
+    PageForest getWithDescendants(int spaceId, int bunch, int size);
+
+    /**
+     * Получить страницы в пространстве, следующие за страницей с данным ID, вместе со всеми их подстраницами.
+     *
+     * @param spaceId ID пространства, в котором нужно получить страницы.
+     * @param afterId ID последней страницы предыдущей группы или 0 для первой группы.
+     * @param size    количество страниц в группе.
+     * @return найденные страницы, упорядоченные по ID, и их подстраницы.
+     */
+    PageForest getAfterWithDescendants(int spaceId, int afterId, int size);
 
     /**
      * Получить все найденные страницы пользователя.
@@ -44,7 +79,24 @@ public interface IPageService {
      * @param pageSearch подстрока, для поиска страницы.
      * @return список найденых страниц.
      */
-    List<Page> get(String pageSearch);
+    List<PageSearchResult> get(String pageSearch);
+
+    /**
+     * Получить страницы пользователя, похожие по названию на строку поиска.
+     *
+     * @param pageSearch строка поиска, которая может содержать опечатки.
+     * @param limit      максимальное количество страниц.
+     * @return список найденых страниц, упорядоченный по убыванию похожести.
+     */
+    List<PageSearchResult> search(String pageSearch, int limit);
+
+    /**
+     * Получить страницы-предки найденых страниц пользователя.
+     *
+     * @param pages найденые страницы.
+     * @return страницы-предки по их ID.
+     */
+    Map<Integer, PageSummary> getAncestors(List<PageSearchResult> pages);
 
     /**
      * Получить страницу-родителя.
@@ -64,6 +116,16 @@ public interface IPageService {
      */
     Page get(int id, int spaceId);
 
+    /**
+     * Получить страницу и ее подстраницы не глубже данного уровня.
+     *
+     * @param id      ID страницы.
+     * @param spaceId ID пространства, в котором нужно найти страницу.
+     * @param depth   максимальная глубина подстраниц.
+     * @return поддерево страницы и общее количество ее подстраниц.
+     */
+    PageTree getTree(int id, int spaceId, int depth);
+
     /**
      * Обновить странцу в пространстве по её ID.
      *
@@ -0,0 +1,42 @@
+package org.sbtitcourses.mdwiki.service;
+
+import org.sbtitcourses.mdwiki.util.ConvertedDocument;
+import org.sbtitcourses.mdwiki.util.PdfExportJob;
+
+/**
+ * Интерфейс сервиса фонового экспорта документов в PDF формат.
+ */
+public interface IPdfExportJobService {
+
+    /**
+     * Поставить документ в очередь на экспорт в PDF формат.
+     *
+     * @param spaceId  ID пространства.
+     * @param pageId   ID страницы.
+     * @param font     название шрифта.
+     * @param fontSize размер шрифта в пикселях.
+     * @param tree     экспортировать ли документ вместе с подстраницами.
+     * @return созданная задача экспорта.
+     */
+    PdfExportJob submit(int spaceId, int pageId, String font, int fontSize, boolean tree);
+
+    /**
+     * Получить задачу экспорта.
+     *
+     * @param spaceId ID пространства.
+     * @param pageId  ID страницы.
+     * @param jobId   ID задачи.
+     * @return найденная задача.
+     */
+    PdfExportJob get(int spaceId, int pageId, String jobId);
+
+    /**
+     * Получить результат завершенной задачи экспорта.
+     *
+     * @param spaceId ID пространства.
+     * @param pageId  ID страницы.
+     * @param jobId   ID задачи.
+     * @return сконвертированный документ.
+     */
+    ConvertedDocument getResult(int spaceId, int pageId, String jobId);
+}
@@ -1,6 +1,7 @@
 package org.sbtitcourses.mdwiki.service;
 
 import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.repository.projection.PersonSummary;
 
 import java.util.List;
 
@@ -14,7 +15,16 @@ public interface IPersonService {
      *
      * @return список всех пользователей.
      */
-    List<Person> get(int bunch, int size);
+    List<PersonSummary> get(int bunch, int size);
+
+    /**
+     * Получить пользователей, следующих за пользователем с данным ID.
+     *
+     * @param afterId ID последнего пользователя предыдущей страницы или 0 для первой страницы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return список пользователей, упорядоченный по ID.
+     */
+    List<PersonSummary> getAfter(int afterId, int size);
 
     /**
      * Получить пользователя по его ID.
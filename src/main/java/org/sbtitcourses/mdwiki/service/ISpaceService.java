@@ -1,6 +1,7 @@
 package org.sbtitcourses.mdwiki.service;
 
 import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.projection.SpaceSummary;
 
 import java.util.List;
 
@@ -24,7 +25,16 @@ public interface ISpaceService {
      * @param size  количество элементов в странице при пагинации.
      * @return список всех пространств пользователя.
      */
-    List<Space> get(int bunch, int size);
+    List<SpaceSummary> get(int bunch, int size);
+
+    /**
+     * Получить пространства пользователя, следующие за пространством с данным ID.
+     *
+     * @param afterId ID последнего пространства предыдущей страницы или 0 для первой страницы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return список пространств пользователя, упорядоченный по ID.
+     */
+    List<SpaceSummary> getAfter(int afterId, int size);
 
     /**
      * Получить все публичные пространства
@@ -33,7 +43,16 @@ public interface ISpaceService {
      * @param size  количество элементов в странице при пагинации.
      * @return список всех публичных пространств.
      */
-    List<Space> getShared(int bunch, int size);
+    List<SpaceSummary> getShared(int bunch, int size);
+
+    /**
+     * Получить публичные пространства, следующие за пространством с данным ID.
+     *
+     * @param afterId ID последнего пространства предыдущей страницы или 0 для первой страницы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return список публичных пространств, упорядоченный по ID.
+     */
+    List<SpaceSummary> getSharedAfter(int afterId, int size);
 
     /**
      * Получить пространство по его ID.
@@ -0,0 +1,20 @@
+package org.sbtitcourses.mdwiki.service;
+
+/**
+ * Интерфейс сервиса фонового создания превью изображений.
+ */
+public interface IThumbnailService {
+
+    /**
+     * Поставить создание превью изображения в очередь.
+     * Если очередь переполнена, превью будет создано при следующей повторной попытке.
+     *
+     * @param fileId ID файла изображения.
+     */
+    void submit(int fileId);
+
+    /**
+     * Поставить в очередь создание превью изображений, для которых оно еще не создано.
+     */
+    void retryPending();
+}
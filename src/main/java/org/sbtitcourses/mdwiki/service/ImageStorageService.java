@@ -5,31 +5,49 @@ import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
 import org.sbtitcourses.mdwiki.model.StoredFile;
 import org.sbtitcourses.mdwiki.repository.StoredFileRepository;
+import org.sbtitcourses.mdwiki.util.ContentHash;
 import org.sbtitcourses.mdwiki.util.EntityFetcher;
 import org.sbtitcourses.mdwiki.util.LoadedFile;
 import org.sbtitcourses.mdwiki.util.ResourceAccessHelper;
+import org.sbtitcourses.mdwiki.util.ThumbnailVariantCache;
+import org.sbtitcourses.mdwiki.util.TransactionHooks;
+import org.sbtitcourses.mdwiki.util.event.ImageStoredEvent;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
 import org.sbtitcourses.mdwiki.util.exception.FileStorageException;
+import org.sbtitcourses.mdwiki.util.exception.ThumbnailNotReadyException;
 import org.sbtitcourses.mdwiki.util.exception.UnsupportedTypeException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Сервис с логикой записи и получения файлов.
@@ -38,6 +56,26 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class ImageStorageService implements IImageStorageService {
 
+    /**
+     * Форматы, в которых создаются превью произвольного размера.
+     */
+    private static final Set<String> VARIANT_FORMATS = Set.of("png", "jpg", "gif", "bmp");
+
+    /**
+     * Директория для хранения изображений по хэшу содержимого.
+     */
+    private static final String BLOBS_DIRECTORY = "blobs";
+
+    /**
+     * Количество блокировок, разделяющих изображения по хэшу содержимого.
+     */
+    private static final int BLOB_LOCKS = 64;
+
+    /**
+     * Количество первых байт файла, по которым определяется формат изображения.
+     */
+    private static final int SIGNATURE_LENGTH = 12;
+
     /**
      * Репозиторий для взаимодействия с сущностью {@link StoredFile}.
      */
@@ -48,6 +86,16 @@ public class ImageStorageService implements IImageStorageService {
      */
     private final EntityFetcher entityFetcher;
 
+    /**
+     * Объект для публикации событий записи изображений.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Кэш превью произвольного размера и формата.
+     */
+    private final ThumbnailVariantCache thumbnailVariantCache;
+
     /**
      * Директория для хранения загруженных изображений.
      */
@@ -58,46 +106,70 @@ public class ImageStorageService implements IImageStorageService {
      */
     private final String thumbnailsDirectory;
 
+    /**
+     * Блокировки, упорядочивающие запись и удаление изображения с одинаковым содержимым.
+     */
+    private final Object[] blobLocks = new Object[BLOB_LOCKS];
+
+    /**
+     * Количество незавершенных транзакций, записавших изображение, по хэшу содержимого.
+     * Изменяется под блокировкой содержимого.
+     */
+    private final Map<String, Integer> pendingBlobs = new ConcurrentHashMap<>();
+
     /**
      * Конструктор для автоматического внедрения зависимостей.
      *
-     * @param storedFileRepository репозиторий для взаимодействия с сущностью {@link StoredFile}.
-     * @param entityFetcher        компонент для получения ресурсов.
-     * @param uploadsDirectory     директория для хранения загруженных изображений.
-     * @param thumbnailsDirectory  директория для хранения превью загруженных изображений.
+     * @param storedFileRepository  репозиторий для взаимодействия с сущностью {@link StoredFile}.
+     * @param entityFetcher         компонент для получения ресурсов.
+     * @param eventPublisher        объект для публикации событий записи изображений.
+     * @param thumbnailVariantCache кэш превью произвольного размера и формата.
+     * @param uploadsDirectory      директория для хранения загруженных изображений.
+     * @param thumbnailsDirectory   директория для хранения превью загруженных изображений.
      */
     @Autowired
     public ImageStorageService(StoredFileRepository storedFileRepository,
                                EntityFetcher entityFetcher,
+                               ApplicationEventPublisher eventPublisher,
+                               ThumbnailVariantCache thumbnailVariantCache,
                                @Value("${file.uploads-directory}") String uploadsDirectory,
                                @Value("${file.thumbnails-directory}") String thumbnailsDirectory) {
         this.storedFileRepository = storedFileRepository;
         this.entityFetcher = entityFetcher;
+        this.eventPublisher = eventPublisher;
+        this.thumbnailVariantCache = thumbnailVariantCache;
         this.uploadsDirectory = uploadsDirectory;
         this.thumbnailsDirectory = thumbnailsDirectory;
+
+        for (int i = 0; i < BLOB_LOCKS; i++) {
+            blobLocks[i] = new Object();
+        }
     }
 
     /**
-     * Метод, отвечающий за создание пользовательских директорий в файловой системе для хранения изображений,
-     * запись изображения в соответствующию директорию, создание превью для этого изображения,
-     * сохранение информации об изображении в базу данных.
+     * Метод, отвечающий за запись изображения и сохранение информации о нем в базу данных.
+     * Изображение хранится на диске по SHA-256 хэшу содержимого, вычисляемому при записи загрузки
+     * во временный файл, поэтому одинаковые изображения разных пользователей хранятся один раз.
+     * Временный файл становится изображением до сохранения информации о нем, если изображения
+     * с таким содержимым еще нет, а при откате транзакции изображение удаляется, если на его содержимое
+     * не ссылается ни один файл. Превью изображения создается в фоне после фиксации транзакции.
+     * Загрузка читается один раз: формат изображения определяется по первым байтам потока
+     * до записи на диск, а хэш вычисляется при копировании. Тип содержимого, указанный клиентом, не учитывается.
+     * Изображения форматов, которые не удается прочитать (например, WebP), хранятся без превью.
      *
      * @param file            файл изображения.
      * @param spaceId         ID пространства, с которым связано изображение.
      * @param thumbnailHeight высота превью изображения.
      * @param thumbnailWidth  ширина превью изображения.
      * @return объек с информацией о записанном изображении.
-     * @throws AccessDeniedException если не удалось определить пользователя.
-     * @throws FileStorageException  если произошла ошибка записи файла.
+     * @throws AccessDeniedException    если не удалось определить пользователя.
+     * @throws FileStorageException     если произошла ошибка записи файла.
+     * @throws UnsupportedTypeException если файл не является изображением поддерживаемого формата.
      */
     @Override
     @Transactional
     public StoredFile storeImage(MultipartFile file, int spaceId,
                                  int thumbnailHeight, int thumbnailWidth) {
-        if (isFileNotAnImage(file)) {
-            throw new UnsupportedTypeException("Недопустимый тип файла");
-        }
-
         if (file.getOriginalFilename() == null) {
             throw new FileStorageException("Недопустимое имя файла");
         }
@@ -109,39 +181,58 @@ public class ImageStorageService implements IImageStorageService {
             throw new AccessDeniedException("Доступ запрещен");
         }
 
-        String userDirectory = getUserDirectory(user);
-        Path imageStorageLocation = Path.of(uploadsDirectory).resolve(userDirectory);
-        Path thumbnailStorageLocation = imageStorageLocation.resolve(thumbnailsDirectory);
-
-        try {
-            Files.createDirectories(imageStorageLocation);
-            Files.createDirectories(thumbnailStorageLocation);
-        } catch (IOException e) {
-            throw new FileStorageException("Ошибка создания директорий для хранения файлов");
-        }
-
-        try {
-            String GUID = UUID.randomUUID().toString();
-            String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-            String fileMimeType = file.getContentType();
-
-            Path imageLocation = renameAndResolveLocation(GUID, originalFileName, imageStorageLocation);
-            Files.copy(file.getInputStream(), imageLocation);
+        String GUID = UUID.randomUUID().toString();
+        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
+        Path blobsLocation = Path.of(uploadsDirectory).resolve(BLOBS_DIRECTORY);
+        StoredFile storedFile;
+        Path temporary;
 
-            StoredFile storedFile = new StoredFile(GUID, originalFileName,
-                    fileMimeType, file.getSize(), user, space);
+        try (InputStream inputStream = new BufferedInputStream(file.getInputStream())) {
+            inputStream.mark(SIGNATURE_LENGTH);
+            String fileMimeType = detectImageType(inputStream.readNBytes(SIGNATURE_LENGTH));
+            inputStream.reset();
 
-            storedFileRepository.save(storedFile);
+            if (fileMimeType == null) {
+                throw new UnsupportedTypeException("Недопустимый тип файла: поддерживаются изображения "
+                        + "PNG, JPEG, GIF, BMP, TIFF, WebP, AVIF и HEIC");
+            }
 
-            Path thumbnailLocation = renameAndResolveLocation(GUID, originalFileName, thumbnailStorageLocation);
-            Thumbnails.of(file.getInputStream())
-                    .size(thumbnailHeight, thumbnailWidth)
-                    .toFile(thumbnailLocation.toFile());
+            storedFile = new StoredFile(GUID, originalFileName, fileMimeType, file.getSize(), user, space);
+            storedFile.setThumbnailStatus(isThumbnailSupported(fileMimeType)
+                    ? StoredFile.ThumbnailStatus.PENDING
+                    : StoredFile.ThumbnailStatus.UNSUPPORTED);
+            storedFile.setThumbnailHeight(thumbnailHeight);
+            storedFile.setThumbnailWidth(thumbnailWidth);
+
+            try {
+                Files.createDirectories(blobsLocation);
+                temporary = Files.createTempFile(blobsLocation, "upload-", ".tmp");
+            } catch (IOException e) {
+                throw new FileStorageException("Ошибка создания директорий для хранения файлов");
+            }
 
-            return storedFile;
+            try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+                storedFile.setContentHash(ContentHash.sha256(inputStream, outputStream));
+            } catch (IOException e) {
+                deleteIfExists(temporary);
+                throw e;
+            }
         } catch (IOException e) {
             throw new FileStorageException("Ошибка записи файла");
         }
+
+        String contentHash = storedFile.getContentHash();
+        publishBlob(storedFile, temporary);
+        // Пока транзакция не завершена, изображение не удаляется, хотя ссылающийся на него файл еще не виден.
+        TransactionHooks.afterCompletion(() -> unpinBlob(contentHash));
+        TransactionHooks.afterRollback(() -> releaseBlob(storedFile));
+
+        storedFileRepository.save(storedFile);
+        if (storedFile.getThumbnailStatus() == StoredFile.ThumbnailStatus.PENDING) {
+            eventPublisher.publishEvent(new ImageStoredEvent(storedFile.getId()));
+        }
+
+        return storedFile;
     }
 
     /**
@@ -162,11 +253,7 @@ public class ImageStorageService implements IImageStorageService {
             throw new AccessDeniedException("Доступ запрещен");
         }
 
-        String userDirectory = getUserDirectory(user);
-        Path imageStorageLocation = Paths.get(uploadsDirectory).resolve(userDirectory);
-        Path imageLocation = renameAndResolveLocation(GUID, storedFile.getOriginalName(), imageStorageLocation);
-
-        Resource resource = getResource(imageLocation);
+        Resource resource = getResource(getImageLocation(storedFile));
         return new LoadedFile(storedFile, resource);
     }
 
@@ -175,8 +262,9 @@ public class ImageStorageService implements IImageStorageService {
      *
      * @param GUID уникальный идентификатор изображения.
      * @return объект с превью изображения в виде ресурса и информацию о нем.
-     * @throws ElementNotFoundException если не удалось найти изображение.
-     * @throws AccessDeniedException    если не удалось определить пользователя.
+     * @throws ElementNotFoundException   если не удалось найти изображение или создать его превью.
+     * @throws AccessDeniedException      если не удалось определить пользователя.
+     * @throws ThumbnailNotReadyException если превью еще не создано.
      */
     @Override
     public LoadedFile loadThumbnail(String GUID) {
@@ -188,17 +276,92 @@ public class ImageStorageService implements IImageStorageService {
             throw new AccessDeniedException("Доступ запрещен");
         }
 
-        String userDirectory = getUserDirectory(user);
-        Path thumbnailStorageLocation = Paths.get(uploadsDirectory).resolve(userDirectory).resolve(thumbnailsDirectory);
-        Path thumbnailLocation = renameAndResolveLocation(GUID, storedFile.getOriginalName(), thumbnailStorageLocation);
+        if (storedFile.getThumbnailStatus() == StoredFile.ThumbnailStatus.PENDING) {
+            throw new ThumbnailNotReadyException("Превью еще не создано");
+        }
 
-        Resource resource = getResource(thumbnailLocation);
+        if (storedFile.getThumbnailStatus() == StoredFile.ThumbnailStatus.FAILED) {
+            throw new ElementNotFoundException("Не удалось создать превью");
+        }
+
+        if (storedFile.getThumbnailStatus() == StoredFile.ThumbnailStatus.UNSUPPORTED) {
+            throw new ElementNotFoundException("Превью для этого формата не создаются");
+        }
+
+        Resource resource = getResource(getThumbnailLocation(storedFile));
         return new LoadedFile(storedFile, resource);
     }
 
+    /**
+     * Метод, отвечающий за получение превью изображения данного размера и формата в виде ресурса.
+     * Превью создается из изображения при первом запросе и сохраняется в кэш.
+     * Если задана только ширина или высота, другая сторона вычисляется с сохранением пропорций изображения.
+     *
+     * @param GUID   уникальный идентификатор изображения.
+     * @param width  максимальная ширина превью или null.
+     * @param height максимальная высота превью или null.
+     * @param format формат превью или null для формата изображения.
+     * @return объект с превью изображения в виде ресурса и информацию о нем.
+     * @throws ElementNotFoundException если не удалось найти изображение или превью для его формата не создаются.
+     * @throws AccessDeniedException    если не удалось определить пользователя.
+     * @throws FileStorageException     если не удалось создать превью.
+     */
+    @Override
+    public LoadedFile loadThumbnailVariant(String GUID, Integer width, Integer height, String format) {
+        Person user = entityFetcher.getLoggedInUser();
+        StoredFile storedFile = storedFileRepository.findByGUID(GUID)
+                .orElseThrow(() -> new ElementNotFoundException("Файл не найден"));
+
+        if (ResourceAccessHelper.isAccessToReadSpaceDenied(storedFile.getSpace(), user)) {
+            throw new AccessDeniedException("Доступ запрещен");
+        }
+
+        if (storedFile.getThumbnailStatus() == StoredFile.ThumbnailStatus.UNSUPPORTED) {
+            throw new ElementNotFoundException("Превью для этого формата не создаются");
+        }
+
+        Path imageLocation = getImageLocation(storedFile);
+        if (!Files.exists(imageLocation)) {
+            throw new ElementNotFoundException("Файл не найден");
+        }
+
+        String outputFormat = format != null ? format : getVariantFormat(storedFile);
+        String key = String.format("%s-%dx%d.%s",
+                storedFile.getContentHash() != null ? storedFile.getContentHash() : GUID,
+                width != null ? width : 0, height != null ? height : 0, outputFormat);
+
+        Path variantLocation;
+        try {
+            variantLocation = thumbnailVariantCache.get(key, target -> {
+                Thumbnails.Builder<File> builder = Thumbnails.of(imageLocation.toFile());
+
+                if (width != null && height != null) {
+                    builder.size(width, height);
+                } else if (width != null) {
+                    builder.width(width);
+                } else if (height != null) {
+                    builder.height(height);
+                } else {
+                    builder.scale(1);
+                }
+
+                try (OutputStream outputStream = Files.newOutputStream(target)) {
+                    builder.outputFormat(outputFormat).toOutputStream(outputStream);
+                }
+            });
+        } catch (UncheckedIOException | IllegalArgumentException e) {
+            throw new FileStorageException("Ошибка создания превью");
+        }
+
+        String mimeType = outputFormat.equals("jpg") ? "image/jpeg" : "image/".concat(outputFormat);
+        return new LoadedFile(storedFile, new FileSystemResource(variantLocation), mimeType, "\"" + key + "\"");
+    }
+
     /**
      * Метод, отвечающий за удаление изображения и его превью
      * из файловой системы и информации о нем из базы данных.
+     * Изображение, хранящееся по хэшу содержимого, удаляется с диска после фиксации транзакции,
+     * если на его содержимое не ссылается ни один другой файл.
      *
      * @param GUID уникальный идентификатор изображения.
      * @throws ElementNotFoundException если не удалось найти изображение.
@@ -215,21 +378,19 @@ public class ImageStorageService implements IImageStorageService {
             throw new AccessDeniedException("Доступ запрещен");
         }
 
-        String userDirectory = getUserDirectory(user);
-        Path imageStorageLocation = Paths.get(uploadsDirectory).resolve(userDirectory);
-        Path imageLocation = renameAndResolveLocation(GUID, storedFile.getOriginalName(), imageStorageLocation);
+        storedFileRepository.delete(storedFile);
 
-        Path thumbnailStorageLocation = imageStorageLocation.resolve(thumbnailsDirectory);
-        Path thumbnailLocation = renameAndResolveLocation(GUID, storedFile.getOriginalName(), thumbnailStorageLocation);
+        if (storedFile.getContentHash() != null) {
+            TransactionHooks.afterCommit(() -> releaseBlob(storedFile));
+            return;
+        }
 
         try {
-            Files.delete(imageLocation);
-            Files.delete(thumbnailLocation);
+            Files.delete(getImageLocation(storedFile));
+            Files.deleteIfExists(getThumbnailLocation(storedFile));
         } catch (IOException e) {
             throw new ElementNotFoundException("Ошибка удаления файла");
         }
-
-        storedFileRepository.delete(storedFile);
     }
 
     /**
@@ -242,13 +403,246 @@ public class ImageStorageService implements IImageStorageService {
     @Override
     public List<StoredFile> getUserStoredFiles(int bunch, int size) {
         Person user = entityFetcher.getLoggedInUser();
-        Pageable pageable = PageRequest.of(bunch, size);
+        Pageable pageable = PageRequest.of(bunch, size, Sort.by("id"));
 
         return storedFileRepository.findByOwner(user, pageable);
     }
 
-    private boolean isFileNotAnImage(MultipartFile file) {
-        return file.getContentType() == null || !file.getContentType().startsWith("image/");
+    /**
+     * Метод, отвечающий за получение информации о загруженных пользователем файлах,
+     * следующих за файлом с данным ID.
+     *
+     * @param afterId ID последнего файла предыдущей страницы или 0 для первой страницы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return список объектов с информацией о файлах, упорядоченный по ID.
+     */
+    @Override
+    public List<StoredFile> getUserStoredFilesAfter(int afterId, int size) {
+        Person user = entityFetcher.getLoggedInUser();
+
+        return storedFileRepository.findByOwnerAndIdGreaterThanOrderById(user, afterId, PageRequest.of(0, size));
+    }
+
+    /**
+     * Метод, отвечающий за получение пути к изображению.
+     * Изображение хранится по хэшу содержимого, а записанное до хранения по хэшу - в директории владельца.
+     *
+     * @param storedFile информация об изображении.
+     * @return путь к изображению.
+     */
+    @Override
+    public Path getImageLocation(StoredFile storedFile) {
+        String contentHash = storedFile.getContentHash();
+
+        if (contentHash != null) {
+            return Path.of(uploadsDirectory).resolve(BLOBS_DIRECTORY)
+                    .resolve(contentHash.substring(0, 2)).resolve(contentHash);
+        }
+
+        Path imageStorageLocation = Path.of(uploadsDirectory).resolve(getUserDirectory(storedFile.getOwner()));
+
+        return renameAndResolveLocation(storedFile.getGUID(), storedFile.getOriginalName(), imageStorageLocation);
+    }
+
+    /**
+     * Метод, отвечающий за получение пути к превью изображения.
+     * Превью изображения, хранящегося по хэшу содержимого, общее для всех файлов
+     * с тем же содержимым и размером превью.
+     *
+     * @param storedFile информация об изображении.
+     * @return путь к превью изображения.
+     */
+    @Override
+    public Path getThumbnailLocation(StoredFile storedFile) {
+        String contentHash = storedFile.getContentHash();
+
+        if (contentHash != null) {
+            String thumbnailName = String.format("%s-%dx%d", contentHash,
+                    storedFile.getThumbnailHeight(), storedFile.getThumbnailWidth());
+
+            return renameAndResolveLocation(thumbnailName, storedFile.getOriginalName(),
+                    Path.of(uploadsDirectory).resolve(BLOBS_DIRECTORY).resolve(thumbnailsDirectory));
+        }
+
+        Path thumbnailStorageLocation = Path.of(uploadsDirectory).resolve(getUserDirectory(storedFile.getOwner()))
+                .resolve(thumbnailsDirectory);
+
+        return renameAndResolveLocation(storedFile.getGUID(), storedFile.getOriginalName(), thumbnailStorageLocation);
+    }
+
+    /**
+     * Метод, отвечающий за поиск пути к изображению, доступному пользователю для чтения.
+     *
+     * @param GUID уникальный идентификатор изображения.
+     * @param user пользователь.
+     * @return путь к изображению или пустой объект, если изображение не найдено или недоступно.
+     */
+    @Override
+    public Optional<Path> findImageLocation(String GUID, Person user) {
+        return storedFileRepository.findByGUID(GUID)
+                .filter(storedFile -> !ResourceAccessHelper.isAccessToReadSpaceDenied(storedFile.getSpace(), user))
+                .map(this::getImageLocation);
+    }
+
+    /**
+     * Метод, делающий записанную загрузку изображением, если изображения с таким содержимым еще нет,
+     * и запрещающий удаление изображения до завершения текущей транзакции.
+     * Выполняется под блокировкой содержимого, чтобы не пересечься с удалением последней ссылки на него.
+     *
+     * @param storedFile информация об изображении.
+     * @param temporary  временный файл с загрузкой.
+     * @throws FileStorageException если не удалось записать изображение.
+     */
+    private void publishBlob(StoredFile storedFile, Path temporary) {
+        String contentHash = storedFile.getContentHash();
+        Path imageLocation = getImageLocation(storedFile);
+
+        synchronized (lockOf(contentHash)) {
+            pendingBlobs.merge(contentHash, 1, Integer::sum);
+
+            try {
+                if (Files.notExists(imageLocation)) {
+                    Files.createDirectories(imageLocation.getParent());
+                    Files.move(temporary, imageLocation, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                unpinBlob(contentHash);
+                throw new FileStorageException("Ошибка записи файла");
+            } finally {
+                deleteIfExists(temporary);
+            }
+        }
+    }
+
+    /**
+     * Метод, снимающий запрет на удаление изображения, установленный при его записи.
+     *
+     * @param contentHash хэш содержимого изображения.
+     */
+    private void unpinBlob(String contentHash) {
+        synchronized (lockOf(contentHash)) {
+            pendingBlobs.computeIfPresent(contentHash, (hash, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Метод, удаляющий изображение и его превью с диска, если на содержимое не ссылается ни один файл
+     * и его не записывает незавершенная транзакция.
+     *
+     * @param storedFile информация об удаленном изображении.
+     */
+    private void releaseBlob(StoredFile storedFile) {
+        String contentHash = storedFile.getContentHash();
+
+        synchronized (lockOf(contentHash)) {
+            if (pendingBlobs.containsKey(contentHash) || storedFileRepository.countByContentHash(contentHash) > 0) {
+                return;
+            }
+
+            deleteIfExists(getImageLocation(storedFile));
+
+            Path thumbnailStorageLocation = Path.of(uploadsDirectory).resolve(BLOBS_DIRECTORY)
+                    .resolve(thumbnailsDirectory);
+            try (DirectoryStream<Path> thumbnails =
+                         Files.newDirectoryStream(thumbnailStorageLocation, contentHash + "-*")) {
+                thumbnails.forEach(this::deleteIfExists);
+            } catch (IOException ignored) {
+                // Превью еще не создавались.
+            }
+        }
+    }
+
+    private Object lockOf(String contentHash) {
+        return blobLocks[Math.floorMod(contentHash.hashCode(), BLOB_LOCKS)];
+    }
+
+    private void deleteIfExists(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Файл будет перезаписан при записи изображения с тем же содержимым.
+        }
+    }
+
+    private String getVariantFormat(StoredFile storedFile) {
+        String extension = StringUtils.getFilenameExtension(storedFile.getOriginalName());
+        String format = extension != null ? extension.toLowerCase(Locale.ROOT) : "png";
+
+        if (format.equals("jpeg")) {
+            return "jpg";
+        }
+
+        return VARIANT_FORMATS.contains(format) ? format : "png";
+    }
+
+    /**
+     * Метод, определяющий формат изображения по сигнатуре в начале файла.
+     *
+     * @param signature первые байты файла.
+     * @return MIME тип изображения или null, если формат не поддерживается.
+     */
+    private String detectImageType(byte[] signature) {
+        if (startsWith(signature, 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n')) {
+            return "image/png";
+        }
+
+        if (startsWith(signature, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+
+        if (startsWith(signature, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+
+        if (startsWith(signature, 'B', 'M')) {
+            return "image/bmp";
+        }
+
+        if (startsWith(signature, 'I', 'I', '*', 0) || startsWith(signature, 'M', 'M', 0, '*')) {
+            return "image/tiff";
+        }
+
+        if (startsWith(signature, 'R', 'I', 'F', 'F') && matchesAt(signature, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+
+        if (matchesAt(signature, 4, 'f', 't', 'y', 'p')) {
+            if (matchesAt(signature, 8, 'a', 'v', 'i', 'f') || matchesAt(signature, 8, 'a', 'v', 'i', 's')) {
+                return "image/avif";
+            }
+
+            if (matchesAt(signature, 8, 'h', 'e', 'i', 'c') || matchesAt(signature, 8, 'h', 'e', 'i', 'x')) {
+                return "image/heic";
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param mimeType MIME тип изображения.
+     * @return true - если изображение можно прочитать для создания превью.
+     */
+    private boolean isThumbnailSupported(String mimeType) {
+        return ImageIO.getImageReadersByMIMEType(mimeType).hasNext();
+    }
+
+    private boolean startsWith(byte[] bytes, int... prefix) {
+        return matchesAt(bytes, 0, prefix);
+    }
+
+    private boolean matchesAt(byte[] bytes, int offset, int... prefix) {
+        if (bytes.length < offset + prefix.length) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     private Path renameAndResolveLocation(String newFileName, String originalFileName, Path fileStorageLocation) {
@@ -263,15 +657,11 @@ public class ImageStorageService implements IImageStorageService {
     }
 
     private Resource getResource(Path targetLocation) {
-        try {
-            Resource resource = new UrlResource(targetLocation.toUri());
+        Resource resource = new FileSystemResource(targetLocation);
 
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new ElementNotFoundException("Файл не найден");
-            }
-        } catch (MalformedURLException e) {
+        if (resource.exists()) {
+            return resource;
+        } else {
             throw new ElementNotFoundException("Файл не найден");
         }
     }
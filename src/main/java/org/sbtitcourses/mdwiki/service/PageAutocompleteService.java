@@ -0,0 +1,214 @@
+package org.sbtitcourses.mdwiki.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.repository.PageRepository;
+import org.sbtitcourses.mdwiki.repository.projection.PageName;
+import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.PageCompletion;
+import org.sbtitcourses.mdwiki.util.PageNameTrie;
+import org.sbtitcourses.mdwiki.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Сервис автодополнения названий страниц.
+ * Для каждого пользователя в памяти хранится префиксное дерево названий его страниц,
+ * которое загружается из базы данных при первом запросе пользователя
+ * и затем обновляется при изменении страниц после фиксации транзакции.
+ * Дерево загружается вне блокировок, а поколения пользователей позволяют не сохранять дерево,
+ * во время загрузки которого были зафиксированы изменения страниц пользователя.
+ */
+@Service
+public class PageAutocompleteService implements IPageAutocompleteService, MeterBinder {
+
+    /**
+     * Количество поколений, разделяющих пользователей.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * Префиксные деревья названий страниц по ID пользователей.
+     */
+    private final Map<Integer, PageNameTrie> tries = new ConcurrentHashMap<>();
+
+    /**
+     * Поколения изменений страниц пользователей, увеличиваемые перед применением каждого изменения.
+     */
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    /**
+     * Репозиторий для взаимодействия с сущностью {@link Page}.
+     */
+    private final PageRepository pageRepository;
+
+    /**
+     * Компонент для получения сущностей.
+     */
+    private final EntityFetcher entityFetcher;
+
+    /**
+     * Конструктор для автоматичекого внедрения зависимостей.
+     *
+     * @param pageRepository репозиторий для взаимодействия с сущностью {@link Page}.
+     * @param entityFetcher  компонент для получения сущностей.
+     */
+    @Autowired
+    public PageAutocompleteService(PageRepository pageRepository, EntityFetcher entityFetcher) {
+        this.pageRepository = pageRepository;
+        this.entityFetcher = entityFetcher;
+    }
+
+    /**
+     * Метод, отвечающий за получение страниц пользователя, названия которых начинаются с префикса.
+     *
+     * @param prefix префикс названия страницы.
+     * @param limit  максимальное количество страниц.
+     * @return список найденных страниц в алфавитном порядке.
+     */
+    @Override
+    public List<PageCompletion> complete(String prefix, int limit) {
+        Person user = entityFetcher.getLoggedInUser();
+        PageNameTrie trie = tries.get(user.getId());
+
+        if (trie == null) {
+            trie = loadAndCache(user.getId());
+        }
+
+        return trie.complete(prefix, limit);
+    }
+
+    /**
+     * Метод, отвечающий за добавление созданной или обновленной страницы в индекс автодополнения.
+     *
+     * @param page страница.
+     */
+    @Override
+    public void pageSaved(Page page) {
+        int ownerId = page.getSpace().getOwner().getId();
+        PageCompletion entry = new PageCompletion(page.getId(), page.getName(), page.getSpace().getId(),
+                page.getParent() != null ? page.getParent().getId() : null);
+
+        TransactionHooks.afterCommit(() -> update(ownerId, trie -> trie.put(entry)));
+    }
+
+    /**
+     * Метод, отвечающий за удаление страницы вместе с подстраницами из индекса автодополнения.
+     *
+     * @param page страница.
+     */
+    @Override
+    public void pageDeleted(Page page) {
+        int ownerId = page.getSpace().getOwner().getId();
+        int pageId = page.getId();
+
+        TransactionHooks.afterCommit(() -> update(ownerId, trie -> trie.removeTree(pageId)));
+    }
+
+    /**
+     * Метод, отвечающий за удаление всех страниц пространства из индекса автодополнения.
+     *
+     * @param ownerId ID владельца пространства.
+     * @param spaceId ID пространства.
+     */
+    @Override
+    public void spaceDeleted(int ownerId, int spaceId) {
+        TransactionHooks.afterCommit(() -> update(ownerId,
+                trie -> trie.removeIf(entry -> entry.getSpaceId() == spaceId)));
+    }
+
+    /**
+     * Метод, отвечающий за удаление всех страниц пользователя из индекса автодополнения.
+     *
+     * @param ownerId ID пользователя.
+     */
+    @Override
+    public void ownerDeleted(int ownerId) {
+        TransactionHooks.afterCommit(() -> {
+            generations.incrementAndGet(stripeOf(ownerId));
+            tries.remove(ownerId);
+        });
+    }
+
+    /**
+     * Метод, регистрирующий метрики объема памяти и количества записей индекса автодополнения.
+     *
+     * @param registry реестр метрик.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("autocomplete.memory", tries,
+                        loaded -> loaded.values().stream().mapToLong(PageNameTrie::estimateSize).sum())
+                .description("Примерный объем памяти префиксных деревьев названий страниц")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("autocomplete.pages", tries,
+                        loaded -> loaded.values().stream().mapToInt(PageNameTrie::size).sum())
+                .description("Количество страниц в префиксных деревьях")
+                .register(registry);
+        Gauge.builder("autocomplete.owners", tries, Map::size)
+                .description("Количество пользователей с загруженным префиксным деревом")
+                .register(registry);
+    }
+
+    /**
+     * Метод, загружающий дерево пользователя из базы данных и сохраняющий его, если во время загрузки
+     * не было зафиксировано изменений страниц пользователя. Иначе дерево используется только
+     * для текущего запроса, а следующий запрос загружает его заново.
+     *
+     * @param ownerId ID пользователя.
+     * @return префиксное дерево названий страниц пользователя.
+     */
+    private PageNameTrie loadAndCache(int ownerId) {
+        int stripe = stripeOf(ownerId);
+        long generation = generations.get(stripe);
+        PageNameTrie loaded = load(ownerId);
+
+        if (generations.get(stripe) != generation) {
+            return loaded;
+        }
+
+        PageNameTrie existing = tries.putIfAbsent(ownerId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Изменение, зафиксированное между проверкой и сохранением, не применилось к дереву.
+        if (generations.get(stripe) != generation) {
+            tries.remove(ownerId, loaded);
+        }
+
+        return loaded;
+    }
+
+    private void update(int ownerId, Consumer<PageNameTrie> change) {
+        generations.incrementAndGet(stripeOf(ownerId));
+        tries.computeIfPresent(ownerId, (id, trie) -> {
+            change.accept(trie);
+            return trie;
+        });
+    }
+
+    private static int stripeOf(int ownerId) {
+        return Math.floorMod(ownerId, STRIPES);
+    }
+
+    private PageNameTrie load(int ownerId) {
+        PageNameTrie trie = new PageNameTrie();
+
+        for (PageName page : pageRepository.findNamesByOwnerId(ownerId)) {
+            trie.put(new PageCompletion(page.getId(), page.getName(), page.getSpaceId(), page.getParentId()));
+        }
+
+        return trie;
+    }
+}
@@ -4,12 +4,18 @@ import org.sbtitcourses.mdwiki.model.Page;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
 import org.sbtitcourses.mdwiki.repository.PageRepository;
+import org.sbtitcourses.mdwiki.repository.projection.PageSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+import org.sbtitcourses.mdwiki.util.ConstraintViolationHelper;
 import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.PageForest;
+import org.sbtitcourses.mdwiki.util.PageTree;
 import org.sbtitcourses.mdwiki.util.ResourceAccessHelper;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.ElementAlreadyExistsException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -17,7 +23,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Сервис с логикой взаимодействия с сущностью {@link Page}.
@@ -26,6 +36,13 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class PageService implements IPageService {
 
+    /**
+     * Порог похожести названия записи на строку поиска. Он ниже значения
+     * pg_trgm.word_similarity_threshold по умолчанию (0.6), которое отсекает одиночные опечатки
+     * в коротких словах: например, похожесть "tabel" на "Table" равна 0.5.
+     */
+    private static final double WORD_SIMILARITY_THRESHOLD = 0.5;
+
     /**
      * Репозиторий для взаимодействия с сущностью {@link Page}.
      */
@@ -36,16 +53,24 @@ public class PageService implements IPageService {
      */
     private final EntityFetcher entityFetcher;
 
+    /**
+     * Сервис автодополнения названий страниц.
+     */
+    private final PageAutocompleteService pageAutocompleteService;
+
     /**
      * Конструктор для автоматичекого внедрения зависимостей.
      *
-     * @param pageRepository репозиторий для взаимодействия с сущностью {@link Page}.
-     * @param entityFetcher  компонент для получения ресурсов.
+     * @param pageRepository          репозиторий для взаимодействия с сущностью {@link Page}.
+     * @param entityFetcher           компонент для получения ресурсов.
+     * @param pageAutocompleteService сервис автодополнения названий страниц.
      */
     @Autowired
-    public PageService(PageRepository pageRepository, EntityFetcher entityFetcher) {
+    public PageService(PageRepository pageRepository, EntityFetcher entityFetcher,
+                       PageAutocompleteService pageAutocompleteService) {
         this.pageRepository = pageRepository;
         this.entityFetcher = entityFetcher;
+        this.pageAutocompleteService = pageAutocompleteService;
     }
 
     /**
@@ -67,16 +92,13 @@ public class PageService implements IPageService {
             throw new AccessDeniedException("Отказано в доступе");
         }
 
-        if (pageRepository.findBySpaceAndName(space, page.getName()).isPresent()) {
-            throw new ElementAlreadyExistsException("Страница с таким именем уже существует в этом пространстве");
-        }
-
         page.setSpace(space);
         Instant now = Instant.now();
         page.setCreatedAt(now);
         page.setUpdatedAt(now);
         page.setSubpages(Collections.emptyList());
-        page.setId(pageRepository.save(page).getId());
+        page.setId(save(page).getId());
+        pageAutocompleteService.pageSaved(page);
 
         return page;
     }
@@ -103,16 +125,13 @@ public class PageService implements IPageService {
             throw new AccessDeniedException("Отказано в доступе");
         }
 
-        if (pageRepository.findBySpaceAndName(space, subpage.getName()).isPresent()) {
-            throw new ElementAlreadyExistsException("Страница с таким именем уже существует в этом пространстве");
-        }
-
-        subpage.setSpace(parent.getSpace());
+        subpage.setSpace(space);
         subpage.setParent(parent);
         Instant now = Instant.now();
         subpage.setCreatedAt(now);
         subpage.setUpdatedAt(now);
-        subpage.setId(pageRepository.save(subpage).getId());
+        subpage.setId(save(subpage).getId());
+        pageAutocompleteService.pageSaved(subpage);
 
         return subpage;
     }
@@ -127,7 +146,7 @@ public class PageService implements IPageService {
      * @throws AccessDeniedException если не удалось определить пользователя.
      */
     @Override
-    public List<Page> get(int spaceId, int bunch, int size) {
+    public List<PageSummary> get(int spaceId, int bunch, int size) {
         Space space = entityFetcher.fetchSpace(spaceId);
         Person user = entityFetcher.getLoggedInUser();
 
@@ -140,6 +159,79 @@ public class PageService implements IPageService {
         return pageRepository.findBySpaceAndParentIsNullOrderById(space, pageable);
     }
 
+    /**
+     * Метод, отвечающий за получение страниц пространства, следующих за страницей с данным ID.
+     *
+     * @param spaceId ID пространтсва, в котором нужно получить страницы.
+     * @param afterId ID последней страницы предыдущей группы или 0 для первой группы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return список страниц данного пространства, упорядоченный по ID.
+     * @throws AccessDeniedException если не удалось определить пользователя.
+     */
+    @Override
+    public List<PageSummary> getAfter(int spaceId, int afterId, int size) {
+        Space space = entityFetcher.fetchSpace(spaceId);
+        Person user = entityFetcher.getLoggedInUser();
+
+        if (ResourceAccessHelper.isAccessToReadAllPagesDenied(space, user)) {
+            throw new AccessDeniedException("Отказано в доступе");
+        }
+
+        return pageRepository.findBySpaceAndParentIsNullAndIdGreaterThanOrderById(space, afterId,
+                PageRequest.of(0, size));
+    }
+
+    /**
+     * Метод, отвечающий за получение страниц данного пространства вместе со всеми их подстраницами.
+     * Страницы и подстраницы загружаются в одной транзакции после одной проверки доступа.
+     *
+     * @param spaceId ID пространтсва, в котором нужно получить страницы.
+     * @param bunch   номер страницы при пагинации.
+     * @param size    количество элементов в странице при пагинации.
+     * @return страницы данного пространства и их подстраницы.
+     * @throws AccessDeniedException если не удалось определить пользователя.
+     */
+    @Override
+    public PageForest getWithDescendants(int spaceId, int bunch, int size) {
+        Space space = entityFetcher.fetchSpace(spaceId);
+        Person user = entityFetcher.getLoggedInUser();
+
+        if (ResourceAccessHelper.isAccessToReadAllPagesDenied(space, user)) {
+            throw new AccessDeniedException("Отказано в доступе");
+        }
+
+        List<PageSummary> pages = pageRepository.findBySpaceAndParentIsNullOrderById(space,
+                PageRequest.of(bunch, size));
+
+        return new PageForest(pages, findDescendants(space, pages));
+    }
+
+    /**
+     * Метод, отвечающий за получение страниц пространства, следующих за страницей с данным ID,
+     * вместе со всеми их подстраницами.
+     * Страницы и подстраницы загружаются в одной транзакции после одной проверки доступа.
+     *
+     * @param spaceId ID пространтсва, в котором нужно получить страницы.
+     * @param afterId ID последней страницы предыдущей группы или 0 для первой группы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return страницы данного пространства, упорядоченные по ID, и их подстраницы.
+     * @throws AccessDeniedException если не удалось определить пользователя.
+     */
+    @Override
+    public PageForest getAfterWithDescendants(int spaceId, int afterId, int size) {
+        Space space = entityFetcher.fetchSpace(spaceId);
+        Person user = entityFetcher.getLoggedInUser();
+
+        if (ResourceAccessHelper.isAccessToReadAllPagesDenied(space, user)) {
+            throw new AccessDeniedException("Отказано в доступе");
+        }
+
+        List<PageSummary> pages = pageRepository.findBySpaceAndParentIsNullAndIdGreaterThanOrderById(space, afterId,
+                PageRequest.of(0, size));
+
+        return new PageForest(pages, findDescendants(space, pages));
+    }
+
     /**
      * Метод, отвечающий за получение записей в имени которых присутсвует pageSearch.
      *
@@ -147,12 +239,60 @@ public class PageService implements IPageService {
      * @return список всех найденных записей.
      */
     @Override
-    public List<Page> get(String pageSearch) {
+    public List<PageSearchResult> get(String pageSearch) {
         Person user = entityFetcher.getLoggedInUser();
 
         return pageRepository.findByOwnerAndNameStartingWith(user, pageSearch);
     }
 
+    /**
+     * Метод, отвечающий за поиск записей, название которых содержит строку поиска
+     * или похоже на нее с учетом опечаток.
+     *
+     * @param pageSearch строка поиска.
+     * @param limit      максимальное количество записей.
+     * @return список найденных записей, упорядоченный по убыванию похожести.
+     */
+    @Override
+    public List<PageSearchResult> search(String pageSearch, int limit) {
+        Person user = entityFetcher.getLoggedInUser();
+
+        pageRepository.setWordSimilarityThreshold(WORD_SIMILARITY_THRESHOLD);
+        return pageRepository.findByOwnerAndNameSimilarTo(user.getId(), pageSearch, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Метод, отвечающий за получение страниц-предков найденных страниц одним запросом.
+     * ID предков берутся из пути страниц.
+     *
+     * @param pages найденные страницы пользователя.
+     * @return страницы-предки по их ID.
+     */
+    @Override
+    public Map<Integer, PageSummary> getAncestors(List<PageSearchResult> pages) {
+        Person user = entityFetcher.getLoggedInUser();
+
+        Set<Integer> ancestorIds = new HashSet<>();
+        for (PageSearchResult page : pages) {
+            for (String id : page.getPath().split("/")) {
+                if (!id.isEmpty()) {
+                    ancestorIds.add(Integer.parseInt(id));
+                }
+            }
+        }
+
+        if (ancestorIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Integer, PageSummary> ancestors = new HashMap<>();
+        for (PageSummary ancestor : pageRepository.findByIdInAndOwnerId(ancestorIds, user.getId())) {
+            ancestors.put(ancestor.getId(), ancestor);
+        }
+
+        return ancestors;
+    }
+
     /**
      * Метод, отвечающий за получение страницы.
      *
@@ -173,6 +313,37 @@ public class PageService implements IPageService {
         return page;
     }
 
+    /**
+     * Метод, отвечающий за получение поддерева страницы не глубже данного уровня.
+     * Пользователь, не являющийся владельцем, получает только публичные подстраницы.
+     *
+     * @param pageId  ID корневой страницы.
+     * @param spaceId ID пространтсва, в котором нужно получить страницы.
+     * @param depth   максимальная глубина подстраниц, 0 - только корневая страница.
+     * @return корневую страницу, ее подстраницы и их общее количество.
+     * @throws AccessDeniedException если не удалось определить пользователя.
+     */
+    @Override
+    public PageTree getTree(int pageId, int spaceId, int depth) {
+        Page page = entityFetcher.fetchPage(pageId, spaceId);
+        Person user = entityFetcher.getLoggedInUser();
+
+        if (ResourceAccessHelper.isAccessToReadPageDenied(page, user)) {
+            throw new AccessDeniedException("Отказано в доступе");
+        }
+
+        boolean includePrivate = user.getId() == page.getOwner().getId();
+        String pathPattern = page.getDescendantsPath() + "%";
+        String path = page.getPath();
+        int separators = path.length() - path.replace("/", "").length();
+
+        List<PageSummary> pages = pageRepository.findSubtreeById(pageId, pathPattern, separators + depth,
+                includePrivate);
+        long descendantCount = pageRepository.countByPathLike(pathPattern, includePrivate);
+
+        return new PageTree(pages, descendantCount);
+    }
+
     /**
      * Метод, отвечающий за получение страницы-родителя.
      *
@@ -221,16 +392,19 @@ public class PageService implements IPageService {
             throw new AccessDeniedException("Отказано в доступе");
         }
 
-        if (!page.getName().equals(pageToUpdateWith.getName())) {
-            if (pageRepository.findBySpaceAndName(space, pageToUpdateWith.getName()).isPresent()) {
-                throw new ElementAlreadyExistsException("Страница с таким именем уже существует в этом пространстве");
-            }
-        }
+        boolean sharedChanged = page.isShared() != pageToUpdateWith.isShared();
 
         page.setName(pageToUpdateWith.getName());
         page.setShared(pageToUpdateWith.isShared());
 
-        pageRepository.save(page);
+        save(page);
+
+        if (sharedChanged) {
+            page.updateEffectivelyShared();
+            pageRepository.updateEffectivelySharedByPathLike(page.getDescendantsPath() + "%",
+                    page.isEffectivelyShared());
+        }
+        pageAutocompleteService.pageSaved(page);
 
         return page;
     }
@@ -253,5 +427,45 @@ public class PageService implements IPageService {
         }
 
         pageRepository.delete(page);
+        pageAutocompleteService.pageDeleted(page);
+    }
+
+    /**
+     * Метод, загружающий всех потомков данных страниц пространства одним запросом.
+     *
+     * @param space пространство, в котором нужно получить страницы.
+     * @param pages страницы, потомков которых нужно получить.
+     * @return список страниц-потомков, упорядоченный по ID.
+     */
+    private List<PageSummary> findDescendants(Space space, List<PageSummary> pages) {
+        if (pages.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Integer> pageIds = new HashSet<>();
+        for (PageSummary page : pages) {
+            pageIds.add(page.getId());
+        }
+
+        return pageRepository.findDescendants(space, pageIds);
+    }
+
+    /**
+     * Метод, сохраняющий страницу. Уникальность названия в пространстве проверяет база данных,
+     * поэтому изменения записываются сразу, а не при фиксации транзакции.
+     *
+     * @param page страница, которую нужно сохранить.
+     * @return сохраненную страницу.
+     * @throws ElementAlreadyExistsException если страница с таким названием уже существует в пространстве.
+     */
+    private Page save(Page page) {
+        try {
+            return pageRepository.saveAndFlush(page);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolationHelper.isViolated(e, "pages_space_id_name_key")) {
+                throw new ElementAlreadyExistsException("Страница с таким именем уже существует в этом пространстве");
+            }
+            throw e;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,278 @@
+package org.sbtitcourses.mdwiki.service;
+
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.util.ConvertedDocument;
+import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.PdfExportJob;
+import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
+import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.sbtitcourses.mdwiki.util.exception.ExportQueueFullException;
+import org.sbtitcourses.mdwiki.util.exception.PdfConversionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервис фонового экспорта документов в PDF формат.
+ * Конвертация выполняется в отдельном ограниченном пуле потоков,
+ * а результаты хранятся во временных файлах ограниченное время.
+ * Результат, который загружается в момент удаления задачи, удаляется после окончания загрузки.
+ */
+@Service
+public class PdfExportJobService implements IPdfExportJobService {
+
+    /**
+     * Поддиректория настроенной директории, которой сервис владеет целиком.
+     */
+    private static final String SUBDIRECTORY = "mdwiki-pdf-export";
+
+    /**
+     * Сервис с логикой взаимодействия с сущностью {@link org.sbtitcourses.mdwiki.model.Document}.
+     */
+    private final DocumentService documentService;
+
+    /**
+     * Компонент для получения сущностей.
+     */
+    private final EntityFetcher entityFetcher;
+
+    /**
+     * Пул потоков для конвертации документов.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Время хранения результата завершенной задачи.
+     */
+    private final Duration resultTtl;
+
+    /**
+     * Директория для хранения результатов задач.
+     */
+    private final Path directory;
+
+    /**
+     * Задачи экспорта по их ID.
+     */
+    private final Map<String, PdfExportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор для автоматического внедрения зависимостей.
+     *
+     * @param documentService сервис с логикой взаимодействия с сущностью {@link org.sbtitcourses.mdwiki.model.Document}.
+     * @param entityFetcher   компонент для получения сущностей.
+     * @param concurrency     количество одновременно выполняемых задач.
+     * @param queueDepth      максимальное количество задач, ожидающих выполнения.
+     * @param resultTtl       время хранения результата завершенной задачи.
+     * @param directory       директория, в поддиректории которой хранятся результаты задач.
+     * @throws UncheckedIOException если не удалось подготовить директорию для результатов задач.
+     */
+    @Autowired
+    public PdfExportJobService(DocumentService documentService,
+                               EntityFetcher entityFetcher,
+                               @Value("${pdf.export.concurrency}") int concurrency,
+                               @Value("${pdf.export.queue-depth}") int queueDepth,
+                               @Value("${pdf.export.result-ttl}") Duration resultTtl,
+                               @Value("${pdf.export.directory}") String directory) {
+        this.documentService = documentService;
+        this.entityFetcher = entityFetcher;
+        this.resultTtl = resultTtl;
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueDepth));
+
+        // Задачи хранятся только в памяти, поэтому результаты, оставшиеся с прошлого запуска, удаляются.
+        this.directory = Path.of(directory).resolve(SUBDIRECTORY);
+
+        try {
+            FileSystemUtils.deleteRecursively(this.directory);
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка создания директории для результатов экспорта", e);
+        }
+    }
+
+    /**
+     * Метод, отвечающий за постановку документа в очередь на экспорт.
+     * Данные документа и права доступа проверяются сразу, а конвертация выполняется в фоне.
+     *
+     * @param spaceId  ID пространства.
+     * @param pageId   ID страницы.
+     * @param font     название шрифта.
+     * @param fontSize размер шрифта в пикселях.
+     * @param tree     экспортировать ли документ вместе с подстраницами.
+     * @return созданная задача экспорта.
+     * @throws AccessDeniedException    если не удалось определить пользователя.
+     * @throws PdfConversionException   если документ не может быть сконвертирован.
+     * @throws ExportQueueFullException если очередь экспорта переполнена.
+     */
+    @Override
+    public PdfExportJob submit(int spaceId, int pageId, String font, int fontSize, boolean tree) {
+        ConvertedDocument convertedDocument = documentService.convertToPdf(spaceId, pageId, font, fontSize, tree);
+        Person user = entityFetcher.getLoggedInUser();
+
+        PdfExportJob job = new PdfExportJob(UUID.randomUUID().toString(), user.getId(), spaceId, pageId,
+                convertedDocument.getDocumentName(), convertedDocument.getETag());
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job, convertedDocument));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ExportQueueFullException("Очередь экспорта переполнена");
+        }
+
+        return job;
+    }
+
+    /**
+     * Метод, отвечающий за получение задачи экспорта.
+     * Задачи доступны только создавшему их пользователю.
+     *
+     * @param spaceId ID пространства.
+     * @param pageId  ID страницы.
+     * @param jobId   ID задачи.
+     * @return найденная задача.
+     * @throws ElementNotFoundException если задача не найдена.
+     */
+    @Override
+    public PdfExportJob get(int spaceId, int pageId, String jobId) {
+        PdfExportJob job = jobs.get(jobId);
+        Person user = entityFetcher.getLoggedInUser();
+
+        if (job == null || job.getOwnerId() != user.getId()
+                || job.getSpaceId() != spaceId || job.getPageId() != pageId) {
+            throw new ElementNotFoundException("Задача не найдена");
+        }
+
+        return job;
+    }
+
+    /**
+     * Метод, отвечающий за получение результата завершенной задачи экспорта.
+     * Результат закрепляется при конвертации документа и не удаляется до закрытия его содержимого.
+     *
+     * @param spaceId ID пространства.
+     * @param pageId  ID страницы.
+     * @param jobId   ID задачи.
+     * @return документ, записывающий PDF файл в поток вывода.
+     * @throws ElementNotFoundException если задача не найдена или еще не завершена.
+     * @throws PdfConversionException   если задача завершилась с ошибкой.
+     */
+    @Override
+    public ConvertedDocument getResult(int spaceId, int pageId, String jobId) {
+        PdfExportJob job = get(spaceId, pageId, jobId);
+
+        if (job.getStatus() == PdfExportJob.Status.FAILED) {
+            throw new PdfConversionException("Ошибка конвертации документа");
+        }
+
+        if (job.getStatus() != PdfExportJob.Status.DONE) {
+            throw new ElementNotFoundException("Документ еще не готов");
+        }
+
+        Path result = job.getResult();
+
+        return new ConvertedDocument(() -> {
+            if (!job.pin()) {
+                throw new ElementNotFoundException("Задача не найдена");
+            }
+
+            return new ConvertedDocument.Content() {
+                @Override
+                public void writeTo(OutputStream outputStream) throws IOException {
+                    Files.copy(result, outputStream);
+                }
+
+                @Override
+                public void close() {
+                    if (job.unpin()) {
+                        deleteResult(job);
+                    }
+                }
+            };
+        }, job.getDocumentName(), job.getETag());
+    }
+
+    /**
+     * Метод, удаляющий задачи, время хранения результатов которых истекло.
+     */
+    @Scheduled(fixedDelayString = "${pdf.export.cleanup-interval}")
+    public void removeExpiredJobs() {
+        Instant now = Instant.now();
+
+        jobs.values().removeIf(job -> {
+            if (job.isExpired(now, resultTtl)) {
+                remove(job);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Метод, останавливающий конвертацию и удаляющий результаты задач при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        jobs.values().forEach(this::remove);
+        jobs.clear();
+    }
+
+    private void run(PdfExportJob job, ConvertedDocument convertedDocument) {
+        job.start();
+
+        Path result = null;
+        try {
+            result = Files.createTempFile(directory, "pdf-export-", ".pdf");
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(result))) {
+                convertedDocument.writeTo(outputStream);
+            }
+            job.succeed(result);
+        } catch (IOException | RuntimeException e) {
+            deleteFile(result);
+            job.fail();
+        }
+    }
+
+    private void remove(PdfExportJob job) {
+        if (job.remove()) {
+            deleteResult(job);
+        }
+    }
+
+    private void deleteResult(PdfExportJob job) {
+        deleteFile(job.getResult());
+    }
+
+    private void deleteFile(Path file) {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Временный файл будет удален операционной системой.
+        }
+    }
+}
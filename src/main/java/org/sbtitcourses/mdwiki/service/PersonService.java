@@ -2,11 +2,15 @@ package org.sbtitcourses.mdwiki.service;
 
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.repository.PersonRepository;
+import org.sbtitcourses.mdwiki.repository.projection.PersonSummary;
+import org.sbtitcourses.mdwiki.util.ConstraintViolationHelper;
 import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.PersonCache;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.ElementAlreadyExistsException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -32,17 +36,33 @@ public class PersonService implements IPersonService {
      */
     private final EntityFetcher entityFetcher;
 
+    /**
+     * Сервис автодополнения названий страниц.
+     */
+    private final PageAutocompleteService pageAutocompleteService;
+
+    /**
+     * Кэш аутентифицированных пользователей.
+     */
+    private final PersonCache personCache;
+
     /**
      * Конструктор для автоматичекого внедрения зависимостей.
      *
-     * @param personRepository репозиторий для взаимодействия с сущностью {@link Person}.
-     * @param entityFetcher    компонент для получения ресурсов.
+     * @param personRepository        репозиторий для взаимодействия с сущностью {@link Person}.
+     * @param entityFetcher           компонент для получения ресурсов.
+     * @param pageAutocompleteService сервис автодополнения названий страниц.
+     * @param personCache             кэш аутентифицированных пользователей.
      */
     @Autowired
     public PersonService(PersonRepository personRepository,
-                         EntityFetcher entityFetcher) {
+                         EntityFetcher entityFetcher,
+                         PageAutocompleteService pageAutocompleteService,
+                         PersonCache personCache) {
         this.personRepository = personRepository;
         this.entityFetcher = entityFetcher;
+        this.pageAutocompleteService = pageAutocompleteService;
+        this.personCache = personCache;
     }
 
     /**
@@ -51,10 +71,22 @@ public class PersonService implements IPersonService {
      * @return список всех пользователей.
      */
     @Override
-    public List<Person> get(int bunch, int size) {
+    public List<PersonSummary> get(int bunch, int size) {
         Pageable pageable = PageRequest.of(bunch, size);
 
-        return personRepository.findAll(pageable).getContent();
+        return personRepository.findAllByOrderById(pageable);
+    }
+
+    /**
+     * Метод, отвечающий за получение пользователей, следующих за пользователем с данным ID.
+     *
+     * @param afterId ID последнего пользователя предыдущей страницы или 0 для первой страницы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return список пользователей, упорядоченный по ID.
+     */
+    @Override
+    public List<PersonSummary> getAfter(int afterId, int size) {
+        return personRepository.findByIdGreaterThanOrderById(afterId, PageRequest.of(0, size));
     }
 
     /**
@@ -82,7 +114,8 @@ public class PersonService implements IPersonService {
      * @param id            ID пользователя.
      * @param updatedPerson информация о пользователе, которую нужно обновить.
      * @return обновленного пользователя.
-     * @throws ElementNotFoundException если пользователя с таким ID не существует.
+     * @throws ElementNotFoundException      если пользователя с таким ID не существует.
+     * @throws ElementAlreadyExistsException если логин или почта уже используются.
      */
     @Override
     @Transactional
@@ -93,12 +126,6 @@ public class PersonService implements IPersonService {
             throw new AccessDeniedException("Отказано в доступе");
         }
 
-        if (!user.getEmail().equals(updatedPerson.getEmail())) {
-            if (personRepository.findByEmail(updatedPerson.getEmail()).isPresent()) {
-                throw new ElementAlreadyExistsException("Почта уже используется");
-            }
-        }
-
         Person person = personRepository.findById(id)
                 .orElseThrow(() -> new ElementNotFoundException("Пользователь не найден"));
         person.setUsername(updatedPerson.getUsername());
@@ -107,7 +134,8 @@ public class PersonService implements IPersonService {
         person.setEnabled(updatedPerson.isEnabled());
         person.setUpdatedAt(Instant.now());
 
-        personRepository.save(person);
+        save(person);
+        personCache.evict(id);
 
         return person;
     }
@@ -134,6 +162,7 @@ public class PersonService implements IPersonService {
         person.setNote(note);
 
         personRepository.save(person);
+        personCache.evict(id);
 
         return person;
     }
@@ -157,5 +186,29 @@ public class PersonService implements IPersonService {
                 .orElseThrow(() -> new ElementNotFoundException("Пользователь не найден"));
 
         personRepository.delete(personToDelete);
+        personCache.evict(id);
+        pageAutocompleteService.ownerDeleted(id);
+    }
+
+    /**
+     * Метод, сохраняющий пользователя. Уникальность логина и почты проверяет база данных,
+     * поэтому изменения записываются сразу, а не при фиксации транзакции.
+     *
+     * @param person пользователь, которого нужно сохранить.
+     * @return сохраненного пользователя.
+     * @throws ElementAlreadyExistsException если логин или почта уже используются.
+     */
+    private Person save(Person person) {
+        try {
+            return personRepository.saveAndFlush(person);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolationHelper.isViolated(e, "persons_email_key")) {
+                throw new ElementAlreadyExistsException("Почта уже используется");
+            }
+            if (ConstraintViolationHelper.isViolated(e, "persons_username_key")) {
+                throw new ElementAlreadyExistsException("Логин уже используется");
+            }
+            throw e;
+        }
     }
 }
\ No newline at end of file
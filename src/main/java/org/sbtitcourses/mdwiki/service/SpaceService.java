@@ -3,13 +3,17 @@ package org.sbtitcourses.mdwiki.service;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
 import org.sbtitcourses.mdwiki.repository.SpaceRepository;
+import org.sbtitcourses.mdwiki.repository.projection.SpaceSummary;
+import org.sbtitcourses.mdwiki.util.ConstraintViolationHelper;
 import org.sbtitcourses.mdwiki.util.EntityFetcher;
 import org.sbtitcourses.mdwiki.util.ResourceAccessHelper;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.ElementAlreadyExistsException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,16 +37,24 @@ public class SpaceService implements ISpaceService {
      */
     private final EntityFetcher entityFetcher;
 
+    /**
+     * Сервис автодополнения названий страниц.
+     */
+    private final PageAutocompleteService pageAutocompleteService;
+
     /**
      * Конструктор для автоматичекого внедрения зависимостей.
      *
-     * @param spaceRepository репозиторий для взаимодействия с сущностью {@link Space}.
-     * @param entityFetcher   компонент для получения ресурсов.
+     * @param spaceRepository         репозиторий для взаимодействия с сущностью {@link Space}.
+     * @param entityFetcher           компонент для получения ресурсов.
+     * @param pageAutocompleteService сервис автодополнения названий страниц.
      */
     @Autowired
-    public SpaceService(SpaceRepository spaceRepository, EntityFetcher entityFetcher) {
+    public SpaceService(SpaceRepository spaceRepository, EntityFetcher entityFetcher,
+                        PageAutocompleteService pageAutocompleteService) {
         this.spaceRepository = spaceRepository;
         this.entityFetcher = entityFetcher;
+        this.pageAutocompleteService = pageAutocompleteService;
     }
 
     /**
@@ -57,15 +69,11 @@ public class SpaceService implements ISpaceService {
     public Space create(Space space) {
         Person user = entityFetcher.getLoggedInUser();
 
-        if (spaceRepository.findByOwnerAndName(user, space.getName()).isPresent()) {
-            throw new ElementAlreadyExistsException("Пространство с таким именем уже существует");
-        }
-
         space.setOwner(user);
         Instant now = Instant.now();
         space.setCreatedAt(now);
         space.setUpdatedAt(now);
-        space.setId(spaceRepository.save(space).getId());
+        space.setId(save(space).getId());
 
         return space;
     }
@@ -78,7 +86,7 @@ public class SpaceService implements ISpaceService {
      * @return список пользовательских всех пространств.
      */
     @Override
-    public List<Space> get(int bunch, int size) {
+    public List<SpaceSummary> get(int bunch, int size) {
         Person user = entityFetcher.getLoggedInUser();
 
         Pageable pageable = PageRequest.of(bunch, size);
@@ -86,6 +94,20 @@ public class SpaceService implements ISpaceService {
         return spaceRepository.findByOwnerOrderById(user, pageable);
     }
 
+    /**
+     * Метод, отвечающий за получение пользовательских пространств, следующих за пространством с данным ID.
+     *
+     * @param afterId ID последнего пространства предыдущей страницы или 0 для первой страницы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return список пользовательских пространств, упорядоченный по ID.
+     */
+    @Override
+    public List<SpaceSummary> getAfter(int afterId, int size) {
+        Person user = entityFetcher.getLoggedInUser();
+
+        return spaceRepository.findByOwnerAndIdGreaterThanOrderById(user, afterId, PageRequest.of(0, size));
+    }
+
     /**
      * Метод, отвечающий за получение всех публичных пространств.
      *
@@ -94,12 +116,24 @@ public class SpaceService implements ISpaceService {
      * @return список всех публичных пространств.
      */
     @Override
-    public List<Space> getShared(int bunch, int size) {
-        Pageable pageable = PageRequest.of(bunch, size);
+    public List<SpaceSummary> getShared(int bunch, int size) {
+        Pageable pageable = PageRequest.of(bunch, size, Sort.by("id"));
 
         return spaceRepository.findBySharedTrue(pageable);
     }
 
+    /**
+     * Метод, отвечающий за получение публичных пространств, следующих за пространством с данным ID.
+     *
+     * @param afterId ID последнего пространства предыдущей страницы или 0 для первой страницы.
+     * @param size    количество элементов в странице при пагинации.
+     * @return список публичных пространств, упорядоченный по ID.
+     */
+    @Override
+    public List<SpaceSummary> getSharedAfter(int afterId, int size) {
+        return spaceRepository.findBySharedTrueAndIdGreaterThanOrderById(afterId, PageRequest.of(0, size));
+    }
+
     /**
      * Метод, отвечающий за получение пространства.
      *
@@ -138,16 +172,10 @@ public class SpaceService implements ISpaceService {
             throw new AccessDeniedException("Отказано в доступе");
         }
 
-        if (!space.getName().equals(spaceToUpdateWith.getName())) {
-            if (spaceRepository.findByOwnerAndName(user, spaceToUpdateWith.getName()).isPresent()) {
-                throw new ElementAlreadyExistsException("Пространство с таким именем уже существует");
-            }
-        }
-
         space.setName(spaceToUpdateWith.getName());
         space.setShared(spaceToUpdateWith.isShared());
 
-        spaceRepository.save(space);
+        save(space);
 
         return space;
     }
@@ -169,5 +197,25 @@ public class SpaceService implements ISpaceService {
         }
 
         spaceRepository.delete(space);
+        pageAutocompleteService.spaceDeleted(space.getOwner().getId(), space.getId());
+    }
+
+    /**
+     * Метод, сохраняющий пространство. Уникальность названия у владельца проверяет база данных,
+     * поэтому изменения записываются сразу, а не при фиксации транзакции.
+     *
+     * @param space пространство, которое нужно сохранить.
+     * @return сохраненное пространство.
+     * @throws ElementAlreadyExistsException если пространство с таким названием уже существует.
+     */
+    private Space save(Space space) {
+        try {
+            return spaceRepository.saveAndFlush(space);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolationHelper.isViolated(e, "spaces_owner_id_name_key")) {
+                throw new ElementAlreadyExistsException("Пространство с таким именем уже существует");
+            }
+            throw e;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package org.sbtitcourses.mdwiki.service;
+
+import net.coobird.thumbnailator.Thumbnails;
+import org.sbtitcourses.mdwiki.model.StoredFile;
+import org.sbtitcourses.mdwiki.repository.StoredFileRepository;
+import org.sbtitcourses.mdwiki.util.TransactionHooks;
+import org.sbtitcourses.mdwiki.util.event.ImageStoredEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервис фонового создания превью изображений.
+ * Превью создаются в отдельном ограниченном пуле потоков вне запроса на загрузку и его транзакции.
+ * Состояние создания превью хранится в базе данных, поэтому превью, которые не удалось создать
+ * или не поместились в очередь, создаются повторно, в том числе после перезапуска приложения.
+ */
+@Service
+public class ThumbnailService implements IThumbnailService {
+
+    /**
+     * Репозиторий для взаимодействия с сущностью {@link StoredFile}.
+     */
+    private final StoredFileRepository storedFileRepository;
+
+    /**
+     * Сервис с логикой записи и получения файлов.
+     */
+    private final ImageStorageService imageStorageService;
+
+    /**
+     * Пул потоков для создания превью.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Максимальное количество задач, ожидающих выполнения.
+     */
+    private final int queueDepth;
+
+    /**
+     * Количество попыток создания превью, после которого превью считается несозданным.
+     */
+    private final int maxAttempts;
+
+    /**
+     * ID файлов, превью которых находятся в очереди или создаются.
+     */
+    private final Set<Integer> queued = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Конструктор для автоматического внедрения зависимостей.
+     *
+     * @param storedFileRepository репозиторий для взаимодействия с сущностью {@link StoredFile}.
+     * @param imageStorageService  сервис с логикой записи и получения файлов.
+     * @param concurrency          количество одновременно создаваемых превью.
+     * @param queueDepth           максимальное количество задач, ожидающих выполнения.
+     * @param maxAttempts          количество попыток создания превью.
+     */
+    @Autowired
+    public ThumbnailService(StoredFileRepository storedFileRepository,
+                            ImageStorageService imageStorageService,
+                            @Value("${file.thumbnail.concurrency}") int concurrency,
+                            @Value("${file.thumbnail.queue-depth}") int queueDepth,
+                            @Value("${file.thumbnail.max-attempts}") int maxAttempts) {
+        this.storedFileRepository = storedFileRepository;
+        this.imageStorageService = imageStorageService;
+        this.queueDepth = queueDepth;
+        this.maxAttempts = maxAttempts;
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueDepth));
+    }
+
+    /**
+     * Метод, ставящий создание превью записанного изображения в очередь после фиксации транзакции,
+     * чтобы фоновый поток видел информацию об изображении.
+     *
+     * @param event событие записи изображения.
+     */
+    @EventListener
+    public void onImageStored(ImageStoredEvent event) {
+        TransactionHooks.afterCommit(() -> submit(event.getFileId()));
+    }
+
+    /**
+     * Метод, отвечающий за постановку создания превью изображения в очередь.
+     * Если очередь переполнена, превью будет создано при следующей повторной попытке.
+     *
+     * @param fileId ID файла изображения.
+     */
+    @Override
+    public void submit(int fileId) {
+        if (!queued.add(fileId)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> run(fileId));
+        } catch (RejectedExecutionException e) {
+            queued.remove(fileId);
+        }
+    }
+
+    /**
+     * Метод, ставящий в очередь создание превью изображений, для которых оно еще не создано.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${file.thumbnail.retry-interval}")
+    public void retryPending() {
+        storedFileRepository.findByThumbnailStatusOrderById(StoredFile.ThumbnailStatus.PENDING,
+                        PageRequest.of(0, queueDepth))
+                .forEach(storedFile -> submit(storedFile.getId()));
+    }
+
+    /**
+     * Метод, останавливающий создание превью при остановке приложения.
+     * Незавершенные превью будут созданы после перезапуска.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(int fileId) {
+        try {
+            storedFileRepository.findById(fileId)
+                    .filter(storedFile -> storedFile.getThumbnailStatus() == StoredFile.ThumbnailStatus.PENDING)
+                    .ifPresent(this::createThumbnail);
+        } finally {
+            queued.remove(fileId);
+        }
+    }
+
+    /**
+     * Метод, создающий превью изображения.
+     * Превью изображения с уже известным содержимым не создается повторно.
+     * Превью записывается во временный файл и переименовывается после записи,
+     * поэтому одновременно создаваемые превью одинаковых изображений не видны частично записанными.
+     *
+     * @param storedFile информация об изображении.
+     */
+    private void createThumbnail(StoredFile storedFile) {
+        try {
+            Path thumbnailLocation = imageStorageService.getThumbnailLocation(storedFile);
+
+            if (Files.notExists(thumbnailLocation)) {
+                writeThumbnail(storedFile, thumbnailLocation);
+            }
+
+            storedFileRepository.updateThumbnailStatus(storedFile.getId(), StoredFile.ThumbnailStatus.READY,
+                    storedFile.getThumbnailAttempts());
+        } catch (IOException | RuntimeException e) {
+            int attempts = storedFile.getThumbnailAttempts() + 1;
+            StoredFile.ThumbnailStatus status = attempts < maxAttempts
+                    ? StoredFile.ThumbnailStatus.PENDING
+                    : StoredFile.ThumbnailStatus.FAILED;
+
+            storedFileRepository.updateThumbnailStatus(storedFile.getId(), status, attempts);
+        }
+    }
+
+    private void writeThumbnail(StoredFile storedFile, Path thumbnailLocation) throws IOException {
+        Files.createDirectories(thumbnailLocation.getParent());
+        // Временный файл сохраняет расширение, по которому выбирается формат превью.
+        Path temporary = thumbnailLocation.resolveSibling(UUID.randomUUID() + "-" + thumbnailLocation.getFileName());
+
+        try {
+            Thumbnails.of(imageStorageService.getImageLocation(storedFile).toFile())
+                    .size(storedFile.getThumbnailHeight(), storedFile.getThumbnailWidth())
+                    .toFile(temporary.toFile());
+            Files.move(temporary, thumbnailLocation,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
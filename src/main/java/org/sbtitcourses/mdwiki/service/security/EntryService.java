@@ -3,9 +3,11 @@ package org.sbtitcourses.mdwiki.service.security;
 import org.sbtitcourses.mdwiki.dto.person.PersonLogin;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.repository.PersonRepository;
+import org.sbtitcourses.mdwiki.util.ConstraintViolationHelper;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.RegistrationFailedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -25,6 +27,16 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class EntryService {
 
+    /**
+     * Ошибка регистрации с занятым логином.
+     */
+    private static final String USERNAME_TAKEN = "Пользователь с таким логином уже существует";
+
+    /**
+     * Ошибка регистрации с занятым адресом эл. почты.
+     */
+    private static final String EMAIL_TAKEN = "Пользователь с таким адресом эл. почты уже существует";
+
     /**
      * Репозиторий для взаимодействия с сущностью {@link Person}.
      */
@@ -58,6 +70,8 @@ public class EntryService {
 
     /**
      * Метод, отвечающий за регистрацию пользователя.
+     * Занятые логин и адрес эл. почты проверяются одним запросом, чтобы сообщить обо всех ошибках сразу,
+     * а одновременную регистрацию с теми же данными отклоняют ограничения уникальности базы данных.
      *
      * @param person пользователь, которого нужно зарегистрировать.
      * @return зарегистрированного пользователя.
@@ -65,14 +79,22 @@ public class EntryService {
      */
     @Transactional
     public Person register(Person person) {
+        boolean usernameTaken = false;
+        boolean emailTaken = false;
+
+        for (Person existing : personRepository.findAllByUsernameOrEmail(person.getUsername(), person.getEmail())) {
+            usernameTaken |= existing.getUsername().equals(person.getUsername());
+            emailTaken |= existing.getEmail() != null && existing.getEmail().equals(person.getEmail());
+        }
+
         List<String> errors = new ArrayList<>();
 
-        if (personRepository.findByUsername(person.getUsername()).isPresent()) {
-            errors.add("Пользователь с таким логином уже существует");
+        if (usernameTaken) {
+            errors.add(USERNAME_TAKEN);
         }
 
-        if (personRepository.findByEmail(person.getEmail()).isPresent()) {
-            errors.add("Пользователь с таким адресом эл. почты уже существует");
+        if (emailTaken) {
+            errors.add(EMAIL_TAKEN);
         }
 
         if (!errors.isEmpty()) {
@@ -86,7 +108,8 @@ public class EntryService {
         person.setUpdatedAt(now);
         person.setEnabled(true);
         person.setNote("# Привет, " + person.getUsername());
-        person.setId(personRepository.save(person).getId());
+
+        person.setId(save(person).getId());
 
         return person;
     }
@@ -117,4 +140,26 @@ public class EntryService {
     public void logout() {
         SecurityContextHolder.getContext().setAuthentication(null);
     }
+
+    /**
+     * Метод, сохраняющий пользователя. Изменения записываются сразу, а не при фиксации транзакции,
+     * чтобы нарушение ограничения уникальности логина или адреса эл. почты было распознано здесь.
+     *
+     * @param person пользователь, которого нужно сохранить.
+     * @return сохраненного пользователя.
+     * @throws RegistrationFailedException если логин или адрес эл. почты уже используются.
+     */
+    private Person save(Person person) {
+        try {
+            return personRepository.saveAndFlush(person);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolationHelper.isViolated(e, "persons_username_key")) {
+                throw new RegistrationFailedException(List.of(USERNAME_TAKEN));
+            }
+            if (ConstraintViolationHelper.isViolated(e, "persons_email_key")) {
+                throw new RegistrationFailedException(List.of(EMAIL_TAKEN));
+            }
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Вспомогательный класс, содержащий методы
+ * для определения нарушенного ограничения базы данных.
+ */
+public final class ConstraintViolationHelper {
+
+    private ConstraintViolationHelper() {
+    }
+
+    /**
+     * Метод, проверяющий нарушено ли данное ограничение.
+     * H2 дополняет название ограничения схемой и суффиксом индекса,
+     * поэтому названия сравниваются по вхождению без учета регистра.
+     *
+     * @param e              исключение, выброшенное при записи в базу данных.
+     * @param constraintName название ограничения.
+     * @return true - если ограничение нарушено, false - если нарушено другое ограничение или оно неизвестно.
+     */
+    public static boolean isViolated(DataIntegrityViolationException e, String constraintName) {
+        ConstraintViolationException cause = findCause(e);
+        String violated = cause != null ? cause.getConstraintName() : null;
+
+        return violated != null
+                && violated.toLowerCase(Locale.ROOT).contains(constraintName.toLowerCase(Locale.ROOT));
+    }
+
+    private static ConstraintViolationException findCause(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return (ConstraintViolationException) cause;
+            }
+        }
+
+        return null;
+    }
+}
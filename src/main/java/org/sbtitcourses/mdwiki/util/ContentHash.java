@@ -0,0 +1,70 @@
+package org.sbtitcourses.mdwiki.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Вспомогательный класс для вычисления хэша содержимого.
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    /**
+     * Метод, вычисляющий SHA-256 хэш последовательности строк.
+     *
+     * @param parts строки, из которых вычисляется хэш.
+     * @return хэш в шестнадцатеричном виде.
+     */
+    public static String sha256(String... parts) {
+        MessageDigest digest = sha256();
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Метод, копирующий данные из потока ввода в поток вывода
+     * и вычисляющий SHA-256 хэш данных за один проход.
+     *
+     * @param inputStream  поток ввода.
+     * @param outputStream поток вывода.
+     * @return хэш скопированных данных в шестнадцатеричном виде.
+     * @throws IOException если не удалось прочитать или записать данные.
+     */
+    public static String sha256(InputStream inputStream, OutputStream outputStream) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+
+        for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+            digest.update(buffer, 0, read);
+            outputStream.write(buffer, 0, read);
+        }
+
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hash = new StringBuilder();
+        for (byte b : bytes) {
+            hash.append(String.format("%02x", b));
+        }
+
+        return hash.toString();
+    }
+}
@@ -1,38 +1,117 @@
 package org.sbtitcourses.mdwiki.util;
 
-import org.springframework.core.io.InputStreamResource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
- * Вспомогательный класс для хранения документа в виде ресурса и его названия.
+ * Вспомогательный класс для хранения сконвертированного документа и его названия.
+ * Документ конвертируется по требованию, а содержимое записывается в поток вывода
+ * уже после конвертации.
  */
 public class ConvertedDocument {
 
     /**
-     * Объект, представляющий PDF файл в виде ресурса.
+     * Объект, конвертирующий документ.
      */
-    private final InputStreamResource inputStreamResource;
+    private final Renderer renderer;
 
     /**
      * Название документа.
      */
     private final String documentName;
 
+    /**
+     * Тег версии документа для условных HTTP запросов.
+     */
+    private final String eTag;
+
+    /**
+     * Конструктор для создания объекта класса с уже готовым содержимым.
+     *
+     * @param content      объект, записывающий PDF файл в поток вывода.
+     * @param documentName название документа.
+     * @param eTag         тег версии документа для условных HTTP запросов.
+     */
+    public ConvertedDocument(Content content, String documentName, String eTag) {
+        this(() -> content, documentName, eTag);
+    }
+
     /**
      * Конструктор для создания объекта класса.
      *
-     * @param inputStreamResource объект, представляющий PDF файл в виде ресурса.
-     * @param documentName        название документа.
+     * @param renderer     объект, конвертирующий документ.
+     * @param documentName название документа.
+     * @param eTag         тег версии документа для условных HTTP запросов.
      */
-    public ConvertedDocument(InputStreamResource inputStreamResource, String documentName) {
-        this.inputStreamResource = inputStreamResource;
+    public ConvertedDocument(Renderer renderer, String documentName, String eTag) {
+        this.renderer = renderer;
         this.documentName = documentName;
+        this.eTag = eTag;
     }
 
-    public InputStreamResource getInputStreamResource() {
-        return inputStreamResource;
+    /**
+     * Метод, конвертирующий документ. Полученное содержимое нужно закрыть после записи.
+     *
+     * @return содержимое PDF файла.
+     * @throws IOException если произошла ошибка записи.
+     */
+    public Content render() throws IOException {
+        return renderer.render();
+    }
+
+    /**
+     * Метод, конвертирующий документ и записывающий PDF файл в поток вывода.
+     *
+     * @param outputStream поток вывода.
+     * @throws IOException если произошла ошибка записи.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        try (Content content = render()) {
+            content.writeTo(outputStream);
+        }
     }
 
     public String getDocumentName() {
         return documentName;
     }
-}
\ No newline at end of file
+
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * Функциональный интерфейс для конвертации документа.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+
+        /**
+         * Сконвертировать документ.
+         *
+         * @return содержимое PDF файла.
+         * @throws IOException если произошла ошибка записи.
+         */
+        Content render() throws IOException;
+    }
+
+    /**
+     * Функциональный интерфейс для записи содержимого документа в поток вывода.
+     * Закрытие содержимого освобождает занятые им ресурсы.
+     */
+    @FunctionalInterface
+    public interface Content extends Closeable {
+
+        /**
+         * Записать содержимое документа в поток вывода.
+         *
+         * @param outputStream поток вывода.
+         * @throws IOException если произошла ошибка записи.
+         */
+        void writeTo(OutputStream outputStream) throws IOException;
+
+        @Override
+        default void close() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.sbtitcourses.mdwiki.util.exception.InvalidCursorException;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Вспомогательный класс для курсорной пагинации списков, упорядоченных по ID.
+ * Курсор - непрозрачная для клиента строка с ID последнего элемента предыдущей страницы,
+ * поэтому следующая страница выбирается по индексу без пропуска предыдущих строк
+ * и не смещается при добавлении новых элементов.
+ */
+public final class Cursors {
+
+    /**
+     * Заголовок ответа с курсором следующей страницы.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String PREFIX = "id:";
+
+    private Cursors() {
+    }
+
+    /**
+     * Метод, возвращающий ID, после которого начинается страница.
+     *
+     * @param cursor курсор из заголовка {@link #NEXT_CURSOR_HEADER} или null для первой страницы.
+     * @return ID последнего элемента предыдущей страницы или 0 для первой страницы.
+     * @throws InvalidCursorException если курсор не был выдан сервером.
+     */
+    public static int decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(PREFIX)) {
+                return Integer.parseInt(decoded.substring(PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // Курсор поврежден, ошибка ниже.
+        }
+
+        throw new InvalidCursorException("Недопустимый курсор");
+    }
+
+    /**
+     * Метод, создающий курсор страницы, следующей за элементом.
+     *
+     * @param lastId ID последнего элемента страницы.
+     * @return курсор следующей страницы.
+     */
+    public static String encode(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Метод, создающий HTTP ответ со статусом 200 и курсором следующей страницы,
+     * если страница заполнена полностью.
+     *
+     * @param found список элементов страницы, упорядоченный по ID.
+     * @param size  количество элементов на странице.
+     * @param idOf  функция получения ID элемента.
+     * @param <T>   тип элемента.
+     * @return построитель HTTP ответа.
+     */
+    public static <T> ResponseEntity.BodyBuilder ok(List<T> found, int size, ToIntFunction<T> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (!found.isEmpty() && found.size() >= size) {
+            response.header(NEXT_CURSOR_HEADER, encode(idOf.applyAsInt(found.get(found.size() - 1))));
+        }
+
+        return response;
+    }
+}
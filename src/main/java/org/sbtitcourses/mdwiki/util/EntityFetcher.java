@@ -14,6 +14,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * Компонент для получения сущностей.
  */
@@ -40,6 +42,11 @@ public class EntityFetcher {
      */
     private final DocumentRepository documentRepository;
 
+    /**
+     * Кэш аутентифицированных пользователей.
+     */
+    private final PersonCache personCache;
+
     /**
      * Конструктор для автоматического внедрения зависимостей.
      *
@@ -47,16 +54,19 @@ public class EntityFetcher {
      * @param spaceRepository    репозиторий для взаимодействия с сущностью {@link Space}.
      * @param pageRepository     репозиторий для взаимодействия с сущностью {@link Page}.
      * @param documentRepository репозиторий для взаимодействия с сущностью {@link Document}.
+     * @param personCache        кэш аутентифицированных пользователей.
      */
     @Autowired
     public EntityFetcher(PersonRepository personRepository,
                          SpaceRepository spaceRepository,
                          PageRepository pageRepository,
-                         DocumentRepository documentRepository) {
+                         DocumentRepository documentRepository,
+                         PersonCache personCache) {
         this.personRepository = personRepository;
         this.spaceRepository = spaceRepository;
         this.pageRepository = pageRepository;
         this.documentRepository = documentRepository;
+        this.personCache = personCache;
     }
 
     /**
@@ -72,7 +82,7 @@ public class EntityFetcher {
     }
 
     /**
-     * Метод, отвечающий за получение страницы.
+     * Метод, отвечающий за получение страницы вместе с ее пространством одним запросом.
      *
      * @param pageId  ID страницы.
      * @param spaceId ID пространства.
@@ -80,14 +90,19 @@ public class EntityFetcher {
      * @throws ElementNotFoundException если пространство или страница не найдены.
      */
     public Page fetchPage(int pageId, int spaceId) {
-        Space space = fetchSpace(spaceId);
+        Optional<Page> page = pageRepository.findByIdAndSpaceId(pageId, spaceId);
+
+        if (page.isEmpty()) {
+            // Пространство проверяется только для выбора сообщения об ошибке.
+            fetchSpace(spaceId);
+            throw new ElementNotFoundException("Страница не найдена");
+        }
 
-        return pageRepository.findByIdAndSpace(pageId, space)
-                .orElseThrow(() -> new ElementNotFoundException("Страница не найдена"));
+        return page.get();
     }
 
     /**
-     * Метод, отвечающий за получение документа.
+     * Метод, отвечающий за получение документа вместе с его страницей и пространством одним запросом.
      *
      * @param pageId  ID страницы, для которой нужно получить документ.
      * @param spaceId ID пространства.
@@ -95,14 +110,21 @@ public class EntityFetcher {
      * @throws ElementNotFoundException если пространство, страница или документ не найдены.
      */
     public Document fetchDocument(int pageId, int spaceId) {
-        Page page = fetchPage(pageId, spaceId);
+        Optional<Document> document = documentRepository.findByPageIdAndPageSpaceId(pageId, spaceId);
+
+        if (document.isEmpty()) {
+            // Страница проверяется только для выбора сообщения об ошибке.
+            fetchPage(pageId, spaceId);
+            throw new ElementNotFoundException("Документ не найден");
+        }
 
-        return documentRepository.findByPage(page)
-                .orElseThrow(() -> new ElementNotFoundException("Документ не найден"));
+        return document.get();
     }
 
     /**
      * Метод, отвечающий за получение объекта пользователя.
+     * Пользователь ищется по ID из данных аутентификации и кэшируется,
+     * поэтому возвращаемый объект не связан с текущей транзакцией и не должен изменяться.
      *
      * @return {@link java.util.Optional} с объектом пользователя внутри, если он прошел аутентифицию,
      * пустой {@link java.util.Optional} в противном случае.
@@ -110,9 +132,8 @@ public class EntityFetcher {
      */
     public Person getLoggedInUser() {
         PersonDetails principal = (PersonDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username = principal.getUsername();
 
-        return personRepository.findByUsername(username)
-                .orElseThrow(() -> new ElementNotFoundException("Пользователь не найден"));
+        return personCache.get(principal.getId(), id -> personRepository.findById(id)
+                .orElseThrow(() -> new ElementNotFoundException("Пользователь не найден")));
     }
 }
\ No newline at end of file
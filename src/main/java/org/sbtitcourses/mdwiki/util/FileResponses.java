@@ -0,0 +1,133 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.sbtitcourses.mdwiki.model.StoredFile;
+import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Вспомогательный класс для отдачи записанных файлов.
+ * Файл с данным GUID и его превью никогда не изменяются, поэтому GUID служит ETag,
+ * а клиент может хранить файл в кэше без повторных проверок.
+ * Если контейнер сервлетов поддерживает sendfile, файл отправляется
+ * из файловой системы в сокет без копирования в память приложения.
+ */
+public final class FileResponses {
+
+    /**
+     * Атрибуты запроса, через которые Tomcat принимает файл для отправки через sendfile.
+     */
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Файл доступен только пользователям с доступом к пространству,
+     * поэтому кэшировать его может только браузер.
+     */
+    private static final String CACHE_CONTROL = "private, max-age=31536000, immutable";
+
+    private FileResponses() {
+    }
+
+    /**
+     * Метод, создающий HTTP ответ с файлом.
+     * Ответ на условный запрос с совпадающим ETag или датой изменения имеет статус 304 и не содержит файла.
+     * Запрос части файла отправляется через sendfile, если его поддерживает контейнер сервлетов,
+     * иначе части файла выбирает Spring MVC по ресурсу в теле ответа.
+     * Заголовок If-Range не проверяется, так как содержимое файла не меняется.
+     *
+     * @param loadedFile файл в виде ресурса и информация о нем.
+     * @param request    HTTP запрос.
+     * @return HTTP ответ с файлом и статусом 200, частью файла и статусом 206 или без файла со статусом 304.
+     * @throws ElementNotFoundException если не удалось прочитать файл.
+     */
+    public static ResponseEntity<Resource> download(LoadedFile loadedFile, ServletWebRequest request) {
+        StoredFile storedFile = loadedFile.getStoredFile();
+        Resource resource = loadedFile.getResource();
+        String eTag = loadedFile.getETag();
+        long length;
+        long lastModified;
+
+        try {
+            length = resource.contentLength();
+            lastModified = resource.lastModified();
+        } catch (IOException e) {
+            throw new ElementNotFoundException("Файл не найден");
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(loadedFile.getMimeType()));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"".concat(storedFile.getOriginalName()).concat("\""));
+        headers.setETag(eTag);
+        headers.setLastModified(lastModified);
+        headers.setCacheControl(CACHE_CONTROL);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (request.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        HttpServletRequest servletRequest = request.getRequest();
+        if (length == 0 || !Boolean.TRUE.equals(servletRequest.getAttribute(SENDFILE_SUPPORT))
+                || !HttpMethod.GET.matches(servletRequest.getMethod())) {
+            return ResponseEntity.ok().headers(headers).body(resource);
+        }
+
+        String fileName;
+        List<HttpRange> ranges;
+        try {
+            fileName = resource.getFile().getAbsolutePath();
+            ranges = HttpRange.parseRanges(servletRequest.getHeader(HttpHeaders.RANGE));
+        } catch (IOException e) {
+            return ResponseEntity.ok().headers(headers).body(resource);
+        } catch (IllegalArgumentException e) {
+            return notSatisfiable(headers, length);
+        }
+
+        if (ranges.size() > 1) {
+            return ResponseEntity.ok().headers(headers).body(resource);
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+
+        if (ranges.size() == 1) {
+            try {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                return notSatisfiable(headers, length);
+            }
+
+            status = HttpStatus.PARTIAL_CONTENT;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        servletRequest.setAttribute(SENDFILE_FILENAME, fileName);
+        servletRequest.setAttribute(SENDFILE_START, start);
+        servletRequest.setAttribute(SENDFILE_END, end + 1);
+        headers.setContentLength(end - start + 1);
+
+        return ResponseEntity.status(status).headers(headers).build();
+    }
+
+    private static ResponseEntity<Resource> notSatisfiable(HttpHeaders headers, long length) {
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+    }
+}
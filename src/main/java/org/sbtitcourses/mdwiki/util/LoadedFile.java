@@ -21,15 +21,40 @@ public class LoadedFile {
     private final Resource resource;
 
     /**
-     * Конструктор для создания объекта класса.
+     * MIME-тип ресурса.
+     */
+    private final String mimeType;
+
+    /**
+     * Тег версии ресурса для условных HTTP запросов.
+     */
+    private final String eTag;
+
+    /**
+     * Конструктор для создания объекта класса с записанным файлом или его превью.
      *
      * @param storedFile сущность записанных в системе файлов
      *                   для хранения информации о них в базе данных.
      * @param resource   интерфейс, представляющий внешние ресурсы.
      */
     public LoadedFile(StoredFile storedFile, Resource resource) {
+        this(storedFile, resource, storedFile.getMimeType(), "\"" + storedFile.getGUID() + "\"");
+    }
+
+    /**
+     * Конструктор для создания объекта класса с преобразованным файлом.
+     *
+     * @param storedFile сущность записанных в системе файлов
+     *                   для хранения информации о них в базе данных.
+     * @param resource   интерфейс, представляющий внешние ресурсы.
+     * @param mimeType   MIME-тип ресурса.
+     * @param eTag       тег версии ресурса для условных HTTP запросов.
+     */
+    public LoadedFile(StoredFile storedFile, Resource resource, String mimeType, String eTag) {
         this.storedFile = storedFile;
         this.resource = resource;
+        this.mimeType = mimeType;
+        this.eTag = eTag;
     }
 
     public StoredFile getStoredFile() {
@@ -39,4 +64,12 @@ public class LoadedFile {
     public Resource getResource() {
         return resource;
     }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
 }
\ No newline at end of file
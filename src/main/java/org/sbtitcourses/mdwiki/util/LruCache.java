@@ -0,0 +1,160 @@
+package org.sbtitcourses.mdwiki.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Потокобезопасный кэш с вытеснением давно неиспользуемых элементов (LRU),
+ * ограниченный суммарным весом хранимых значений.
+ *
+ * @param <K> тип ключа.
+ * @param <V> тип значения.
+ */
+public class LruCache<K, V> {
+
+    /**
+     * Максимальный суммарный вес значений в кэше.
+     */
+    private final long maxWeight;
+
+    /**
+     * Функция, вычисляющая вес значения.
+     */
+    private final ToLongFunction<V> weigher;
+
+    /**
+     * Обработчик вытеснения элементов из кэша.
+     */
+    private final BiConsumer<K, V> evictionListener;
+
+    /**
+     * Элементы кэша в порядке доступа к ним.
+     */
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Текущий суммарный вес значений в кэше.
+     */
+    private long weight;
+
+    /**
+     * Конструктор для создания кэша без обработчика вытеснения.
+     *
+     * @param maxWeight максимальный суммарный вес значений в кэше.
+     * @param weigher   функция, вычисляющая вес значения.
+     */
+    public LruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this(maxWeight, weigher, (key, value) -> {
+        });
+    }
+
+    /**
+     * Конструктор для создания кэша.
+     *
+     * @param maxWeight        максимальный суммарный вес значений в кэше.
+     * @param weigher          функция, вычисляющая вес значения.
+     * @param evictionListener обработчик, вызываемый для элементов,
+     *                         вытесненных из-за превышения максимального веса.
+     */
+    public LruCache(long maxWeight, ToLongFunction<V> weigher, BiConsumer<K, V> evictionListener) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Метод, возвращающий значение по ключу и отмечающий его как недавно использованное.
+     *
+     * @param key ключ.
+     * @return найденное значение или null, если его нет в кэше.
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Метод, добавляющий значение в кэш. Значения, вес которых превышает
+     * максимальный вес кэша, не сохраняются.
+     *
+     * @param key   ключ.
+     * @param value значение.
+     * @return true - если значение сохранено, false - если оно слишком велико.
+     */
+    public boolean put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+
+        if (valueWeight > maxWeight) {
+            return false;
+        }
+
+        List<Map.Entry<K, V>> evicted = new ArrayList<>();
+
+        synchronized (this) {
+            V previous = entries.put(key, value);
+            if (previous != null) {
+                weight -= weigher.applyAsLong(previous);
+            }
+            weight += valueWeight;
+
+            Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+            while (weight > maxWeight && iterator.hasNext()) {
+                Map.Entry<K, V> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                weight -= weigher.applyAsLong(eldest.getValue());
+                evicted.add(Map.entry(eldest.getKey(), eldest.getValue()));
+                iterator.remove();
+            }
+        }
+
+        for (Map.Entry<K, V> entry : evicted) {
+            evictionListener.accept(entry.getKey(), entry.getValue());
+        }
+
+        return true;
+    }
+
+    /**
+     * Метод, удаляющий значение из кэша без вызова обработчика вытеснения.
+     *
+     * @param key ключ.
+     * @return удаленное значение или null, если его не было в кэше.
+     */
+    public synchronized V remove(K key) {
+        V removed = entries.remove(key);
+
+        if (removed != null) {
+            weight -= weigher.applyAsLong(removed);
+        }
+
+        return removed;
+    }
+
+    /**
+     * Метод, удаляющий все значения из кэша без вызова обработчика вытеснения.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * @return количество элементов в кэше.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return текущий суммарный вес значений в кэше.
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+}
@@ -0,0 +1,153 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Компонент для конвертации markdown-документов в HTML.
+ * Результаты конвертации кэшируются по хэшу текста документа и режиму конвертации,
+ * а несколько документов конвертируются параллельно в отдельном пуле потоков.
+ * Для PDF документов HTML в тексте документа сохраняется, а для отдачи браузеру экранируется,
+ * и ссылки с небезопасными схемами (например, javascript:) удаляются.
+ */
+@Component
+public class MarkdownRenderer {
+
+    /**
+     * Версия правил конвертации, входящая в тег версии документа. Меняется вместе с настройками рендерера,
+     * чтобы клиенты не получали ответ 304 для HTML, сконвертированного по прежним правилам.
+     */
+    private static final String RENDERING_VERSION = "escaped-html\n";
+
+    /**
+     * Парсер markdown-документов.
+     */
+    private final Parser parser = Parser.builder().build();
+
+    /**
+     * Префикс ключа кэша HTML, сконвертированного для PDF документов.
+     */
+    private static final String PDF_KEY_PREFIX = "pdf\n";
+
+    /**
+     * Рендерер HTML для PDF документов, сохраняющий HTML из текста документа.
+     */
+    private final HtmlRenderer pdfRenderer = HtmlRenderer.builder().build();
+
+    /**
+     * Рендерер HTML для отдачи браузеру, экранирующий HTML из текста документа.
+     */
+    private final HtmlRenderer browserRenderer = HtmlRenderer.builder()
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            .build();
+
+    /**
+     * Пул потоков для параллельной конвертации документов.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Кэш HTML документов по хэшу их текста.
+     */
+    private final LruCache<String, String> cache;
+
+    /**
+     * Конструктор для автоматического внедрения зависимостей.
+     *
+     * @param parallelism количество потоков для параллельной конвертации документов.
+     * @param cacheSize   максимальный объем HTML документов в кэше.
+     */
+    @Autowired
+    public MarkdownRenderer(@Value("${markdown.parallelism}") int parallelism,
+                            @Value("${markdown.cache-size}") DataSize cacheSize) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.cache = new LruCache<>(cacheSize.toBytes(), html -> 2L * html.length());
+    }
+
+    /**
+     * Метод, вычисляющий тег версии HTML документа для условных HTTP запросов.
+     *
+     * @param markdown текст markdown-документа.
+     * @return тег версии документа.
+     */
+    public static String eTagOf(String markdown) {
+        return ContentHash.sha256(RENDERING_VERSION, markdown);
+    }
+
+    /**
+     * Метод, конвертирующий markdown-документ в HTML для PDF документа.
+     * HTML из текста документа сохраняется.
+     *
+     * @param markdown текст markdown-документа.
+     * @return HTML документа.
+     */
+    public String render(String markdown) {
+        return render(ContentHash.sha256(PDF_KEY_PREFIX, markdown), markdown, pdfRenderer);
+    }
+
+    /**
+     * Метод, конвертирующий markdown-документ в HTML для отдачи браузеру.
+     * HTML из текста документа экранируется, а ссылки с небезопасными схемами удаляются.
+     *
+     * @param markdown текст markdown-документа.
+     * @return HTML документа.
+     */
+    public String renderForBrowser(String markdown) {
+        return render(eTagOf(markdown), markdown, browserRenderer);
+    }
+
+    /**
+     * Метод, конвертирующий каждый markdown-документ в HTML для PDF документа независимо от остальных
+     * и объединяющий результаты в исходном порядке документов.
+     *
+     * @param documents тексты markdown-документов.
+     * @return HTML всех документов.
+     */
+    public String render(List<String> documents) {
+        if (documents.size() == 1) {
+            return render(documents.get(0));
+        }
+
+        List<ForkJoinTask<String>> fragments = new ArrayList<>(documents.size());
+        for (String markdown : documents) {
+            fragments.add(pool.submit(() -> render(markdown)));
+        }
+
+        StringBuilder html = new StringBuilder();
+        for (ForkJoinTask<String> fragment : fragments) {
+            html.append(fragment.join());
+        }
+
+        return html.toString();
+    }
+
+    private String render(String key, String markdown, HtmlRenderer renderer) {
+        String html = cache.get(key);
+
+        if (html == null) {
+            html = renderer.render(parser.parse(markdown));
+            cache.put(key, html);
+        }
+
+        return html;
+    }
+
+    /**
+     * Метод, останавливающий пул потоков при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
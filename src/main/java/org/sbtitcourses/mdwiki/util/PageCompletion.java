@@ -0,0 +1,58 @@
+package org.sbtitcourses.mdwiki.util;
+
+/**
+ * Вспомогательный класс для хранения записи в индексе автодополнения названий страниц.
+ */
+public class PageCompletion {
+
+    /**
+     * ID страницы.
+     */
+    private final int id;
+
+    /**
+     * Название страницы.
+     */
+    private final String name;
+
+    /**
+     * ID пространства, которое содержит страницу.
+     */
+    private final int spaceId;
+
+    /**
+     * ID страницы-родителя или null для корневой страницы.
+     */
+    private final Integer parentId;
+
+    /**
+     * Конструктор для создания объекта класса.
+     *
+     * @param id       ID страницы.
+     * @param name     название страницы.
+     * @param spaceId  ID пространства, которое содержит страницу.
+     * @param parentId ID страницы-родителя или null для корневой страницы.
+     */
+    public PageCompletion(int id, String name, int spaceId, Integer parentId) {
+        this.id = id;
+        this.name = name;
+        this.spaceId = spaceId;
+        this.parentId = parentId;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSpaceId() {
+        return spaceId;
+    }
+
+    public Integer getParentId() {
+        return parentId;
+    }
+}
@@ -0,0 +1,40 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+
+import java.util.List;
+
+/**
+ * Вспомогательный класс для хранения группы страниц верхнего уровня вместе со всеми их подстраницами.
+ */
+public class PageForest {
+
+    /**
+     * Страницы верхнего уровня, упорядоченные по ID.
+     */
+    private final List<PageSummary> pages;
+
+    /**
+     * Подстраницы страниц верхнего уровня на любой глубине, упорядоченные по ID.
+     */
+    private final List<PageSummary> descendants;
+
+    /**
+     * Конструктор для создания объекта класса.
+     *
+     * @param pages       страницы верхнего уровня.
+     * @param descendants подстраницы страниц верхнего уровня на любой глубине.
+     */
+    public PageForest(List<PageSummary> pages, List<PageSummary> descendants) {
+        this.pages = pages;
+        this.descendants = descendants;
+    }
+
+    public List<PageSummary> getPages() {
+        return pages;
+    }
+
+    public List<PageSummary> getDescendants() {
+        return descendants;
+    }
+}
@@ -0,0 +1,298 @@
+package org.sbtitcourses.mdwiki.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Префиксное дерево названий страниц одного пользователя для автодополнения.
+ * Названия хранятся без учета регистра, а дочерние узлы - в отсортированных массивах,
+ * поэтому дополнения возвращаются в алфавитном порядке без сортировки.
+ * Методы класса синхронизированы.
+ */
+public class PageNameTrie {
+
+    /**
+     * Примерный размер узла дерева в байтах без массивов дочерних узлов.
+     */
+    private static final long NODE_SIZE = 32;
+
+    /**
+     * Примерный размер ссылки на дочерний узел в байтах: символ и ссылка в массивах узла.
+     */
+    private static final long CHILD_SIZE = 6;
+
+    /**
+     * Примерный размер записи в байтах без символов названия: объект записи, строка,
+     * элемент таблицы записей по ID и массив записей узла.
+     */
+    private static final long ENTRY_SIZE = 128;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final PageCompletion[] NO_ENTRIES = new PageCompletion[0];
+
+    /**
+     * Корень дерева.
+     */
+    private final Node root = new Node();
+
+    /**
+     * Записи дерева по ID страниц.
+     */
+    private final Map<Integer, PageCompletion> entries = new HashMap<>();
+
+    /**
+     * Количество узлов дерева.
+     */
+    private long nodeCount = 1;
+
+    /**
+     * Суммарная длина названий всех записей.
+     */
+    private long nameLength;
+
+    /**
+     * Метод, добавляющий запись в дерево или заменяющий запись страницы с тем же ID.
+     *
+     * @param entry запись, которую нужно добавить.
+     */
+    public synchronized void put(PageCompletion entry) {
+        remove(entry.getId());
+
+        String key = keyOf(entry.getName());
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        node.addEntry(entry);
+
+        entries.put(entry.getId(), entry);
+        nameLength += entry.getName().length();
+    }
+
+    /**
+     * Метод, удаляющий запись страницы из дерева.
+     *
+     * @param pageId ID страницы.
+     */
+    public synchronized void remove(int pageId) {
+        PageCompletion entry = entries.remove(pageId);
+        if (entry == null) {
+            return;
+        }
+        nameLength -= entry.getName().length();
+
+        String key = keyOf(entry.getName());
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+        }
+        path[key.length()].removeEntry(pageId);
+
+        // Узлы без записей и дочерних узлов больше не нужны.
+        for (int i = key.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+            nodeCount--;
+        }
+    }
+
+    /**
+     * Метод, удаляющий запись страницы и записи всех ее подстраниц.
+     *
+     * @param pageId ID страницы.
+     */
+    public synchronized void removeTree(int pageId) {
+        Map<Integer, List<Integer>> subpages = new HashMap<>();
+        for (PageCompletion entry : entries.values()) {
+            if (entry.getParentId() != null) {
+                subpages.computeIfAbsent(entry.getParentId(), id -> new ArrayList<>()).add(entry.getId());
+            }
+        }
+
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(pageId);
+        while (!stack.isEmpty()) {
+            int id = stack.pop();
+            remove(id);
+            subpages.getOrDefault(id, List.of()).forEach(stack::push);
+        }
+    }
+
+    /**
+     * Метод, удаляющий все записи, удовлетворяющие условию.
+     *
+     * @param condition условие удаления записи.
+     */
+    public synchronized void removeIf(Predicate<PageCompletion> condition) {
+        List<Integer> ids = new ArrayList<>();
+        for (PageCompletion entry : entries.values()) {
+            if (condition.test(entry)) {
+                ids.add(entry.getId());
+            }
+        }
+
+        ids.forEach(this::remove);
+    }
+
+    /**
+     * Метод, возвращающий записи, названия которых начинаются с префикса, в алфавитном порядке.
+     * Обходится только поддерево префикса до нахождения нужного количества записей.
+     *
+     * @param prefix префикс названия.
+     * @param limit  максимальное количество записей.
+     * @return список найденных записей.
+     */
+    public synchronized List<PageCompletion> complete(String prefix, int limit) {
+        String key = keyOf(prefix);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+
+        List<PageCompletion> completions = new ArrayList<>(Math.min(limit, entries.size()));
+        if (node == null) {
+            return completions;
+        }
+
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty() && completions.size() < limit) {
+            Node current = stack.pop();
+
+            for (PageCompletion entry : current.values) {
+                if (completions.size() == limit) {
+                    break;
+                }
+                completions.add(entry);
+            }
+
+            for (int i = current.children.length - 1; i >= 0; i--) {
+                stack.push(current.children[i]);
+            }
+        }
+
+        return completions;
+    }
+
+    /**
+     * @return количество записей в дереве.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Метод, оценивающий объем памяти, занимаемый деревом.
+     *
+     * @return примерный объем памяти в байтах.
+     */
+    public synchronized long estimateSize() {
+        return nodeCount * NODE_SIZE + (nodeCount - 1) * CHILD_SIZE
+                + entries.size() * ENTRY_SIZE + 2 * nameLength;
+    }
+
+    private static String keyOf(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Узел дерева. Дочерние узлы хранятся в массивах, отсортированных по символу.
+     */
+    private class Node {
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private PageCompletion[] values = NO_ENTRIES;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int position = -index - 1;
+            Node child = new Node();
+
+            char[] newKeys = new char[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            newKeys[position] = key;
+
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            newChildren[position] = child;
+
+            keys = newKeys;
+            children = newChildren;
+            nodeCount++;
+
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+
+            char[] newKeys = new char[keys.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private void addEntry(PageCompletion entry) {
+            // Записи с одинаковым названием упорядочены по ID страницы.
+            int position = 0;
+            while (position < values.length && values[position].getId() < entry.getId()) {
+                position++;
+            }
+
+            PageCompletion[] newValues = new PageCompletion[values.length + 1];
+            System.arraycopy(values, 0, newValues, 0, position);
+            System.arraycopy(values, position, newValues, position + 1, values.length - position);
+            newValues[position] = entry;
+
+            values = newValues;
+        }
+
+        private void removeEntry(int pageId) {
+            PageCompletion[] newValues = Arrays.stream(values)
+                    .filter(entry -> entry.getId() != pageId)
+                    .toArray(PageCompletion[]::new);
+
+            values = newValues.length == 0 ? NO_ENTRIES : newValues;
+        }
+
+        private boolean isEmpty() {
+            return keys.length == 0 && values.length == 0;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+
+import java.util.List;
+
+/**
+ * Вспомогательный класс для хранения поддерева страниц, ограниченного по глубине.
+ */
+public class PageTree {
+
+    /**
+     * Корневая страница и ее подстраницы не глубже заданного уровня, упорядоченные по ID.
+     */
+    private final List<PageSummary> pages;
+
+    /**
+     * Количество подстраниц корневой страницы на любой глубине.
+     */
+    private final long descendantCount;
+
+    /**
+     * Конструктор для создания объекта класса.
+     *
+     * @param pages           корневая страница и ее подстраницы не глубже заданного уровня.
+     * @param descendantCount количество подстраниц корневой страницы на любой глубине.
+     */
+    public PageTree(List<PageSummary> pages, long descendantCount) {
+        this.pages = pages;
+        this.descendantCount = descendantCount;
+    }
+
+    public List<PageSummary> getPages() {
+        return pages;
+    }
+
+    public long getDescendantCount() {
+        return descendantCount;
+    }
+}
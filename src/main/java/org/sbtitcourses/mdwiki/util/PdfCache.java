@@ -0,0 +1,379 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Компонент для кэширования документов, сконвертированных в PDF формат.
+ * Документы хранятся в памяти, а вытесненные из памяти документы
+ * при наличии настроенной директории сохраняются на диск.
+ */
+@Component
+public class PdfCache {
+
+    /**
+     * Поддиректория настроенной директории, которой кэш владеет целиком.
+     */
+    private static final String DISK_SUBDIRECTORY = "mdwiki-pdf-cache";
+
+    /**
+     * Кэш документов в памяти.
+     */
+    private final LruCache<String, byte[]> memoryTier;
+
+    /**
+     * Кэш документов на диске, хранящий размеры записанных файлов.
+     * Равен null, если дисковый кэш отключен.
+     */
+    private final LruCache<String, Long> diskTier;
+
+    /**
+     * Директория для хранения документов на диске.
+     */
+    private final Path diskDirectory;
+
+    /**
+     * Максимальный размер документа, который сохраняется в кэш.
+     */
+    private final long entrySize;
+
+    /**
+     * Ключи закэшированных документов, построенных из каждой страницы.
+     */
+    private final Map<Integer, Set<String>> pageKeys = new HashMap<>();
+
+    /**
+     * Страницы, из которых построен каждый закэшированный документ.
+     */
+    private final Map<String, Set<Integer>> keyPages = new HashMap<>();
+
+    /**
+     * Конструктор для автоматического внедрения зависимостей.
+     *
+     * @param memorySize    максимальный объем документов в памяти.
+     * @param entrySize     максимальный размер документа, который сохраняется в кэш.
+     * @param diskDirectory директория, в поддиректории которой документы хранятся на диске,
+     *                      пустая строка отключает дисковый кэш.
+     * @param diskSize      максимальный объем документов на диске.
+     * @throws UncheckedIOException если не удалось подготовить директорию дискового кэша.
+     */
+    @Autowired
+    public PdfCache(@Value("${pdf.cache.memory-size}") DataSize memorySize,
+                    @Value("${pdf.cache.entry-size}") DataSize entrySize,
+                    @Value("${pdf.cache.disk-directory}") String diskDirectory,
+                    @Value("${pdf.cache.disk-size}") DataSize diskSize) {
+        this.entrySize = entrySize.toBytes();
+
+        if (diskDirectory.isBlank()) {
+            this.diskDirectory = null;
+            this.diskTier = null;
+            this.memoryTier = new LruCache<>(memorySize.toBytes(), pdf -> pdf.length,
+                    (key, pdf) -> unindex(key));
+        } else {
+            // Очищается только собственная поддиректория, а не директория из конфигурации.
+            this.diskDirectory = Path.of(diskDirectory).resolve(DISK_SUBDIRECTORY);
+            this.diskTier = new LruCache<>(diskSize.toBytes(), size -> size, (key, size) -> deleteFromDisk(key));
+            this.memoryTier = new LruCache<>(memorySize.toBytes(), pdf -> pdf.length, this::spillToDisk);
+
+            try {
+                FileSystemUtils.deleteRecursively(this.diskDirectory);
+                Files.createDirectories(this.diskDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ошибка создания директории для кэша PDF документов", e);
+            }
+        }
+    }
+
+    /**
+     * Метод, вычисляющий ключ кэша для документа. Ключ зависит от хэша текстов документов
+     * (включая ссылки на изображения в них), параметров шрифта, режима конвертации
+     * и пользователя, для которого разрешаются изображения. Перед каждым текстом
+     * в хэш добавляется его длина, поэтому разное разбиение одного текста на документы дает разные ключи.
+     *
+     * @param documents тексты markdown-документов в порядке их следования.
+     * @param font      название шрифта.
+     * @param fontSize  размер шрифта.
+     * @param tree      конвертируется ли документ вместе с подстраницами.
+     * @param username  логин пользователя.
+     * @return ключ кэша.
+     */
+    public static String keyOf(List<String> documents, String font, int fontSize, boolean tree, String username) {
+        String[] parts = new String[documents.size() + 1];
+        for (int i = 0; i < documents.size(); i++) {
+            parts[i] = documents.get(i).length() + ":" + documents.get(i);
+        }
+        parts[documents.size()] = String.format("%n%s%n%d%n%b%n%s", font, fontSize, tree, username);
+
+        return ContentHash.sha256(parts);
+    }
+
+    /**
+     * Метод, отвечающий за получение документа из кэша.
+     *
+     * @param key ключ кэша.
+     * @return содержимое PDF документа или null, если документа нет в кэше.
+     */
+    public byte[] get(String key) {
+        byte[] pdf = memoryTier.get(key);
+
+        if (pdf != null || diskTier == null || diskTier.get(key) == null) {
+            return pdf;
+        }
+
+        try {
+            pdf = Files.readAllBytes(diskPathOf(key));
+        } catch (IOException e) {
+            return null;
+        }
+
+        memoryTier.put(key, pdf);
+        diskTier.remove(key);
+        deleteFile(key);
+
+        return pdf;
+    }
+
+    /**
+     * Метод, отвечающий за сохранение документа в кэш.
+     *
+     * @param key     ключ кэша.
+     * @param pageIds ID страниц, из которых построен документ.
+     * @param pdf     содержимое PDF документа.
+     */
+    public void put(String key, Collection<Integer> pageIds, byte[] pdf) {
+        synchronized (this) {
+            keyPages.put(key, new HashSet<>(pageIds));
+            for (Integer pageId : pageIds) {
+                pageKeys.computeIfAbsent(pageId, id -> new HashSet<>()).add(key);
+            }
+        }
+
+        if (!memoryTier.put(key, pdf)) {
+            unindex(key);
+        }
+    }
+
+    /**
+     * Метод, создающий буфер, в который записывается конвертируемый документ.
+     * Документ, не превышающий максимальный размер записи кэша, хранится в памяти
+     * и сохраняется в кэш, а больший документ записывается во временный файл.
+     *
+     * @param key     ключ кэша.
+     * @param pageIds ID страниц, из которых построен документ.
+     * @return буфер для записи документа.
+     */
+    public Recorder recorder(String key, Collection<Integer> pageIds) {
+        return new Recorder(key, pageIds);
+    }
+
+    /**
+     * Метод, удаляющий из кэша все документы, построенные из данной страницы.
+     *
+     * @param pageId ID страницы.
+     */
+    public void evictPage(int pageId) {
+        Set<String> keys;
+
+        synchronized (this) {
+            keys = pageKeys.remove(pageId);
+        }
+
+        if (keys == null) {
+            return;
+        }
+
+        for (String key : keys) {
+            memoryTier.remove(key);
+            if (diskTier != null && diskTier.remove(key) != null) {
+                deleteFile(key);
+            }
+            unindex(key);
+        }
+    }
+
+    private void spillToDisk(String key, byte[] pdf) {
+        Path target = diskPathOf(key);
+
+        try {
+            Path temporary = Files.createTempFile(diskDirectory, key, ".tmp");
+            Files.write(temporary, pdf);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            unindex(key);
+            return;
+        }
+
+        if (!diskTier.put(key, (long) pdf.length)) {
+            deleteFromDisk(key);
+        }
+    }
+
+    private void deleteFromDisk(String key) {
+        deleteFile(key);
+
+        if (memoryTier.get(key) == null) {
+            unindex(key);
+        }
+    }
+
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(diskPathOf(key));
+        } catch (IOException ignored) {
+            // Файл будет перезаписан при следующем вытеснении документа с тем же ключом.
+        }
+    }
+
+    private synchronized void unindex(String key) {
+        Set<Integer> pageIds = keyPages.remove(key);
+
+        if (pageIds == null) {
+            return;
+        }
+
+        for (Integer pageId : pageIds) {
+            Set<String> keys = pageKeys.get(pageId);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    pageKeys.remove(pageId);
+                }
+            }
+        }
+    }
+
+    private Path diskPathOf(String key) {
+        return diskDirectory.resolve(key.concat(".pdf"));
+    }
+
+    /**
+     * Буфер, в который записывается конвертируемый документ. Документ хранится в памяти,
+     * пока не превысит максимальный размер записи кэша, после чего переносится во временный файл.
+     * Временный файл удаляется при закрытии буфера.
+     */
+    public final class Recorder implements ConvertedDocument.Content {
+
+        /**
+         * Ключ кэша.
+         */
+        private final String key;
+
+        /**
+         * ID страниц, из которых построен документ.
+         */
+        private final Collection<Integer> pageIds;
+
+        /**
+         * Содержимое документа в памяти или null, если документ записан во временный файл.
+         */
+        private ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+
+        /**
+         * Временный файл с содержимым документа или null, если документ хранится в памяти.
+         */
+        private Path file;
+
+        /**
+         * Поток записи во временный файл или null, если документ хранится в памяти.
+         */
+        private OutputStream fileStream;
+
+        /**
+         * Поток вывода, в который записывается документ.
+         * Закрытие потока не закрывает буфер, так как рендерер закрывает поток после записи документа.
+         */
+        private final OutputStream outputStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                record(b, off, len);
+            }
+        };
+
+        private Recorder(String key, Collection<Integer> pageIds) {
+            this.key = key;
+            this.pageIds = pageIds;
+        }
+
+        public OutputStream getOutputStream() {
+            return outputStream;
+        }
+
+        /**
+         * Метод, завершающий запись документа и сохраняющий документ из памяти в кэш.
+         *
+         * @throws IOException если не удалось дописать временный файл.
+         */
+        public void commit() throws IOException {
+            if (fileStream != null) {
+                fileStream.close();
+            } else {
+                put(key, pageIds, recorded.toByteArray());
+            }
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            if (file != null) {
+                Files.copy(file, outputStream);
+            } else {
+                recorded.writeTo(outputStream);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (file == null) {
+                return;
+            }
+
+            try {
+                if (fileStream != null) {
+                    fileStream.close();
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Временный файл будет удален операционной системой.
+            }
+        }
+
+        private void record(byte[] b, int off, int len) throws IOException {
+            if (fileStream == null && recorded.size() + len > entrySize) {
+                file = diskDirectory != null
+                        ? Files.createTempFile(diskDirectory, "recorder-", ".tmp")
+                        : Files.createTempFile("mdwiki-pdf-", ".tmp");
+                fileStream = new BufferedOutputStream(Files.newOutputStream(file));
+                recorded.writeTo(fileStream);
+                recorded = null;
+            }
+
+            if (fileStream != null) {
+                fileStream.write(b, off, len);
+            } else {
+                recorded.write(b, off, len);
+            }
+        }
+    }
+}
@@ -1,27 +1,45 @@
 package org.sbtitcourses.mdwiki.util;
 
+import com.lowagie.text.DocumentException;
 import com.lowagie.text.pdf.BaseFont;
-import org.commonmark.node.Node;
-import org.commonmark.parser.Parser;
-import org.commonmark.renderer.html.HtmlRenderer;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.sbtitcourses.mdwiki.util.exception.PdfConversionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 import org.xhtmlrenderer.pdf.ITextFontResolver;
 import org.xhtmlrenderer.pdf.ITextRenderer;
+import org.xhtmlrenderer.pdf.ITextUserAgent;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 
 /**
- * Вспомогательный класс, содержащий методы
- * для конвертации markdown-документа в формат PDF.
+ * Компонент для конвертации HTML markdown-документа в формат PDF.
+ * Шрифты загружаются один раз при создании компонента и хранятся в нем, а сконфигурированные
+ * рендереры переиспользуются между конвертациями. Количество одновременных конвертаций
+ * ограничено размером пула, остальные конвертации ждут свободный рендерер.
  */
-public final class PdfConverter {
+@Component
+public class PdfConverter {
+
+    /**
+     * Логгер компонента.
+     */
+    private static final Logger log = LoggerFactory.getLogger(PdfConverter.class);
 
     /**
      * Доступные шрифты.
@@ -38,27 +56,77 @@ public final class PdfConverter {
     }};
 
     /**
-     * Метод, конвертирующий текст markdown-документа в PDF формат.
+     * Загруженные шрифты по их названиям. Рендереры регистрируют шрифты по пути к файлу,
+     * а iText возвращает для него экземпляр, загруженный при создании компонента.
+     */
+    private final Map<String, BaseFont> loadedFonts;
+
+    /**
+     * Свободные рендереры, готовые к конвертации.
+     */
+    private final BlockingQueue<ITextRenderer> renderers;
+
+    /**
+     * Разрешения на конвертацию, ограничивающие количество одновременно используемых рендереров.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Конструктор для автоматического внедрения зависимостей.
+     * Загружает файлы шрифтов и заранее создает рендереры пула.
      *
-     * @param markdown текст markdown-документа.
-     * @param font     шрифт.
-     * @param size     размер шрифта.
-     * @return поток ввода с текстом документа в виде ресурса.
-     * @throws PdfConversionException если произошла ошибка при конвертации.
+     * @param poolSize максимальное количество одновременно используемых рендереров.
      */
-    public static byte[] convert(String markdown, String font, int size, String username) {
+    @Autowired
+    public PdfConverter(@Value("${pdf.renderer-pool-size}") int poolSize) {
+        Map<String, BaseFont> loadedFonts = new HashMap<>();
+        for (String font : fonts.keySet()) {
+            try {
+                loadedFonts.put(font, BaseFont.createFont(fontPathOf(font), BaseFont.IDENTITY_H,
+                        BaseFont.EMBEDDED, true, null, null));
+            } catch (DocumentException | IOException e) {
+                log.warn("Шрифт {} недоступен для конвертации: {}", font, e.getMessage());
+            }
+        }
+        this.loadedFonts = Collections.unmodifiableMap(loadedFonts);
+
+        this.permits = new Semaphore(poolSize);
+        this.renderers = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            renderers.add(createRenderer());
+        }
+
+        // Пробная конвертация загружает классы рендеринга, чтобы первый запрос не был медленнее остальных.
+        this.loadedFonts.keySet().stream().findFirst()
+                .ifPresent(font -> convert("<h1></h1>", font, 16, GUID -> null, OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Метод, конвертирующий HTML markdown-документа в PDF формат
+     * и записывающий результат напрямую в поток вывода.
+     *
+     * @param html         HTML markdown-документа.
+     * @param font         шрифт.
+     * @param size         размер шрифта.
+     * @param imageLocator функция, возвращающая путь к загруженному изображению по его GUID
+     *                     или null, если изображение не найдено или недоступно.
+     * @param outputStream поток вывода, в который записывается документ.
+     * @throws PdfConversionException если произошла ошибка при конвертации
+     *                                или поток был прерван в ожидании свободного рендерера.
+     */
+    public void convert(String html, String font, int size, Function<String, Path> imageLocator,
+                        OutputStream outputStream) {
+        if (!loadedFonts.containsKey(font)) {
+            throw new PdfConversionException("Ошибка конвертации документа");
+        }
+
         if (size < 6 || size > 66) {
             size = 16;
         }
 
-        String fontFamily = fonts.getOrDefault(font, "Times New Roman");
+        String fontFamily = fonts.get(font);
         String style = String.format("font-family: '%s'; font-size: %dpx", fontFamily, size);
 
-        Parser parser = Parser.builder().build();
-        Node documentNode = parser.parse(markdown);
-        HtmlRenderer htmlRenderer = HtmlRenderer.builder().build();
-        String html = htmlRenderer.render(documentNode);
-
         Document document = Jsoup.parse(html, "UTF-8");
         document.outputSettings().syntax(Document.OutputSettings.Syntax.xml);
         document.body().attributes().add("style", style);
@@ -67,29 +135,74 @@ public final class PdfConverter {
         for (Element link : links) {
             String linkText = link.attr("src");
             if (linkText.startsWith("https://cmdwiki.netlify.app")) {
-                String newLink = "uploads/" + username + linkText.substring(linkText.lastIndexOf("/")) + ".jpg";
-                link.attr("src", newLink);
+                Path imageLocation = imageLocator.apply(linkText.substring(linkText.lastIndexOf("/") + 1));
+
+                if (imageLocation != null) {
+                    link.attr("src", imageLocation.toUri().toString());
+                } else {
+                    link.remove();
+                }
             }
         }
 
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            ITextRenderer renderer = new ITextRenderer();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfConversionException("Ошибка конвертации документа", e);
+        }
 
-            ITextFontResolver fontResolver = renderer.getFontResolver();
-            fontResolver.addFont(
-                    String.format("fonts/%s.%s", font, "ttf"),
-                    BaseFont.IDENTITY_H,
-                    BaseFont.EMBEDDED
-            );
+        try {
+            ITextRenderer renderer = acquireRenderer();
 
-            renderer.setDocumentFromString(document.html(), null);
-            renderer.layout();
-            renderer.createPDF(outputStream);
+            try {
+                renderer.setDocumentFromString(document.html(), null);
+                renderer.layout();
+                renderer.createPDF(outputStream);
+            } catch (RuntimeException e) {
+                // Состояние рендерера после ошибки не определено, поэтому он не возвращается в пул.
+                throw new PdfConversionException("Ошибка конвертации документа", e);
+            }
 
-            return outputStream.toByteArray();
+            releaseRenderer(renderer);
+        } finally {
+            permits.release();
+        }
+    }
 
-        } catch (IOException e) {
-            throw new PdfConversionException("Ошибка конвертации документа");
+    /**
+     * Метод, возвращающий свободный рендерер из пула. Вызывается с полученным разрешением,
+     * поэтому новый рендерер создается только взамен рендерера, не возвращенного после ошибки.
+     *
+     * @return рендерер.
+     */
+    private ITextRenderer acquireRenderer() {
+        ITextRenderer renderer = renderers.poll();
+
+        return renderer != null ? renderer : createRenderer();
+    }
+
+    private void releaseRenderer(ITextRenderer renderer) {
+        ((ITextUserAgent) renderer.getSharedContext().getUserAgentCallback()).clearImageCache();
+        renderers.add(renderer);
+    }
+
+    private ITextRenderer createRenderer() {
+        ITextRenderer renderer = new ITextRenderer();
+        ITextFontResolver fontResolver = renderer.getFontResolver();
+
+        for (String font : loadedFonts.keySet()) {
+            try {
+                fontResolver.addFont(fontPathOf(font), BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+            } catch (DocumentException | IOException e) {
+                throw new IllegalStateException("Ошибка загрузки шрифта " + font, e);
+            }
         }
+
+        return renderer;
+    }
+
+    private static String fontPathOf(String font) {
+        return String.format("fonts/%s.%s", font, "ttf");
     }
-}
\ No newline at end of file
+}
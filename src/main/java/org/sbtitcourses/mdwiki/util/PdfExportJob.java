@@ -0,0 +1,221 @@
+package org.sbtitcourses.mdwiki.util;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Вспомогательный класс для хранения состояния задачи экспорта документа в PDF формат.
+ */
+public class PdfExportJob {
+
+    /**
+     * ID задачи.
+     */
+    private final String id;
+
+    /**
+     * ID пользователя, создавшего задачу.
+     */
+    private final int ownerId;
+
+    /**
+     * ID пространства.
+     */
+    private final int spaceId;
+
+    /**
+     * ID страницы.
+     */
+    private final int pageId;
+
+    /**
+     * Название документа.
+     */
+    private final String documentName;
+
+    /**
+     * Тег версии документа для условных HTTP запросов.
+     */
+    private final String eTag;
+
+    /**
+     * Объект, завершающийся по окончании выполнения задачи.
+     */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    /**
+     * Состояние задачи.
+     */
+    private volatile Status status = Status.QUEUED;
+
+    /**
+     * Файл с результатом конвертации.
+     */
+    private volatile Path result;
+
+    /**
+     * Время завершения задачи.
+     */
+    private volatile Instant completedAt;
+
+    /**
+     * Количество загрузок результата, выполняющихся в данный момент.
+     */
+    private int readers;
+
+    /**
+     * Удалена ли задача. Результат удаленной задачи больше не выдается для загрузки.
+     */
+    private boolean removed;
+
+    /**
+     * Конструктор для создания объекта класса.
+     *
+     * @param id           ID задачи.
+     * @param ownerId      ID пользователя, создавшего задачу.
+     * @param spaceId      ID пространства.
+     * @param pageId       ID страницы.
+     * @param documentName название документа.
+     * @param eTag         тег версии документа для условных HTTP запросов.
+     */
+    public PdfExportJob(String id, int ownerId, int spaceId, int pageId, String documentName, String eTag) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.spaceId = spaceId;
+        this.pageId = pageId;
+        this.documentName = documentName;
+        this.eTag = eTag;
+    }
+
+    /**
+     * Отметить задачу как выполняющуюся.
+     */
+    public void start() {
+        status = Status.RUNNING;
+    }
+
+    /**
+     * Отметить задачу как успешно завершенную.
+     *
+     * @param result файл с результатом конвертации.
+     */
+    public void succeed(Path result) {
+        this.result = result;
+        finish(Status.DONE);
+    }
+
+    /**
+     * Отметить задачу как завершенную с ошибкой.
+     */
+    public void fail() {
+        finish(Status.FAILED);
+    }
+
+    /**
+     * Закрепить результат задачи на время его загрузки.
+     *
+     * @return true - если результат закреплен, false - если задача уже удалена.
+     */
+    public synchronized boolean pin() {
+        if (removed) {
+            return false;
+        }
+
+        readers++;
+        return true;
+    }
+
+    /**
+     * Снять закрепление результата задачи после окончания его загрузки.
+     *
+     * @return true - если задача удалена и результат больше никем не загружается.
+     */
+    public synchronized boolean unpin() {
+        readers--;
+
+        return removed && readers == 0;
+    }
+
+    /**
+     * Отметить задачу как удаленную.
+     *
+     * @return true - если результат задачи никем не загружается и его можно удалить сразу.
+     */
+    public synchronized boolean remove() {
+        removed = true;
+
+        return readers == 0;
+    }
+
+    /**
+     * @param now текущее время.
+     * @param ttl время хранения результата завершенной задачи.
+     * @return true - если задача завершена и время хранения ее результата истекло.
+     */
+    public boolean isExpired(Instant now, Duration ttl) {
+        Instant completedAt = this.completedAt;
+
+        return completedAt != null && completedAt.plus(ttl).isBefore(now);
+    }
+
+    /**
+     * @return true - если задача завершена успешно или с ошибкой.
+     */
+    public boolean isFinished() {
+        return completion.isDone();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    public int getSpaceId() {
+        return spaceId;
+    }
+
+    public int getPageId() {
+        return pageId;
+    }
+
+    public String getDocumentName() {
+        return documentName;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Path getResult() {
+        return result;
+    }
+
+    private void finish(Status status) {
+        this.status = status;
+        this.completedAt = Instant.now();
+        completion.complete(null);
+    }
+
+    /**
+     * Состояние задачи экспорта.
+     */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+}
@@ -0,0 +1,127 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.sbtitcourses.mdwiki.model.Person;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Компонент для кэширования аутентифицированных пользователей.
+ * Пользователь хранится в атрибутах текущего HTTP запроса и в общем кэше
+ * с ограниченным временем жизни записей, поэтому повторные запросы пользователя
+ * не обращаются к базе данных.
+ */
+@Component
+public class PersonCache {
+
+    /**
+     * Название атрибута HTTP запроса с пользователем.
+     */
+    private static final String REQUEST_ATTRIBUTE = PersonCache.class.getName() + ".person";
+
+    /**
+     * Пользователи по их ID.
+     */
+    private final LruCache<Integer, CachedPerson> cache;
+
+    /**
+     * Время жизни записи кэша в наносекундах.
+     */
+    private final long ttl;
+
+    /**
+     * Счетчик сбросов записей кэша. Пользователь, загруженный до сброса, не сохраняется в кэш,
+     * потому что он мог быть прочитан до фиксации изменений.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Конструктор для автоматического внедрения зависимостей.
+     *
+     * @param size максимальное количество пользователей в кэше.
+     * @param ttl  время жизни записи кэша.
+     */
+    @Autowired
+    public PersonCache(@Value("${person.cache.size}") int size,
+                       @Value("${person.cache.ttl}") Duration ttl) {
+        this.cache = new LruCache<>(size, person -> 1);
+        this.ttl = ttl.toNanos();
+    }
+
+    /**
+     * Метод, возвращающий пользователя из кэша или загружающий его, если в кэше его нет.
+     *
+     * @param id     ID пользователя.
+     * @param loader функция загрузки пользователя по ID.
+     * @return найденного пользователя.
+     */
+    public Person get(int id, IntFunction<Person> loader) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Person person = (Person) request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (person != null && person.getId() == id) {
+                return person;
+            }
+        }
+
+        CachedPerson cached = cache.get(id);
+        Person person;
+        if (cached != null && System.nanoTime() - cached.loadedAt < ttl) {
+            person = cached.person;
+        } else {
+            long evictionCount = evictions.get();
+            long loadedAt = System.nanoTime();
+            person = loader.apply(id);
+            if (evictions.get() == evictionCount) {
+                cache.put(id, new CachedPerson(person, loadedAt));
+            }
+        }
+
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, person, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return person;
+    }
+
+    /**
+     * Метод, сбрасывающий запись пользователя сразу и после фиксации текущей транзакции.
+     *
+     * @param id ID пользователя.
+     */
+    public void evict(int id) {
+        remove(id);
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.removeAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        TransactionHooks.afterCommit(() -> remove(id));
+    }
+
+    private void remove(int id) {
+        evictions.incrementAndGet();
+        cache.remove(id);
+    }
+
+    /**
+     * Запись кэша с пользователем и временем его загрузки.
+     */
+    private static class CachedPerson {
+
+        private final Person person;
+        private final long loadedAt;
+
+        private CachedPerson(Person person, long loadedAt) {
+            this.person = person;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
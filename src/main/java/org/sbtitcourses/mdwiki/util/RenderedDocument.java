@@ -0,0 +1,36 @@
+package org.sbtitcourses.mdwiki.util;
+
+/**
+ * Вспомогательный класс для хранения документа, сконвертированного в HTML.
+ */
+public class RenderedDocument {
+
+    /**
+     * HTML документа.
+     */
+    private final String html;
+
+    /**
+     * Тег версии документа для условных HTTP запросов.
+     */
+    private final String eTag;
+
+    /**
+     * Конструктор для создания объекта класса.
+     *
+     * @param html HTML документа.
+     * @param eTag тег версии документа для условных HTTP запросов.
+     */
+    public RenderedDocument(String html, String eTag) {
+        this.html = html;
+        this.eTag = eTag;
+    }
+
+    public String getHtml() {
+        return html;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+}
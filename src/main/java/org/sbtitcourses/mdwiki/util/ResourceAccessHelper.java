@@ -8,6 +8,8 @@ import org.sbtitcourses.mdwiki.model.Space;
 /**
  * Вспомогательный класс, содержащий методы
  * для проверки доступа пользователя к ресурсам.
+ * Проверки сравнивают поля уже загруженных сущностей и не кэшируются:
+ * кэшированное решение могло бы пережить отзыв публичного доступа.
  */
 public final class ResourceAccessHelper {
 
@@ -91,8 +93,8 @@ public final class ResourceAccessHelper {
     /**
      * Метод, проверяющий запрещен ли пользователю доступ к чтению страницы.
      * Доступ разрешен, если пользователь - владелец этой страницы,
-     * или пространство является публичным, при условии, что разрешен доступ
-     * к чтению её страницы-родителя.
+     * или пространство, страница и все её страницы-родители являются публичными.
+     * Публичность страниц-родителей хранится в самой странице, поэтому они не загружаются.
      *
      * @param page страница, доступ к которой нужно проверить.
      * @param user пользователь, для которого проверяется доступ.
@@ -103,23 +105,7 @@ public final class ResourceAccessHelper {
             return false;
         }
 
-        return !page.isShared() || isAccessToReadParentPagesDenied(page);
-    }
-
-    /**
-     * Метод, рекурсиво проверяющий запрещен ли пользователю доступ к чтению страниц-родителей.
-     * Доступ разрешен, если в дереве нет приватных страниц
-     * и пространство, в котором находятся страницы, является публичным.
-     *
-     * @param page страница, доступ к которой нужно проверить.
-     * @return true - если доспут запрещен, false - если разрешен.
-     */
-    private static boolean isAccessToReadParentPagesDenied(Page page) {
-        if (page.getParent() == null) {
-            return !page.isShared() || !page.getSpace().isShared();
-        }
-
-        return !page.isShared() || isAccessToReadParentPagesDenied(page.getParent());
+        return !page.isEffectivelyShared() || !page.getSpace().isShared();
     }
 
     /**
@@ -0,0 +1,242 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Компонент для кэширования на диске превью изображений произвольного размера и формата.
+ * Превью создается при первом запросе, а давно не использованные превью удаляются,
+ * когда их суммарный размер превышает размер кэша. Одновременные запросы одного превью
+ * ожидают его создания одним потоком, а количество одновременно создаваемых превью ограничено.
+ */
+@Component
+public class ThumbnailVariantCache {
+
+    /**
+     * Поддиректория настроенной директории, которой кэш владеет целиком.
+     */
+    private static final String SUBDIRECTORY = "mdwiki-thumbnails";
+
+    /**
+     * Записанные превью по их ключам.
+     */
+    private final LruCache<String, Variant> entries;
+
+    /**
+     * Директория для хранения превью.
+     */
+    private final Path directory;
+
+    /**
+     * Максимальный объем превью на диске.
+     */
+    private final long size;
+
+    /**
+     * Номер последней записи превью. Каждая запись получает собственный файл,
+     * поэтому вытеснение старой записи не удаляет файл, записанный после нее с тем же ключом.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Разрешения на создание превью.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Создаваемые превью по их ключам.
+     */
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор для автоматического внедрения зависимостей.
+     *
+     * @param directory   директория, в поддиректории которой хранятся превью.
+     * @param size        максимальный объем превью на диске.
+     * @param concurrency максимальное количество одновременно создаваемых превью.
+     * @throws UncheckedIOException если не удалось подготовить директорию кэша.
+     */
+    @Autowired
+    public ThumbnailVariantCache(@Value("${file.variant-cache.directory}") String directory,
+                                 @Value("${file.variant-cache.size}") DataSize size,
+                                 @Value("${file.variant-cache.concurrency}") int concurrency) {
+        // Очищается только собственная поддиректория, а не директория из конфигурации.
+        this.directory = Path.of(directory).resolve(SUBDIRECTORY);
+        this.size = size.toBytes();
+        this.entries = new LruCache<>(this.size, variant -> variant.size, (key, variant) -> deleteFile(variant.file));
+        this.permits = new Semaphore(concurrency);
+
+        try {
+            FileSystemUtils.deleteRecursively(this.directory);
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка создания директории для кэша превью", e);
+        }
+    }
+
+    /**
+     * Метод, возвращающий файл превью из кэша или создающий его.
+     * Превью записывается во временный файл и переименовывается после записи,
+     * поэтому другие потоки не видят частично записанных превью.
+     * Превью, файл которого был удален с диска, создается заново.
+     *
+     * @param key    ключ превью, допустимый в качестве имени файла.
+     * @param writer функция, записывающая превью в файл.
+     * @return путь к файлу превью.
+     * @throws UncheckedIOException если не удалось записать превью.
+     * @throws RuntimeException     если функция записи превью выбросила исключение.
+     */
+    public Path get(String key, Writer writer) {
+        Variant cached = entries.get(key);
+
+        if (cached != null && Files.exists(cached.file)) {
+            return cached.file;
+        }
+
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(key, created);
+
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        try {
+            Path target = getOrWrite(key, writer);
+            created.complete(target);
+
+            return target;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * @return количество превью в кэше.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private Path getOrWrite(String key, Writer writer) {
+        // Записи с этим ключом меняет только поток, создающий превью, поэтому удаление
+        // записи без файла не может удалить превью, записанное другим потоком.
+        Variant cached = entries.get(key);
+
+        if (cached != null) {
+            if (Files.exists(cached.file)) {
+                return cached.file;
+            }
+            entries.remove(key);
+        }
+
+        return write(key, writer);
+    }
+
+    private Path write(String key, Writer writer) {
+        Path temporary = null;
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException("Ошибка создания превью", new InterruptedIOException());
+        }
+
+        try {
+            temporary = Files.createTempFile(directory, key, ".tmp");
+            writer.write(temporary);
+
+            long fileSize = Files.size(temporary);
+            // Превью больше кэша не сохраняется в нем и перезаписывается при следующем запросе
+            // в единственный файл для своего ключа.
+            Path target = pathOf(fileSize > size ? 0 : generation.incrementAndGet(), key);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (fileSize <= size) {
+                entries.put(key, new Variant(target, fileSize));
+            }
+
+            return target;
+        } catch (IOException e) {
+            deleteFile(temporary);
+            throw new UncheckedIOException("Ошибка создания превью", e);
+        } catch (RuntimeException e) {
+            deleteFile(temporary);
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void deleteFile(Path file) {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Директория кэша очищается при запуске.
+        }
+    }
+
+    private Path pathOf(long generation, String key) {
+        return directory.resolve(generation + "-" + key);
+    }
+
+    /**
+     * Файл записанного превью и его размер.
+     */
+    private static class Variant {
+
+        /**
+         * Файл превью.
+         */
+        private final Path file;
+
+        /**
+         * Размер файла превью.
+         */
+        private final long size;
+
+        private Variant(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Функция, записывающая превью в файл.
+     */
+    @FunctionalInterface
+    public interface Writer {
+
+        /**
+         * @param target файл, в который записывается превью.
+         * @throws IOException если не удалось записать превью.
+         */
+        void write(Path target) throws IOException;
+    }
+}
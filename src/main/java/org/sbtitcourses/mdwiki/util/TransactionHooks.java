@@ -0,0 +1,75 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Вспомогательный класс для выполнения действий после завершения транзакции.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * Метод, откладывающий действие до фиксации текущей транзакции,
+     * чтобы кэши не содержали изменений отмененных транзакций.
+     * Вне транзакции действие выполняется сразу.
+     *
+     * @param action действие.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Метод, откладывающий действие до завершения текущей транзакции фиксацией или откатом.
+     * Вне транзакции действие выполняется сразу.
+     *
+     * @param action действие.
+     */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Метод, откладывающий действие до отката текущей транзакции.
+     * Вне транзакции откатывать нечего, поэтому действие не выполняется.
+     *
+     * @param action действие.
+     */
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
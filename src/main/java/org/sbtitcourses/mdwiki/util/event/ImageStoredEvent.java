@@ -0,0 +1,20 @@
+package org.sbtitcourses.mdwiki.util.event;
+
+/**
+ * Событие записи изображения, для которого нужно создать превью.
+ */
+public class ImageStoredEvent {
+
+    /**
+     * ID записанного файла.
+     */
+    private final int fileId;
+
+    public ImageStoredEvent(int fileId) {
+        this.fileId = fileId;
+    }
+
+    public int getFileId() {
+        return fileId;
+    }
+}
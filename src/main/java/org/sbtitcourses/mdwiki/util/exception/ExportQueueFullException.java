@@ -0,0 +1,21 @@
+package org.sbtitcourses.mdwiki.util.exception;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Исключение "очередь экспорта переполнена".
+ */
+@ResponseStatus(SERVICE_UNAVAILABLE)
+public class ExportQueueFullException extends RuntimeException {
+
+    public ExportQueueFullException(String message) {
+        super(message);
+    }
+
+    @Override
+    public String getMessage() {
+        return super.getMessage();
+    }
+}
\ No newline at end of file
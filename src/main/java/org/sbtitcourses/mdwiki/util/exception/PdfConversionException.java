@@ -14,6 +14,10 @@ public class PdfConversionException extends RuntimeException {
         super(message);
     }
 
+    public PdfConversionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
     @Override
     public String getMessage() {
         return super.getMessage();
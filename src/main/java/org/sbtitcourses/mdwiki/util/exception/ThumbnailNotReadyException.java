@@ -0,0 +1,21 @@
+package org.sbtitcourses.mdwiki.util.exception;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.springframework.http.HttpStatus.ACCEPTED;
+
+/**
+ * Исключение "превью еще не создано".
+ */
+@ResponseStatus(ACCEPTED)
+public class ThumbnailNotReadyException extends RuntimeException {
+
+    public ThumbnailNotReadyException(String message) {
+        super(message);
+    }
+
+    @Override
+    public String getMessage() {
+        return super.getMessage();
+    }
+}
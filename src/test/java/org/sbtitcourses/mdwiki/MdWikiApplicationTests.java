@@ -1,7 +1,19 @@
 package org.sbtitcourses.mdwiki;
 
+import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+/**
+ * Тест запуска контекста приложения с основной конфигурацией
+ */
+@SpringBootTest(properties = {
+        "spring.config.location=file:src/main/resources/application.yml,classpath:application.yml",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.session.store-type=none"
+})
 class MdWikiApplicationTests {
+
+    @Test
+    public void contextLoads() {
+    }
 }
@@ -0,0 +1,181 @@
+package org.sbtitcourses.mdwiki;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sbtitcourses.mdwiki.model.Document;
+import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.DocumentRepository;
+import org.sbtitcourses.mdwiki.repository.PageRepository;
+import org.sbtitcourses.mdwiki.repository.PersonRepository;
+import org.sbtitcourses.mdwiki.repository.SpaceRepository;
+import org.sbtitcourses.mdwiki.security.PersonDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тест количества SQL запросов, выполняемых при обработке HTTP запросов
+ */
+@SpringBootTest(properties = {
+        "spring.config.location=file:src/main/resources/application.yml,classpath:application.yml",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.session.store-type=none",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class QueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private PersonRepository personRepository;
+    @Autowired
+    private SpaceRepository spaceRepository;
+    @Autowired
+    private PageRepository pageRepository;
+    @Autowired
+    private DocumentRepository documentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Person owner;
+    private Person notOwner;
+    private Space space;
+    private Page page;
+    private Page subpage;
+
+    @BeforeEach
+    public void setUp() {
+        owner = personRepository.save(person("owner"));
+        notOwner = personRepository.save(person("notOwner"));
+        space = spaceRepository.save(Space.builder()
+                .name("testName")
+                .owner(owner)
+                .shared(true)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build());
+        page = pageRepository.save(page("pageName", null));
+        subpage = pageRepository.save(page("subpageName", page));
+        documentRepository.save(Document.builder().text("# testText").page(subpage).build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        personRepository.deleteAll();
+    }
+
+    @Test
+    public void documentReadShouldTakeOneQuery() throws Exception {
+        String path = "/spaces/{spaceId}/pages/{pageId}/document";
+
+        assertQueryCount(1, get(path, space.getId(), subpage.getId()).with(user(new PersonDetails(owner))));
+        assertQueryCount(1, get(path, space.getId(), subpage.getId()).with(user(new PersonDetails(owner))));
+        assertQueryCount(1, get(path + "/html", space.getId(), subpage.getId()).with(user(new PersonDetails(owner))));
+    }
+
+    @Test
+    public void sharedDocumentReadShouldNotLoadParentPages() throws Exception {
+        String path = "/spaces/{spaceId}/pages/{pageId}/document";
+
+        assertQueryCount(2, get(path, space.getId(), subpage.getId()).with(user(new PersonDetails(notOwner))));
+    }
+
+    @Test
+    public void pageReadShouldLoadSubpages() throws Exception {
+        String path = "/spaces/{spaceId}/pages/{pageId}";
+
+        assertQueryCount(4, get(path, space.getId(), page.getId()).with(user(new PersonDetails(owner))));
+    }
+
+    @Test
+    public void pageListShouldLoadSubtreeInOneQuery() throws Exception {
+        pageRepository.save(page("nestedSubpageName", subpage));
+        String path = "/spaces/{spaceId}/pages";
+
+        assertQueryCount(3, get(path, space.getId()).param("bunch", "0").param("size", "10")
+                .with(user(new PersonDetails(owner))))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("pageName"))
+                .andExpect(jsonPath("$[0].subpages[0].name").value("subpageName"))
+                .andExpect(jsonPath("$[0].subpages[0].subpages[0].name").value("nestedSubpageName"))
+                .andExpect(jsonPath("$[0].subpages[0].subpages[0].subpages").isEmpty());
+    }
+
+    @Test
+    public void pageTreeShouldLoadSubtreeInOneQuery() throws Exception {
+        pageRepository.save(page("nestedSubpageName", subpage));
+        String path = "/spaces/{spaceId}/pages/{pageId}/tree";
+
+        assertQueryCount(3, get(path, space.getId(), page.getId()).param("depth", "1")
+                .with(user(new PersonDetails(owner))))
+                .andExpect(jsonPath("$.root.name").value("pageName"))
+                .andExpect(jsonPath("$.root.subpages[0].name").value("subpageName"))
+                .andExpect(jsonPath("$.root.subpages[0].subpages").isEmpty())
+                .andExpect(jsonPath("$.descendantCount").value(2));
+    }
+
+    @Test
+    public void pageSearchShouldLoadParentsInOneQuery() throws Exception {
+        pageRepository.save(page("subpageNested", subpage));
+
+        assertQueryCount(3, get("/pages/{searchPage}", "subpage").with(user(new PersonDetails(owner))))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("subpageNested"))
+                .andExpect(jsonPath("$[1].spaceName").value("testName"))
+                .andExpect(jsonPath("$[1].parent.name").value("subpageName"))
+                .andExpect(jsonPath("$[1].parent.parent.name").value("pageName"))
+                .andExpect(jsonPath("$[1].parent.parent.spaceId").value(space.getId()))
+                .andExpect(jsonPath("$[1].parent.parent.parent").doesNotExist());
+    }
+
+    private ResultActions assertQueryCount(long expected, MockHttpServletRequestBuilder request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ResultActions result = mockMvc.perform(request).andExpect(status().isOk());
+
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+
+    private static Person person(String username) {
+        return Person.builder()
+                .username(username)
+                .password("testPassword")
+                .name("testName")
+                .email(username + "@test.test")
+                .role("ROLE_USER")
+                .enabled(true)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+    }
+
+    private Page page(String name, Page parent) {
+        return Page.builder()
+                .name(name)
+                .space(space)
+                .parent(parent)
+                .shared(true)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package org.sbtitcourses.mdwiki.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.sbtitcourses.mdwiki.dto.page.PlainPageResponse;
+import org.sbtitcourses.mdwiki.dto.person.PersonResponse;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JMH бенчмарк конвертации одного объекта в DTO маппером по умолчанию,
+ * сопоставляющим свойства неявно, и маппером с зарегистрированными конвертерами.
+ * Страница представлена проекцией Spring Data, как в ответах списков страниц:
+ * mvn test -Dtest=ModelMapperBenchmarkTests -Dbenchmark.jmh=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModelMapperBenchmarkTests {
+
+    private ModelMapper implicitMapper;
+    private ModelMapper typeMapMapper;
+    private Person person;
+    private PageSummary page;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        person = Person.builder()
+                .id(1)
+                .username("testUsername")
+                .name("testName")
+                .email("testEmail@test.test")
+                .enabled(true)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", 1);
+        columns.put("name", "testName");
+        columns.put("parentId", null);
+        columns.put("createdAt", now);
+        columns.put("updatedAt", now);
+        columns.put("shared", true);
+        page = new SpelAwareProxyProjectionFactory().createProjection(PageSummary.class, columns);
+
+        implicitMapper = new ModelMapper();
+        typeMapMapper = new ModelMapperConfig().modelMapper();
+
+        // Неявные TypeMap создаются при первой конвертации и не должны попадать в измерения.
+        implicitMapper.map(person, PersonResponse.class);
+        implicitMapper.map(page, PlainPageResponse.class);
+    }
+
+    @Benchmark
+    public PersonResponse implicitPerson() {
+        return implicitMapper.map(person, PersonResponse.class);
+    }
+
+    @Benchmark
+    public PersonResponse typeMapPerson() {
+        return typeMapMapper.map(person, PersonResponse.class);
+    }
+
+    @Benchmark
+    public PlainPageResponse implicitPageSummary() {
+        return implicitMapper.map(page, PlainPageResponse.class);
+    }
+
+    @Benchmark
+    public PlainPageResponse typeMapPageSummary() {
+        return typeMapMapper.map(page, PlainPageResponse.class);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.jmh", matches = "true")
+    public void typeMapsShouldMapFasterThanImplicitMatching() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(ModelMapperBenchmarkTests.class.getName() + "\\.")
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+
+        Map<String, Double> scores = new HashMap<>();
+        for (RunResult result : new Runner(options).run()) {
+            scores.put(result.getParams().getBenchmark().replaceAll(".*\\.", ""),
+                    result.getPrimaryResult().getScore());
+        }
+
+        assertTrue(scores.get("typeMapPerson") < scores.get("implicitPerson"));
+        assertTrue(scores.get("typeMapPageSummary") < scores.get("implicitPageSummary"));
+    }
+}
@@ -0,0 +1,107 @@
+package org.sbtitcourses.mdwiki.config;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.sbtitcourses.mdwiki.dto.page.PageResponse;
+import org.sbtitcourses.mdwiki.dto.page.PlainPageResponse;
+import org.sbtitcourses.mdwiki.dto.page.SearchPageResponse;
+import org.sbtitcourses.mdwiki.dto.person.PersonRequest;
+import org.sbtitcourses.mdwiki.dto.space.SpaceResponse;
+import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.projection.PageSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тест для конфигурации маппера
+ */
+class ModelMapperConfigTests {
+
+    private final ModelMapper modelMapper = new ModelMapperConfig().modelMapper();
+    private final Instant now = Instant.now();
+
+    @Test
+    public void mapShouldUseRegisteredTypeMapsForProjections() {
+        int typeMaps = modelMapper.getTypeMaps().size();
+        PageSearchResult result = projection(PageSearchResult.class, Map.of("id", 1, "name", "testName",
+                "parentId", 2, "spaceId", 3, "spaceName", "spaceName", "shared", true));
+
+        SearchPageResponse response = modelMapper.map(result, SearchPageResponse.class);
+
+        assertEquals(typeMaps, modelMapper.getTypeMaps().size());
+        assertEquals(1, response.getId());
+        assertEquals("testName", response.getName());
+        assertEquals(3, response.getSpaceId());
+        assertEquals("spaceName", response.getSpaceName());
+        assertTrue(response.isShared());
+        assertNull(response.getParent());
+    }
+
+    @Test
+    public void mapShouldConvertPageSummary() {
+        PageSummary summary = projection(PageSummary.class, Map.of("id", 1, "name", "testName",
+                "createdAt", now, "updatedAt", now, "shared", true));
+
+        PlainPageResponse plain = modelMapper.map(summary, PlainPageResponse.class);
+        PageResponse response = modelMapper.map(summary, PageResponse.class);
+
+        assertEquals(1, plain.getId());
+        assertEquals(now, plain.getCreatedAt());
+        assertTrue(plain.isShared());
+        assertEquals("testName", response.getName());
+        assertNull(response.getSubpages());
+    }
+
+    @Test
+    public void mapShouldConvertPageWithSubpages() {
+        Page subpage = Page.builder().id(2).name("subpageName").subpages(List.of()).build();
+        Page page = Page.builder().id(1).name("testName").subpages(List.of(subpage)).build();
+
+        PageResponse response = modelMapper.map(page, PageResponse.class);
+
+        assertEquals(1, response.getSubpages().size());
+        assertEquals("subpageName", response.getSubpages().get(0).getName());
+        assertTrue(response.getSubpages().get(0).getSubpages().isEmpty());
+    }
+
+    @Test
+    public void mapShouldConvertSpaceDates() {
+        Space space = Space.builder().id(1).name("testName").shared(true).createdAt(now).build();
+
+        SpaceResponse response = modelMapper.map(space, SpaceResponse.class);
+
+        assertEquals(Date.from(now), response.getCreatedAt());
+        assertNull(response.getUpdatedAt());
+        assertTrue(response.getShared());
+    }
+
+    @Test
+    public void mapShouldConvertRequestToEntity() {
+        PersonRequest request = new PersonRequest();
+        request.setUsername("testUsername");
+        request.setPassword("testPassword");
+        request.setEmail("testEmail@test.test");
+        request.setEnabled(true);
+
+        Person person = modelMapper.map(request, Person.class);
+
+        assertEquals("testUsername", person.getUsername());
+        assertEquals("testPassword", person.getPassword());
+        assertEquals("testEmail@test.test", person.getEmail());
+        assertTrue(person.isEnabled());
+    }
+
+    private static <T> T projection(Class<T> type, Map<String, Object> columns) {
+        return new SpelAwareProxyProjectionFactory().createProjection(type, new HashMap<>(columns));
+    }
+}
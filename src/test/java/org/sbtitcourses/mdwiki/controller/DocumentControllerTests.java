@@ -5,23 +5,33 @@ import org.modelmapper.ModelMapper;
 import org.sbtitcourses.mdwiki.dto.document.DocumentResponse;
 import org.sbtitcourses.mdwiki.model.Document;
 import org.sbtitcourses.mdwiki.service.DocumentService;
+import org.sbtitcourses.mdwiki.util.ConvertedDocument;
+import org.sbtitcourses.mdwiki.util.RenderedDocument;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.sbtitcourses.mdwiki.util.exception.PdfConversionException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * Тест REST контроллера для CRUD операций над сущностью Document
@@ -99,4 +109,71 @@ class DocumentControllerTests {
         verify(documentService).get(2, 2);
         verify(documentService).get(2, 2);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void verifyPdfConditionalRequest() throws Exception {
+        AtomicBoolean written = new AtomicBoolean();
+        when(documentService.convertToPdf(1, 1, "times", 16, false)).thenReturn(new ConvertedDocument(
+                outputStream -> written.set(true), "testName", "testTag"));
+
+        mockMvc.perform(get("/spaces/{spaceId}/pages/{pageId}/document/pdf", 1, 1)
+                .header("If-None-Match", "\"testTag\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"testTag\""));
+
+        assertFalse(written.get());
+    }
+
+    @Test
+    public void verifyPdfStreamingAfterConversion() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(documentService.convertToPdf(1, 1, "times", 16, false)).thenReturn(new ConvertedDocument(
+                () -> new ConvertedDocument.Content() {
+                    @Override
+                    public void writeTo(OutputStream outputStream) throws IOException {
+                        outputStream.write(new byte[]{1, 2, 3});
+                    }
+
+                    @Override
+                    public void close() {
+                        closed.set(true);
+                    }
+                }, "testName", "testTag"));
+
+        MvcResult result = mockMvc.perform(get("/spaces/{spaceId}/pages/{pageId}/document/pdf", 1, 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void verifyPdfConversionFailureBeforeResponse() throws Exception {
+        when(documentService.convertToPdf(1, 1, "times", 16, false)).thenReturn(new ConvertedDocument(() -> {
+            throw new PdfConversionException("Ошибка конвертации документа");
+        }, "testName", "testTag"));
+
+        mockMvc.perform(get("/spaces/{spaceId}/pages/{pageId}/document/pdf", 1, 1))
+                .andExpect(status().isConflict())
+                .andExpect(header().doesNotExist("Content-Disposition"));
+    }
+
+    @Test
+    public void verifyHtmlSerializationAndConditionalRequest() throws Exception {
+        when(documentService.getHtml(1, 1)).thenReturn(new RenderedDocument("<h1>testText</h1>", "testTag"));
+
+        mockMvc.perform(get("/spaces/{spaceId}/pages/{pageId}/document/html", 1, 1))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/html;charset=UTF-8"))
+                .andExpect(header().string("ETag", "\"testTag\""))
+                .andExpect(header().string("Content-Security-Policy", "sandbox"))
+                .andExpect(content().string("<h1>testText</h1>"));
+        mockMvc.perform(get("/spaces/{spaceId}/pages/{pageId}/document/html", 1, 1)
+                .header("If-None-Match", "\"testTag\""))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -1,22 +1,33 @@
 package org.sbtitcourses.mdwiki.controller;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.sbtitcourses.mdwiki.model.StoredFile;
 import org.sbtitcourses.mdwiki.service.ImageStorageService;
+import org.sbtitcourses.mdwiki.util.LoadedFile;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.sbtitcourses.mdwiki.util.exception.ThumbnailNotReadyException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -75,4 +86,94 @@ class FileControllerTests {
         verify(imageStorageService).loadImage("1e9d7290-71c7-4e20-bd88-5cd69f2c4746");
         verify(imageStorageService).loadImage("72a88024-1ac2-4893-8409-eaf697c01a14");
     }
-}
\ No newline at end of file
+
+    @Test
+    void verifyConditionalDownload(@TempDir Path directory) throws Exception {
+        String GUID = "1e9d7290-71c7-4e20-bd88-5cd69f2c4746";
+        when(imageStorageService.loadImage(GUID)).thenReturn(loadedFile(directory, GUID));
+
+        mockMvc.perform(get("/download/image/{GUID}", GUID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + GUID + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(content().bytes(new byte[]{1, 2, 3, 4}));
+        mockMvc.perform(get("/download/image/{GUID}", GUID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + GUID + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void verifyRangeDownload(@TempDir Path directory) throws Exception {
+        String GUID = "1e9d7290-71c7-4e20-bd88-5cd69f2c4746";
+        when(imageStorageService.loadThumbnail(GUID)).thenReturn(loadedFile(directory, GUID));
+
+        mockMvc.perform(get("/download/thumbnail/{GUID}", GUID)
+                        .header(HttpHeaders.RANGE, "bytes=1-2"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-2/4"))
+                .andExpect(content().bytes(new byte[]{2, 3}));
+        mockMvc.perform(get("/download/thumbnail/{GUID}", GUID)
+                        .header(HttpHeaders.RANGE, "bytes=4-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    void verifySendfileDownload(@TempDir Path directory) throws Exception {
+        String GUID = "1e9d7290-71c7-4e20-bd88-5cd69f2c4746";
+        LoadedFile loadedFile = loadedFile(directory, GUID);
+        when(imageStorageService.loadImage(GUID)).thenReturn(loadedFile);
+
+        mockMvc.perform(get("/download/image/{GUID}", GUID)
+                        .requestAttr("org.apache.tomcat.sendfile.support", true)
+                        .header(HttpHeaders.RANGE, "bytes=1-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-3/4"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 3))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename",
+                        loadedFile.getResource().getFile().getAbsolutePath()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 1L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 4L))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void verifyThumbnailNotReady() throws Exception {
+        when(imageStorageService.loadThumbnail("1e9d7290-71c7-4e20-bd88-5cd69f2c4746"))
+                .thenThrow(ThumbnailNotReadyException.class);
+
+        mockMvc.perform(get("/download/thumbnail/{GUID}", "1e9d7290-71c7-4e20-bd88-5cd69f2c4746"))
+                .andExpect(status().isAccepted());
+    }
+
+    @Test
+    void verifyThumbnailVariantDownload(@TempDir Path directory) throws Exception {
+        String GUID = "1e9d7290-71c7-4e20-bd88-5cd69f2c4746";
+        LoadedFile loadedFile = loadedFile(directory, GUID);
+        when(imageStorageService.loadThumbnailVariant(GUID, 64, null, "jpg")).thenReturn(new LoadedFile(
+                loadedFile.getStoredFile(), loadedFile.getResource(), MediaType.IMAGE_JPEG_VALUE, "\"variant\""));
+
+        mockMvc.perform(get("/download/thumbnail/{GUID}", GUID)
+                        .param("w", "64")
+                        .param("format", "jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"variant\""));
+        mockMvc.perform(get("/download/thumbnail/{GUID}", GUID)
+                        .param("w", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/download/thumbnail/{GUID}", GUID)
+                        .param("format", "tiff"))
+                .andExpect(status().isBadRequest());
+
+        verify(imageStorageService).loadThumbnailVariant(GUID, 64, null, "jpg");
+    }
+
+    private static LoadedFile loadedFile(Path directory, String GUID) throws Exception {
+        Path image = Files.write(directory.resolve(GUID + ".png"), new byte[]{1, 2, 3, 4});
+        StoredFile storedFile = new StoredFile(GUID, "image.png", MediaType.IMAGE_PNG_VALUE, 4, null, null);
+
+        return new LoadedFile(storedFile, new FileSystemResource(image));
+    }
+}
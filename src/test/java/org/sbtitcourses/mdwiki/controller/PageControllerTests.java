@@ -4,7 +4,10 @@ import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
 import org.sbtitcourses.mdwiki.dto.page.PageResponse;
 import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
 import org.sbtitcourses.mdwiki.service.PageService;
+import org.sbtitcourses.mdwiki.util.PageForest;
+import org.sbtitcourses.mdwiki.util.PageTree;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,10 +18,13 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -87,6 +93,60 @@ class PageControllerTests {
         verify(modelMapper).map(page, PageResponse.class);
     }
 
+    @Test
+    public void verifyPageListAssembly() throws Exception {
+        PageSummary root = mock(PageSummary.class);
+        PageSummary subpage = mock(PageSummary.class);
+        when(root.getId()).thenReturn(1);
+        when(subpage.getId()).thenReturn(2);
+        when(subpage.getParentId()).thenReturn(1);
+        PageResponse rootResponse = new PageResponse();
+        rootResponse.setName("rootName");
+        PageResponse subpageResponse = new PageResponse();
+        subpageResponse.setName("subpageName");
+
+        when(pageService.getWithDescendants(1, 0, 10)).thenReturn(new PageForest(List.of(root), List.of(subpage)));
+        when(modelMapper.map(root, PageResponse.class)).thenReturn(rootResponse);
+        when(modelMapper.map(subpage, PageResponse.class)).thenReturn(subpageResponse);
+
+        mockMvc.perform(get("/spaces/{spaceId}/pages", 1).param("bunch", "0").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("rootName"))
+                .andExpect(jsonPath("$[0].subpages[0].name").value("subpageName"));
+
+        verify(pageService).getWithDescendants(1, 0, 10);
+        verifyNoMoreInteractions(pageService);
+    }
+
+    @Test
+    public void verifyTreeAssembly() throws Exception {
+        PageSummary root = mock(PageSummary.class);
+        PageSummary subpage = mock(PageSummary.class);
+        when(root.getId()).thenReturn(1);
+        when(subpage.getId()).thenReturn(2);
+        when(subpage.getParentId()).thenReturn(1);
+        PageResponse rootResponse = new PageResponse();
+        rootResponse.setName("rootName");
+        PageResponse subpageResponse = new PageResponse();
+        subpageResponse.setName("subpageName");
+
+        when(pageService.getTree(1, 1, 2)).thenReturn(new PageTree(List.of(root, subpage), 5));
+        when(modelMapper.map(root, PageResponse.class)).thenReturn(rootResponse);
+        when(modelMapper.map(subpage, PageResponse.class)).thenReturn(subpageResponse);
+
+        mockMvc.perform(get("/spaces/{spaceId}/pages/{pageId}/tree", 1, 1).param("depth", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.root.name").value("rootName"))
+                .andExpect(jsonPath("$.root.subpages[0].name").value("subpageName"))
+                .andExpect(jsonPath("$.depth").value(2))
+                .andExpect(jsonPath("$.descendantCount").value(5));
+        mockMvc.perform(get("/spaces/{spaceId}/pages/{pageId}/tree", 1, 1).param("depth", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verify(pageService).getTree(1, 1, 2);
+    }
+
     @Test
     public void verifyErrorHandling() throws Exception {
         when(pageService.get(1, 1)).thenThrow(new ElementNotFoundException("Пространство не найдено"));
@@ -0,0 +1,83 @@
+package org.sbtitcourses.mdwiki.controller;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.sbtitcourses.mdwiki.service.PdfExportJobService;
+import org.sbtitcourses.mdwiki.util.PdfExportJob;
+import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.sbtitcourses.mdwiki.util.exception.ExportQueueFullException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Тест REST контроллера для фонового экспорта документов в PDF формат
+ */
+@WebMvcTest(PdfExportJobController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(ModelMapper.class)
+class PdfExportJobControllerTests {
+
+    @MockBean
+    private PdfExportJobService pdfExportJobService;
+    @Autowired
+    private MockMvc mockMvc;
+    private final PdfExportJob job = new PdfExportJob("testId", 1, 1, 1, "testName", "testTag");
+
+    @Test
+    public void verifyHttpRequestMappingAndSerialization() throws Exception {
+        when(pdfExportJobService.submit(1, 1, "times", 16, true)).thenReturn(job);
+
+        mockMvc.perform(post("/spaces/{spaceId}/pages/{pageId}/document/pdf/jobs", 1, 1)
+                .param("tree", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location",
+                        "http://localhost/spaces/1/pages/1/document/pdf/jobs/testId"))
+                .andExpect(jsonPath("$.id").value("testId"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        verify(pdfExportJobService).submit(1, 1, "times", 16, true);
+    }
+
+    @Test
+    public void verifyLongPollingReturnsStatusAfterCompletion() throws Exception {
+        when(pdfExportJobService.get(1, 1, "testId")).thenReturn(job);
+
+        MvcResult result = mockMvc.perform(get("/spaces/{spaceId}/pages/{pageId}/document/pdf/jobs/{jobId}",
+                        1, 1, "testId")
+                .param("wait", "30"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        job.fail();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("FAILED"));
+    }
+
+    @Test
+    public void verifyErrorHandling() throws Exception {
+        when(pdfExportJobService.submit(1, 1, "times", 16, false))
+                .thenThrow(new ExportQueueFullException("Очередь экспорта переполнена"));
+        when(pdfExportJobService.getResult(1, 1, "testId"))
+                .thenThrow(new ElementNotFoundException("Задача не найдена"));
+
+        mockMvc.perform(post("/spaces/{spaceId}/pages/{pageId}/document/pdf/jobs", 1, 1))
+                .andExpect(status().isServiceUnavailable());
+        mockMvc.perform(get("/spaces/{spaceId}/pages/{pageId}/document/pdf/jobs/{jobId}/result",
+                        1, 1, "testId"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,136 @@
+package org.sbtitcourses.mdwiki.controller;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.sbtitcourses.mdwiki.dto.document.DocumentSearchResponse;
+import org.sbtitcourses.mdwiki.dto.page.PageCompletionResponse;
+import org.sbtitcourses.mdwiki.dto.page.SearchPageResponse;
+import org.sbtitcourses.mdwiki.repository.projection.DocumentSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+import org.sbtitcourses.mdwiki.service.DocumentService;
+import org.sbtitcourses.mdwiki.service.PageAutocompleteService;
+import org.sbtitcourses.mdwiki.service.PageService;
+import org.sbtitcourses.mdwiki.util.PageCompletion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Тест REST контроллера для поиска страниц
+ */
+@WebMvcTest(SearchController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class SearchControllerTests {
+
+    @MockBean
+    private PageService pageService;
+    @MockBean
+    private DocumentService documentService;
+    @MockBean
+    private PageAutocompleteService pageAutocompleteService;
+    @MockBean
+    private ModelMapper modelMapper;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void verifyPageSearchModes() throws Exception {
+        PageSearchResult page = mock(PageSearchResult.class);
+        PageSummary parent = mock(PageSummary.class);
+        when(page.getParentId()).thenReturn(3);
+        when(page.getSpaceId()).thenReturn(2);
+        when(page.getSpaceName()).thenReturn("spaceName");
+        SearchPageResponse response = new SearchPageResponse();
+        response.setId(1);
+        response.setSpaceId(2);
+        response.setSpaceName("spaceName");
+        SearchPageResponse parentResponse = new SearchPageResponse();
+        parentResponse.setId(3);
+
+        when(pageService.get("testName")).thenReturn(List.of(page));
+        when(pageService.search("testName", 5)).thenReturn(List.of(page));
+        when(pageService.getAncestors(List.of(page))).thenReturn(Map.of(3, parent));
+        when(modelMapper.map(page, SearchPageResponse.class)).thenReturn(response);
+        when(modelMapper.map(parent, SearchPageResponse.class)).thenReturn(parentResponse);
+
+        mockMvc.perform(get("/pages/{searchPage}", "testName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].spaceName").value("spaceName"))
+                .andExpect(jsonPath("$[0].parent.id").value(3))
+                .andExpect(jsonPath("$[0].parent.spaceName").value("spaceName"));
+        mockMvc.perform(get("/pages/{searchPage}", "testName")
+                .param("mode", "fuzzy")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].spaceId").value(2));
+        mockMvc.perform(get("/pages/{searchPage}", "testName")
+                .param("mode", "unknown"))
+                .andExpect(status().isBadRequest());
+
+        verify(pageService).get("testName");
+        verify(pageService).search("testName", 5);
+    }
+
+    @Test
+    public void verifyAutocompleteSerialization() throws Exception {
+        PageCompletion completion = new PageCompletion(1, "testName", 2, null);
+        PageCompletionResponse response = new PageCompletionResponse();
+        response.setId(1);
+        response.setName("testName");
+        response.setSpaceId(2);
+
+        when(pageAutocompleteService.complete("test", 5)).thenReturn(List.of(completion));
+        when(modelMapper.map(completion, PageCompletionResponse.class)).thenReturn(response);
+
+        mockMvc.perform(get("/pages/autocomplete/{prefix}", "test")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("testName"))
+                .andExpect(jsonPath("$[0].spaceId").value(2));
+
+        verify(pageAutocompleteService).complete("test", 5);
+    }
+
+    @Test
+    public void verifyTextSearchSerialization() throws Exception {
+        DocumentSearchResult result = mock(DocumentSearchResult.class);
+        DocumentSearchResponse response = new DocumentSearchResponse();
+        response.setPageId(1);
+        response.setSnippet("**testText**");
+
+        when(documentService.search("testText", 0, 10)).thenReturn(List.of(result));
+        when(modelMapper.map(result, DocumentSearchResponse.class)).thenReturn(response);
+
+        mockMvc.perform(get("/pages")
+                .param("query", "testText")
+                .param("bunch", "0")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].pageId").value(1))
+                .andExpect(jsonPath("$[0].snippet").value("**testText**"));
+
+        verify(documentService).search("testText", 0, 10);
+    }
+
+    @Test
+    public void verifyTextSearchValidation() throws Exception {
+        mockMvc.perform(get("/pages")
+                .param("query", "testText")
+                .param("bunch", "0")
+                .param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(documentService);
+    }
+}
@@ -4,7 +4,9 @@ import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
 import org.sbtitcourses.mdwiki.dto.space.SpaceResponse;
 import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.projection.SpaceSummary;
 import org.sbtitcourses.mdwiki.service.SpaceService;
+import org.sbtitcourses.mdwiki.util.Cursors;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,13 +17,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Date;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -100,4 +105,28 @@ class SpaceControllerTests {
         verify(spaceService).get(1);
         verify(spaceService).get(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void verifyCursorPagination() throws Exception {
+        SpaceSummary first = mock(SpaceSummary.class);
+        SpaceSummary second = mock(SpaceSummary.class);
+        when(first.getId()).thenReturn(3);
+        when(second.getId()).thenReturn(7);
+
+        when(spaceService.getAfter(3, 2)).thenReturn(List.of(first, second));
+        when(modelMapper.map(any(), eq(SpaceResponse.class))).thenReturn(new SpaceResponse());
+
+        mockMvc.perform(get("/spaces")
+                        .param("cursor", Cursors.encode(3))
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string(Cursors.NEXT_CURSOR_HEADER, Cursors.encode(7)));
+        mockMvc.perform(get("/spaces")
+                        .param("cursor", "not-a-cursor")
+                        .param("size", "2"))
+                .andExpect(status().isBadRequest());
+
+        verify(spaceService).getAfter(3, 2);
+    }
+}
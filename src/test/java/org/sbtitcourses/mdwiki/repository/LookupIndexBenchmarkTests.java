@@ -0,0 +1,207 @@
+package org.sbtitcourses.mdwiki.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.model.Space;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Бенчмарк поиска по индексируемым столбцам на миллионе страниц в PostgreSQL.
+ * Время поиска измеряется с индексами и после их удаления в транзакции, которая затем откатывается.
+ * Данные удаляются после завершения, но для запуска лучше использовать отдельную базу данных:
+ * mvn test -Dtest=LookupIndexBenchmarkTests -Dbenchmark.url=jdbc:postgresql://localhost:5432/mdwiki_bench
+ * -Dbenchmark.username=postgres -Dbenchmark.password=postgres
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=${benchmark.url}",
+        "spring.datasource.username=${benchmark.username}",
+        "spring.datasource.password=${benchmark.password}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfSystemProperty(named = "benchmark.url", matches = ".+")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LookupIndexBenchmarkTests {
+
+    private static final int SPACES = 1000;
+    private static final int PAGES = 1_000_000;
+    private static final int FILES = 100_000;
+    private static final int LOOKUPS = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(LookupIndexBenchmarkTests.class);
+
+    /**
+     * Индексы, используемые при поиске.
+     */
+    private static final List<String> INDEXES = List.of(
+            "pages_space_id_name_key",
+            "pages_parent_id_idx",
+            "pages_space_id_parent_id_id_idx",
+            "spaces_owner_id_name_key",
+            "spaces_owner_id_id_idx",
+            "documents_page_id_key",
+            "files_guid_key",
+            "files_space_id_idx",
+            "files_owner_id_id_idx");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PageRepository pageRepository;
+    private final SpaceRepository spaceRepository;
+    private final DocumentRepository documentRepository;
+    private final StoredFileRepository storedFileRepository;
+    private int ownerId;
+    private int firstSpaceId;
+    private int firstPageId;
+    private List<String> guids;
+
+    @Autowired
+    LookupIndexBenchmarkTests(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              PageRepository pageRepository, SpaceRepository spaceRepository,
+                              DocumentRepository documentRepository, StoredFileRepository storedFileRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pageRepository = pageRepository;
+        this.spaceRepository = spaceRepository;
+        this.documentRepository = documentRepository;
+        this.storedFileRepository = storedFileRepository;
+    }
+
+    @BeforeAll
+    public void seed() {
+        ownerId = jdbcTemplate.queryForObject("insert into persons (username, password, role, created_at, " +
+                "updated_at, enabled) values ('benchmark', 'benchmark', 'ROLE_USER', now(), now(), true) " +
+                "returning id", Integer.class);
+
+        firstSpaceId = jdbcTemplate.queryForObject("with inserted as (insert into spaces " +
+                "(name, owner_id, created_at, updated_at, shared) select 'space' || x, ?, now(), now(), true " +
+                "from generate_series(1, ?) x returning id) select min(id) from inserted",
+                Integer.class, ownerId, SPACES);
+
+        firstPageId = jdbcTemplate.queryForObject("with inserted as (insert into pages " +
+                "(name, space_id, created_at, updated_at, shared, path, effectively_shared) " +
+                "select 'page' || x, ? + x % ?, now(), now(), true, '/', true from generate_series(1, ?) x " +
+                "returning id) select min(id) from inserted",
+                Integer.class, firstSpaceId, SPACES, PAGES);
+
+        jdbcTemplate.update("insert into documents (text, page_id) select 'text', id from pages where id >= ?",
+                firstPageId);
+        jdbcTemplate.update("insert into files (guid, name, type, size, owner_id, space_id) " +
+                "select md5(random()::text), 'file', 'image/png', 1, ?, ? + x % ? from generate_series(1, ?) x",
+                ownerId, firstSpaceId, SPACES, FILES);
+        guids = jdbcTemplate.queryForList("select guid from files where owner_id = ?", String.class, ownerId);
+
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        jdbcTemplate.update("delete from persons where id = ?", ownerId);
+    }
+
+    @Test
+    public void lookupsShouldBeFasterWithIndexes() {
+        Map<String, IntConsumer> lookups = lookups();
+
+        Map<String, Double> after = measure(lookups);
+        Map<String, Double> before = transactionTemplate.execute(status -> {
+            INDEXES.forEach(index -> jdbcTemplate.execute("drop index " + index));
+            status.setRollbackOnly();
+            return measure(lookups);
+        });
+
+        lookups.keySet().forEach(name ->
+                log.info("{}: {} us без индексов, {} us с индексами", name,
+                        String.format("%.1f", before.get(name)), String.format("%.1f", after.get(name))));
+
+        // Пространств всего тысяча, поэтому поиск по ним быстр и без индекса.
+        lookups.keySet().stream()
+                .filter(name -> !name.equals("findByOwnerAndName"))
+                .forEach(name -> assertTrue(after.get(name) < before.get(name), name));
+    }
+
+    private Map<String, IntConsumer> lookups() {
+        Person owner = entityManager.find(Person.class, ownerId);
+        Map<String, IntConsumer> lookups = new LinkedHashMap<>();
+
+        lookups.put("findBySpaceAndName", i -> {
+            int x = i % PAGES + 1;
+            Space space = entityManager.getReference(Space.class, firstSpaceId + x % SPACES);
+            assertTrue(pageRepository.findBySpaceAndName(space, "page" + x).isPresent());
+        });
+        lookups.put("findBySpaceAndParentIsNullOrderById", i -> {
+            Space space = entityManager.getReference(Space.class, firstSpaceId + i % SPACES);
+            assertEquals(10, pageRepository.findBySpaceAndParentIsNullOrderById(space, PageRequest.of(0, 10)).size());
+        });
+        lookups.put("findByOwnerAndName", i ->
+                assertTrue(spaceRepository.findByOwnerAndName(owner, "space" + (i % SPACES + 1)).isPresent()));
+        lookups.put("findByPage", i -> {
+            Page page = entityManager.getReference(Page.class, firstPageId + i % PAGES);
+            assertTrue(documentRepository.findByPage(page).isPresent());
+        });
+        lookups.put("findByGUID", i ->
+                assertTrue(storedFileRepository.findByGUID(guids.get(i % guids.size())).isPresent()));
+
+        return lookups;
+    }
+
+    /**
+     * Метод, измеряющий медианное время поиска для каждого запроса после прогрева.
+     *
+     * @param lookups запросы по названиям, принимающие случайный ключ.
+     * @return медианное время поиска в микросекундах по названиям запросов.
+     */
+    private Map<String, Double> measure(Map<String, IntConsumer> lookups) {
+        Map<String, Double> medians = new LinkedHashMap<>();
+
+        lookups.forEach((name, lookup) -> {
+            Random random = new Random(42);
+            long[] times = new long[LOOKUPS];
+
+            for (int i = -LOOKUPS / 10; i < LOOKUPS; i++) {
+                int key = random.nextInt(Integer.MAX_VALUE);
+                long start = System.nanoTime();
+                lookup.accept(key);
+                if (i >= 0) {
+                    times[i] = System.nanoTime() - start;
+                }
+                entityManager.clear();
+            }
+
+            Arrays.sort(times);
+            medians.put(name, times[LOOKUPS / 2] / 1000.0);
+        });
+
+        return medians;
+    }
+}
@@ -2,18 +2,25 @@ package org.sbtitcourses.mdwiki.repository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.sbtitcourses.mdwiki.model.Document;
 import org.sbtitcourses.mdwiki.model.Page;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.projection.PageName;
+import org.sbtitcourses.mdwiki.repository.projection.PageSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
+import org.sbtitcourses.mdwiki.repository.projection.PageTreeNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -91,10 +98,209 @@ class PageRepositoryTests {
     @Test
     public void findBySpaceAndParentIsNullShouldReturnPageList() {
         Pageable pageable = PageRequest.of(0, 1);
-        List<Page> found = pageRepository.findBySpaceAndParentIsNullOrderById(space, pageable);
+        List<PageSummary> found = pageRepository.findBySpaceAndParentIsNullOrderById(space, pageable);
 
         assertFalse(found.isEmpty());
         assertEquals(page.getId(), found.get(0).getId());
-        assertNull(found.get(0).getParent());
+        assertEquals(page.getName(), found.get(0).getName());
+        assertNull(found.get(0).getParentId());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void findByOwnerAndNameStartingWithShouldReturnPagesWithSpace() {
+        List<PageSearchResult> found = pageRepository.findByOwnerAndNameStartingWith(owner, "test");
+
+        assertEquals(1, found.size());
+        assertEquals(page.getId(), found.get(0).getId());
+        assertEquals("/", found.get(0).getPath());
+        assertEquals(space.getId(), found.get(0).getSpaceId());
+        assertEquals(space.getName(), found.get(0).getSpaceName());
+        assertTrue(found.get(0).isShared());
+    }
+
+    @Test
+    public void findNamesByOwnerIdShouldReturnPageNames() {
+        List<PageName> found = pageRepository.findNamesByOwnerId(owner.getId());
+
+        assertEquals(1, found.size());
+        assertEquals(page.getId(), found.get(0).getId());
+        assertEquals(page.getName(), found.get(0).getName());
+        assertEquals(space.getId(), found.get(0).getSpaceId());
+        assertNull(found.get(0).getParentId());
+    }
+
+    @Test
+    public void findTreeByIdShouldReturnSubtreeWithDocuments() {
+        Page subpage = Page.builder()
+                .name("subpageName")
+                .space(space)
+                .parent(page)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        Page nestedSubpage = Page.builder()
+                .name("nestedSubpageName")
+                .space(space)
+                .parent(subpage)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        entityManager.persist(subpage);
+        entityManager.persist(nestedSubpage);
+        entityManager.persistAndFlush(Document.builder().text("nestedText").page(nestedSubpage).build());
+        entityManager.clear();
+
+        List<PageTreeNode> found = pageRepository.findTreeById(subpage.getId(), subpage.getDescendantsPath() + "%");
+
+        assertEquals(2, found.size());
+        PageTreeNode root = found.stream().filter(node -> node.getId() == subpage.getId()).findFirst().orElseThrow();
+        PageTreeNode leaf = found.stream().filter(node -> node.getId() == nestedSubpage.getId()).findFirst().orElseThrow();
+        assertEquals(page.getId(), root.getParentId());
+        assertNull(root.getText());
+        assertEquals(subpage.getId(), leaf.getParentId());
+        assertEquals("nestedText", leaf.getText());
+    }
+
+    @Test
+    public void findDescendantsShouldReturnWholeSubtree() {
+        Page subpage = Page.builder()
+                .name("subpageName")
+                .space(space)
+                .parent(page)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        Page nestedSubpage = Page.builder()
+                .name("nestedSubpageName")
+                .space(space)
+                .parent(subpage)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        entityManager.persist(subpage);
+        entityManager.persistAndFlush(nestedSubpage);
+        entityManager.clear();
+
+        List<PageSummary> found = pageRepository.findDescendants(space, List.of(page.getId()));
+
+        assertEquals(2, found.size());
+        assertEquals(subpage.getId(), found.get(0).getId());
+        assertEquals(page.getId(), found.get(0).getParentId());
+        assertEquals(nestedSubpage.getId(), found.get(1).getId());
+        assertEquals(subpage.getId(), found.get(1).getParentId());
+        assertTrue(pageRepository.findDescendants(space, List.of(nestedSubpage.getId())).isEmpty());
+    }
+
+    @Test
+    public void findSubtreeByIdShouldStopAtDepth() {
+        Page subpage = Page.builder()
+                .name("subpageName")
+                .space(space)
+                .parent(page)
+                .shared(true)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        Page privateSubpage = Page.builder()
+                .name("privateSubpageName")
+                .space(space)
+                .parent(page)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        Page nestedSubpage = Page.builder()
+                .name("nestedSubpageName")
+                .space(space)
+                .parent(subpage)
+                .shared(true)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        entityManager.persist(subpage);
+        entityManager.persist(privateSubpage);
+        entityManager.persistAndFlush(nestedSubpage);
+        entityManager.clear();
+        String pathPattern = page.getDescendantsPath() + "%";
+
+        List<PageSummary> rootOnly = pageRepository.findSubtreeById(page.getId(), pathPattern, 1, true);
+        List<PageSummary> children = pageRepository.findSubtreeById(page.getId(), pathPattern, 2, true);
+        List<PageSummary> sharedTree = pageRepository.findSubtreeById(page.getId(), pathPattern, 3, false);
+
+        assertEquals(List.of(page.getId()), rootOnly.stream().map(PageSummary::getId).collect(Collectors.toList()));
+        assertEquals(List.of(page.getId(), subpage.getId(), privateSubpage.getId()),
+                children.stream().map(PageSummary::getId).collect(Collectors.toList()));
+        assertEquals(List.of(page.getId(), subpage.getId(), nestedSubpage.getId()),
+                sharedTree.stream().map(PageSummary::getId).collect(Collectors.toList()));
+        assertEquals(3, pageRepository.countByPathLike(pathPattern, true));
+        assertEquals(2, pageRepository.countByPathLike(pathPattern, false));
+    }
+
+    @Test
+    public void findByIdInAndOwnerIdShouldReturnOnlyOwnedPages() {
+        List<PageSummary> found = pageRepository.findByIdInAndOwnerId(List.of(page.getId()), owner.getId());
+
+        assertEquals(1, found.size());
+        assertEquals(page.getId(), found.get(0).getId());
+        assertTrue(pageRepository.findByIdInAndOwnerId(List.of(page.getId()), owner.getId() + 1).isEmpty());
+    }
+
+    @Test
+    public void updateEffectivelySharedByPathLikeShouldRecomputeSubtree() {
+        Page privateSubpage = Page.builder()
+                .name("privateSubpageName")
+                .space(space)
+                .parent(page)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        Page nestedSubpage = Page.builder()
+                .name("nestedSubpageName")
+                .space(space)
+                .parent(privateSubpage)
+                .shared(true)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        Page sharedSubpage = Page.builder()
+                .name("sharedSubpageName")
+                .space(space)
+                .parent(page)
+                .shared(true)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        entityManager.persist(privateSubpage);
+        entityManager.persist(nestedSubpage);
+        entityManager.persistAndFlush(sharedSubpage);
+        entityManager.clear();
+
+        assertEquals("/" + page.getId() + "/" + privateSubpage.getId() + "/", nestedSubpage.getPath());
+        assertFalse(nestedSubpage.isEffectivelyShared());
+        assertTrue(sharedSubpage.isEffectivelyShared());
+
+        pageRepository.updateEffectivelySharedByPathLike(page.getDescendantsPath() + "%", false);
+        entityManager.clear();
+
+        assertFalse(pageRepository.findById(sharedSubpage.getId()).orElseThrow().isEffectivelyShared());
+
+        pageRepository.updateEffectivelySharedByPathLike(page.getDescendantsPath() + "%", true);
+        entityManager.clear();
+
+        assertTrue(pageRepository.findById(sharedSubpage.getId()).orElseThrow().isEffectivelyShared());
+        assertFalse(pageRepository.findById(privateSubpage.getId()).orElseThrow().isEffectivelyShared());
+        assertFalse(pageRepository.findById(nestedSubpage.getId()).orElseThrow().isEffectivelyShared());
+    }
+
+    @Test
+    public void saveWithDuplicateNameInSpaceShouldThrowException() {
+        Page duplicate = Page.builder()
+                .name(page.getName())
+                .space(entityManager.find(Space.class, space.getId()))
+                .shared(true)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+
+        assertThrows(DataIntegrityViolationException.class, () -> pageRepository.saveAndFlush(duplicate));
+    }
+}
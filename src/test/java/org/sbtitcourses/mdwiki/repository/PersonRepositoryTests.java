@@ -3,15 +3,17 @@ package org.sbtitcourses.mdwiki.repository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.util.ConstraintViolationHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Тест для репозитория сущности Person
@@ -68,4 +70,47 @@ class PersonRepositoryTests {
         assertEquals(person.getId(), foundByUsername.get().getId());
         assertEquals(person.getId(), foundByEmail.get().getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void findAllByUsernameOrEmailShouldReturnPersonsMatchingEither() {
+        List<Person> found = personRepository.findAllByUsernameOrEmail(person.getUsername(), "otherEmail@test.test");
+
+        assertEquals(1, found.size());
+        assertEquals(person.getId(), found.get(0).getId());
+        assertTrue(personRepository.findAllByUsernameOrEmail("otherUsername", "otherEmail@test.test").isEmpty());
+    }
+
+    @Test
+    public void saveWithDuplicateEmailShouldViolateEmailKey() {
+        Person duplicate = Person.builder()
+                .username("otherUsername")
+                .password("testPassword")
+                .email(person.getEmail())
+                .role("ROLE_USER")
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> personRepository.saveAndFlush(duplicate));
+
+        assertTrue(ConstraintViolationHelper.isViolated(e, "persons_email_key"));
+    }
+
+    @Test
+    public void saveWithDuplicateUsernameShouldNotViolateEmailKey() {
+        Person duplicate = Person.builder()
+                .username(person.getUsername())
+                .password("testPassword")
+                .email("otherEmail@test.test")
+                .role("ROLE_USER")
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> personRepository.saveAndFlush(duplicate));
+
+        assertFalse(ConstraintViolationHelper.isViolated(e, "persons_email_key"));
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.projection.SpaceSummary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
@@ -64,7 +65,7 @@ class SpaceRepositoryTests {
 
     @Test
     public void findBySharedTrueShouldReturnSpaceList() {
-        List<Space> found = spaceRepository.findBySharedTrue(PageRequest.of(0, 1));
+        List<SpaceSummary> found = spaceRepository.findBySharedTrue(PageRequest.of(0, 1));
 
         assertFalse(found.isEmpty());
         assertEquals(space.getId(), found.get(0).getId());
@@ -73,10 +74,31 @@ class SpaceRepositoryTests {
     @Test
     public void findByOwnerShouldReturnSpaceList() {
         Pageable pageable = PageRequest.of(0, 1);
-        List<Space> found = spaceRepository.findByOwnerOrderById(owner, pageable);
+        List<SpaceSummary> found = spaceRepository.findByOwnerOrderById(owner, pageable);
 
         assertFalse(found.isEmpty());
         assertEquals(space.getId(), found.get(0).getId());
-        assertEquals(owner.getId(), found.get(0).getOwner().getId());
+        assertEquals(space.getName(), found.get(0).getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void findByOwnerAndIdGreaterThanShouldReturnSpacesAfterCursor() {
+        Space next = Space.builder()
+                .name("nextName")
+                .owner(entityManager.find(Person.class, owner.getId()))
+                .shared(false)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+        entityManager.persistAndFlush(next);
+        Pageable pageable = PageRequest.of(0, 1);
+
+        List<SpaceSummary> first = spaceRepository.findByOwnerAndIdGreaterThanOrderById(owner, 0, pageable);
+        List<SpaceSummary> second = spaceRepository.findByOwnerAndIdGreaterThanOrderById(owner, space.getId(), pageable);
+        List<SpaceSummary> last = spaceRepository.findByOwnerAndIdGreaterThanOrderById(owner, next.getId(), pageable);
+
+        assertEquals(space.getId(), first.get(0).getId());
+        assertEquals(next.getId(), second.get(0).getId());
+        assertTrue(last.isEmpty());
+    }
+}
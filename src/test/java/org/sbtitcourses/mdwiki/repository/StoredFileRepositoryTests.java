@@ -81,4 +81,35 @@ class StoredFileRepositoryTests {
         assertFalse(found.isEmpty());
         assertEquals("75200c8f-cd53-4a91-a1fc-49493f1b1bbe", found.get(0).getGUID());
     }
-}
\ No newline at end of file
+
+    @Test
+    void countByContentHashShouldCountFilesWithSameContent() {
+        String contentHash = "a".repeat(64);
+        StoredFile duplicate = new StoredFile("0d4b1c3e-6a4e-4a57-9a3b-2f1c0e5d7b68", "testName", "testType",
+                100, owner, space);
+        duplicate.setContentHash(contentHash);
+        storedFile.setContentHash(contentHash);
+        entityManager.merge(storedFile);
+        entityManager.persistAndFlush(duplicate);
+
+        assertEquals(2, storedFileRepository.countByContentHash(contentHash));
+        assertEquals(0, storedFileRepository.countByContentHash("b".repeat(64)));
+    }
+
+    @Test
+    void updateThumbnailStatusShouldChangeStatusAndAttempts() {
+        List<StoredFile> pending = storedFileRepository.findByThumbnailStatusOrderById(
+                StoredFile.ThumbnailStatus.PENDING, PageRequest.of(0, 10));
+
+        assertEquals(1, pending.size());
+
+        storedFileRepository.updateThumbnailStatus(storedFile.getId(), StoredFile.ThumbnailStatus.FAILED, 3);
+        entityManager.clear();
+        StoredFile found = entityManager.find(StoredFile.class, storedFile.getId());
+
+        assertEquals(StoredFile.ThumbnailStatus.FAILED, found.getThumbnailStatus());
+        assertEquals(3, found.getThumbnailAttempts());
+        assertTrue(storedFileRepository.findByThumbnailStatusOrderById(
+                StoredFile.ThumbnailStatus.PENDING, PageRequest.of(0, 10)).isEmpty());
+    }
+}
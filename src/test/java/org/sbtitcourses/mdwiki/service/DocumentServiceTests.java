@@ -10,9 +10,22 @@ import org.sbtitcourses.mdwiki.model.Page;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
 import org.sbtitcourses.mdwiki.repository.DocumentRepository;
+import org.sbtitcourses.mdwiki.repository.PageRepository;
+import org.sbtitcourses.mdwiki.repository.projection.DocumentSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageTreeNode;
+import org.sbtitcourses.mdwiki.util.ConvertedDocument;
 import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.MarkdownRenderer;
+import org.sbtitcourses.mdwiki.util.PdfCache;
+import org.sbtitcourses.mdwiki.util.PdfConverter;
+import org.sbtitcourses.mdwiki.util.RenderedDocument;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,7 +39,17 @@ class DocumentServiceTests {
     @Mock
     private DocumentRepository documentRepository;
     @Mock
+    private PageRepository pageRepository;
+    @Mock
     private EntityFetcher entityFetcher;
+    @Mock
+    private PdfCache pdfCache;
+    @Mock
+    private PdfConverter pdfConverter;
+    @Mock
+    private MarkdownRenderer markdownRenderer;
+    @Mock
+    private ImageStorageService imageStorageService;
     @InjectMocks
     private DocumentService documentService;
 
@@ -99,6 +122,7 @@ class DocumentServiceTests {
 
         verify(entityFetcher).fetchDocument(1, 1);
         verify(documentRepository).save(documentWithId);
+        verify(pdfCache).evictPage(page.getId());
         verify(entityFetcher).getLoggedInUser();
     }
 
@@ -137,4 +161,120 @@ class DocumentServiceTests {
         verify(entityFetcher).fetchDocument(1, 1);
         verify(entityFetcher).getLoggedInUser();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getHtmlShouldReturnRenderedDocument() {
+        Document pageDocument = Document.builder().text("# testText").page(page).build();
+
+        when(entityFetcher.fetchDocument(1, 1)).thenReturn(pageDocument);
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(markdownRenderer.renderForBrowser("# testText")).thenReturn("<h1>testText</h1>\n");
+
+        RenderedDocument renderedDocument = documentService.getHtml(1, 1);
+
+        assertEquals("<h1>testText</h1>\n", renderedDocument.getHtml());
+        assertEquals(MarkdownRenderer.eTagOf("# testText"), renderedDocument.getETag());
+
+        verify(markdownRenderer).renderForBrowser("# testText");
+    }
+
+    @Test
+    public void getHtmlShouldThrowExceptionIfAccessDenied() {
+        Document pageDocument = Document.builder().text("# testText").page(page).build();
+
+        when(entityFetcher.fetchDocument(1, 1)).thenReturn(pageDocument);
+        when(entityFetcher.getLoggedInUser()).thenReturn(notOwner);
+
+        assertThrows(AccessDeniedException.class, () -> documentService.getHtml(1, 1));
+
+        verifyNoInteractions(markdownRenderer);
+    }
+
+    @Test
+    public void searchShouldReturnResultsForLoggedInUser() {
+        DocumentSearchResult result = mock(DocumentSearchResult.class);
+
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(documentRepository.search("testText", owner.getId(), PageRequest.of(1, 10))).thenReturn(List.of(result));
+
+        List<DocumentSearchResult> found = documentService.search("testText", 1, 10);
+
+        assertEquals(List.of(result), found);
+
+        verify(documentRepository).search("testText", owner.getId(), PageRequest.of(1, 10));
+    }
+
+    @Test
+    public void convertToPdfShouldReturnCachedDocument() throws IOException {
+        Person user = Person.builder().id(1).username("testUsername").build();
+        Page pageWithDocument = Page.builder().id(1).name("testName").space(space).build();
+        Document pageDocument = Document.builder().text("# testText").page(pageWithDocument).build();
+        pageWithDocument.setDocument(pageDocument);
+        String key = PdfCache.keyOf(List.of("# testText"), "times", 16, false, "testUsername");
+        byte[] pdf = {1, 2, 3};
+
+        when(entityFetcher.fetchPage(1, 1)).thenReturn(pageWithDocument);
+        when(entityFetcher.getLoggedInUser()).thenReturn(user);
+        when(pdfCache.get(key)).thenReturn(pdf);
+
+        ConvertedDocument convertedDocument = documentService.convertToPdf(1, 1, "times", 16, false);
+
+        assertEquals("testName", convertedDocument.getDocumentName());
+        assertEquals(key, convertedDocument.getETag());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        convertedDocument.writeTo(outputStream);
+        assertArrayEquals(pdf, outputStream.toByteArray());
+
+        verify(pdfCache).get(key);
+        verify(pdfCache, never()).put(any(), any(), any());
+        verifyNoInteractions(pdfConverter, markdownRenderer);
+    }
+
+    @Test
+    public void convertToPdfShouldAssembleTreeInDepthFirstOrder() throws IOException {
+        Person user = Person.builder().id(1).username("testUsername").build();
+        Page root = Page.builder().id(1).name("testName").space(space).path("/").build();
+        root.setDocument(Document.builder().text("root").page(root).build());
+        String key = PdfCache.keyOf(List.of("root", "first", "nested", "second"), "times", 16, true, "testUsername");
+        byte[] pdf = {1, 2, 3};
+
+        when(entityFetcher.fetchPage(1, 1)).thenReturn(root);
+        when(entityFetcher.getLoggedInUser()).thenReturn(user);
+        when(pageRepository.findTreeById(1, "/1/%")).thenReturn(List.of(
+                treeNode(1, null, "root"),
+                treeNode(5, 1, "second"),
+                treeNode(2, 1, "first"),
+                treeNode(4, 2, null),
+                treeNode(3, 4, "nested")
+        ));
+        when(pdfCache.get(key)).thenReturn(pdf);
+
+        ConvertedDocument convertedDocument = documentService.convertToPdf(1, 1, "times", 16, true);
+
+        assertEquals(key, convertedDocument.getETag());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        convertedDocument.writeTo(outputStream);
+        assertArrayEquals(pdf, outputStream.toByteArray());
+
+        verify(pageRepository).findTreeById(1, "/1/%");
+    }
+
+    private static PageTreeNode treeNode(int id, Integer parentId, String text) {
+        return new PageTreeNode() {
+            @Override
+            public int getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getParentId() {
+                return parentId;
+            }
+
+            @Override
+            public String getText() {
+                return text;
+            }
+        };
+    }
+}
@@ -0,0 +1,254 @@
+package org.sbtitcourses.mdwiki.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.model.StoredFile;
+import org.sbtitcourses.mdwiki.repository.StoredFileRepository;
+import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.LoadedFile;
+import org.sbtitcourses.mdwiki.util.ThumbnailVariantCache;
+import org.sbtitcourses.mdwiki.util.event.ImageStoredEvent;
+import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
+import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.sbtitcourses.mdwiki.util.exception.UnsupportedTypeException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тест для сервиса с логикой записи и получения файлов
+ */
+@ExtendWith({MockitoExtension.class})
+class ImageStorageServiceTests {
+
+    private static final String GUID = "75200c8f-cd53-4a91-a1fc-49493f1b1bbe";
+
+    @Mock
+    private StoredFileRepository storedFileRepository;
+    @Mock
+    private EntityFetcher entityFetcher;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @TempDir
+    private Path directory;
+    private ImageStorageService imageStorageService;
+    private final Person owner = Person.builder().id(1).username("owner").build();
+    private final Space space = Space.builder().id(1).owner(owner).build();
+    private final StoredFile storedFile = new StoredFile(GUID, "image.PNG", "image/png", 100, owner, space);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ThumbnailVariantCache thumbnailVariantCache = new ThumbnailVariantCache(
+                directory.resolve("variants").toString(), DataSize.ofMegabytes(1), 2);
+        imageStorageService = new ImageStorageService(storedFileRepository, entityFetcher, eventPublisher,
+                thumbnailVariantCache, directory.resolve("uploads").toString(), "thumbnails");
+
+        Path image = imageStorageService.getImageLocation(storedFile);
+        Files.createDirectories(image.getParent());
+        ImageIO.write(new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB), "png", image.toFile());
+
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        lenient().when(storedFileRepository.findByGUID(GUID)).thenReturn(Optional.of(storedFile));
+    }
+
+    @Test
+    public void loadThumbnailVariantShouldResizeImageOnce() throws Exception {
+        LoadedFile loadedFile = imageStorageService.loadThumbnailVariant(GUID, 10, null, null);
+
+        BufferedImage variant = ImageIO.read(loadedFile.getResource().getFile());
+        assertEquals(10, variant.getWidth());
+        assertEquals(5, variant.getHeight());
+        assertEquals("image/png", loadedFile.getMimeType());
+        assertEquals("\"" + GUID + "-10x0.png\"", loadedFile.getETag());
+
+        Files.delete(imageStorageService.getImageLocation(storedFile));
+
+        assertThrows(ElementNotFoundException.class,
+                () -> imageStorageService.loadThumbnailVariant(GUID, 10, null, null));
+    }
+
+    @Test
+    public void loadThumbnailVariantShouldReturnCachedVariant() throws Exception {
+        LoadedFile first = imageStorageService.loadThumbnailVariant(GUID, 8, 8, "jpg");
+        long modified = Files.getLastModifiedTime(first.getResource().getFile().toPath()).toMillis();
+        LoadedFile second = imageStorageService.loadThumbnailVariant(GUID, 8, 8, "jpg");
+
+        assertEquals(first.getResource().getFile(), second.getResource().getFile());
+        assertEquals(modified, Files.getLastModifiedTime(second.getResource().getFile().toPath()).toMillis());
+        assertEquals("image/jpeg", second.getMimeType());
+        assertEquals(8, ImageIO.read(second.getResource().getFile()).getWidth());
+    }
+
+    @Test
+    public void storeImageShouldStoreSameContentOnce() throws Exception {
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        byte[] content = Files.readAllBytes(imageStorageService.getImageLocation(storedFile));
+
+        StoredFile first = imageStorageService.storeImage(
+                new MockMultipartFile("file", "first.png", "image/png", content), 1, 10, 10);
+        StoredFile second = imageStorageService.storeImage(
+                new MockMultipartFile("file", "second.png", "image/png", content), 1, 10, 10);
+
+        assertEquals(64, first.getContentHash().length());
+        assertEquals(first.getContentHash(), second.getContentHash());
+        assertEquals(imageStorageService.getImageLocation(first), imageStorageService.getImageLocation(second));
+        assertArrayEquals(content, Files.readAllBytes(imageStorageService.getImageLocation(first)));
+        verify(storedFileRepository, times(2)).save(any(StoredFile.class));
+        verify(eventPublisher, times(2)).publishEvent(any(ImageStoredEvent.class));
+
+        try (Stream<Path> blobs = Files.walk(directory.resolve("uploads").resolve("blobs"))) {
+            assertEquals(1, blobs.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    public void storeImageShouldDetectTypeByContent() throws Exception {
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        byte[] content = Files.readAllBytes(imageStorageService.getImageLocation(storedFile));
+
+        StoredFile stored = imageStorageService.storeImage(
+                new MockMultipartFile("file", "image.jpg", "image/jpeg", content), 1, 10, 10);
+
+        assertEquals("image/png", stored.getMimeType());
+        assertThrows(UnsupportedTypeException.class, () -> imageStorageService.storeImage(
+                new MockMultipartFile("file", "image.png", "image/png", "<svg/>".getBytes()), 1, 10, 10));
+        verify(storedFileRepository, times(1)).save(any(StoredFile.class));
+
+        try (Stream<Path> blobs = Files.walk(directory.resolve("uploads").resolve("blobs"))) {
+            assertEquals(1, blobs.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    public void storeImageShouldKeepFormatsWithoutThumbnails() throws Exception {
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "tiff", tiff);
+        byte[] webp = "RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII);
+
+        StoredFile storedTiff = imageStorageService.storeImage(
+                new MockMultipartFile("file", "image.tif", "image/tiff", tiff.toByteArray()), 1, 10, 10);
+        StoredFile storedWebp = imageStorageService.storeImage(
+                new MockMultipartFile("file", "image.webp", "image/webp", webp), 1, 10, 10);
+
+        assertEquals("image/tiff", storedTiff.getMimeType());
+        assertEquals(StoredFile.ThumbnailStatus.PENDING, storedTiff.getThumbnailStatus());
+        assertEquals("image/webp", storedWebp.getMimeType());
+        assertEquals(StoredFile.ThumbnailStatus.UNSUPPORTED, storedWebp.getThumbnailStatus());
+        verify(eventPublisher, times(1)).publishEvent(any(ImageStoredEvent.class));
+
+        when(storedFileRepository.findByGUID(storedWebp.getGUID())).thenReturn(Optional.of(storedWebp));
+
+        assertThrows(ElementNotFoundException.class, () -> imageStorageService.loadThumbnail(storedWebp.getGUID()));
+        assertThrows(ElementNotFoundException.class,
+                () -> imageStorageService.loadThumbnailVariant(storedWebp.getGUID(), 10, null, null));
+    }
+
+    @Test
+    public void deleteImageShouldKeepContentWhileReferenced() throws Exception {
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        StoredFile stored = imageStorageService.storeImage(new MockMultipartFile("file", "image.png", "image/png",
+                Files.readAllBytes(imageStorageService.getImageLocation(storedFile))), 1, 10, 10);
+        Path image = imageStorageService.getImageLocation(stored);
+        Path thumbnail = imageStorageService.getThumbnailLocation(stored);
+        Files.createDirectories(thumbnail.getParent());
+        Files.write(thumbnail, new byte[]{1});
+
+        when(storedFileRepository.findByGUID(stored.getGUID())).thenReturn(Optional.of(stored));
+        when(storedFileRepository.countByContentHash(stored.getContentHash())).thenReturn(1L, 0L);
+
+        imageStorageService.deleteImage(stored.getGUID());
+
+        assertTrue(Files.exists(image));
+        assertTrue(Files.exists(thumbnail));
+
+        imageStorageService.deleteImage(stored.getGUID());
+
+        assertFalse(Files.exists(image));
+        assertFalse(Files.exists(thumbnail));
+        verify(storedFileRepository, times(2)).delete(stored);
+    }
+
+    @Test
+    public void storeImageShouldPublishContentBeforeCommitAndRemoveItOnRollback() throws Exception {
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        byte[] content = Files.readAllBytes(imageStorageService.getImageLocation(storedFile));
+        Path image;
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            StoredFile stored = imageStorageService.storeImage(
+                    new MockMultipartFile("file", "image.png", "image/png", content), 1, 10, 10);
+            image = imageStorageService.getImageLocation(stored);
+
+            assertArrayEquals(content, Files.readAllBytes(image));
+
+            when(storedFileRepository.countByContentHash(stored.getContentHash())).thenReturn(0L);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(Files.exists(image));
+        try (Stream<Path> blobs = Files.walk(directory.resolve("uploads").resolve("blobs"))) {
+            assertEquals(0, blobs.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    public void deleteImageShouldKeepContentStoredByUncommittedTransaction() throws Exception {
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        byte[] content = Files.readAllBytes(imageStorageService.getImageLocation(storedFile));
+        StoredFile first = imageStorageService.storeImage(
+                new MockMultipartFile("file", "first.png", "image/png", content), 1, 10, 10);
+        Path image = imageStorageService.getImageLocation(first);
+        when(storedFileRepository.findByGUID(first.getGUID())).thenReturn(Optional.of(first));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            imageStorageService.storeImage(new MockMultipartFile("file", "second.png", "image/png", content), 1, 10, 10);
+            CompletableFuture.runAsync(() -> imageStorageService.deleteImage(first.getGUID())).get(5, TimeUnit.SECONDS);
+
+            assertTrue(Files.exists(image));
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(Files.exists(image));
+    }
+
+    @Test
+    public void loadThumbnailVariantWithAccessDeniedShouldThrowException() {
+        when(entityFetcher.getLoggedInUser()).thenReturn(Person.builder().id(2).build());
+
+        assertThrows(AccessDeniedException.class,
+                () -> imageStorageService.loadThumbnailVariant(GUID, 10, 10, "png"));
+    }
+}
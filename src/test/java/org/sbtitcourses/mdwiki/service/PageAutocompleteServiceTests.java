@@ -0,0 +1,142 @@
+package org.sbtitcourses.mdwiki.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sbtitcourses.mdwiki.model.Page;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.model.Space;
+import org.sbtitcourses.mdwiki.repository.PageRepository;
+import org.sbtitcourses.mdwiki.repository.projection.PageName;
+import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.PageCompletion;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тест для сервиса автодополнения названий страниц
+ */
+@ExtendWith(MockitoExtension.class)
+class PageAutocompleteServiceTests {
+
+    @Mock
+    private PageRepository pageRepository;
+    @Mock
+    private EntityFetcher entityFetcher;
+    @InjectMocks
+    private PageAutocompleteService pageAutocompleteService;
+    private final Person owner = Person.builder().id(1).build();
+    private final Space space = Space.builder().id(1).owner(owner).build();
+
+    @BeforeEach
+    public void setUp() {
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(pageRepository.findNamesByOwnerId(1)).thenReturn(List.of(
+                pageName(1, "Установка", 1, null),
+                pageName(2, "установка сервера", 1, 1),
+                pageName(3, "Устав", 2, null),
+                pageName(4, "Настройка", 1, null)));
+    }
+
+    @Test
+    public void completeShouldReturnPagesInAlphabeticalOrder() {
+        assertEquals(List.of("Устав", "Установка", "установка сервера"), namesOf("уста", 10));
+        assertEquals(List.of("Устав", "Установка"), namesOf("УСТА", 2));
+        assertEquals(List.of("Настройка"), namesOf("н", 10));
+        assertTrue(namesOf("поиск", 10).isEmpty());
+
+        verify(pageRepository, times(1)).findNamesByOwnerId(1);
+    }
+
+    @Test
+    public void savedAndDeletedPagesShouldUpdateIndex() {
+        namesOf("", 10);
+
+        Page renamed = Page.builder().id(4).name("Установка клиента").space(space).build();
+        pageAutocompleteService.pageSaved(renamed);
+        assertEquals(List.of("Установка", "Установка клиента", "установка сервера"), namesOf("устан", 10));
+        assertTrue(namesOf("настр", 10).isEmpty());
+
+        pageAutocompleteService.pageDeleted(Page.builder().id(1).space(space).build());
+        assertEquals(List.of("Устав", "Установка клиента"), namesOf("", 10));
+
+        pageAutocompleteService.spaceDeleted(1, 2);
+        assertEquals(List.of("Установка клиента"), namesOf("", 10));
+
+        verify(pageRepository, times(1)).findNamesByOwnerId(1);
+    }
+
+    @Test
+    public void pageSavedDuringLoadShouldNotBeLostFromIndex() {
+        Page created = Page.builder().id(5).name("Установка агента").space(space).build();
+        when(pageRepository.findNamesByOwnerId(1))
+                .thenAnswer(invocation -> {
+                    pageAutocompleteService.pageSaved(created);
+                    return List.of(pageName(1, "Установка", 1, null));
+                })
+                .thenReturn(List.of(
+                        pageName(1, "Установка", 1, null),
+                        pageName(5, "Установка агента", 1, null)));
+
+        assertEquals(List.of("Установка"), namesOf("уст", 10));
+        assertEquals(List.of("Установка", "Установка агента"), namesOf("уст", 10));
+        assertEquals(List.of("Установка", "Установка агента"), namesOf("уст", 10));
+
+        verify(pageRepository, times(2)).findNamesByOwnerId(1);
+    }
+
+    @Test
+    public void metricsShouldReportIndexSize() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pageAutocompleteService.bindTo(registry);
+
+        assertEquals(0, registry.get("autocomplete.memory").gauge().value());
+
+        namesOf("", 10);
+
+        assertEquals(4, registry.get("autocomplete.pages").gauge().value());
+        assertTrue(registry.get("autocomplete.memory").gauge().value() > 0);
+
+        pageAutocompleteService.ownerDeleted(1);
+
+        assertEquals(0, registry.get("autocomplete.owners").gauge().value());
+    }
+
+    private List<String> namesOf(String prefix, int limit) {
+        return pageAutocompleteService.complete(prefix, limit).stream()
+                .map(PageCompletion::getName)
+                .collect(Collectors.toList());
+    }
+
+    private static PageName pageName(int id, String name, int spaceId, Integer parentId) {
+        return new PageName() {
+            @Override
+            public int getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public int getSpaceId() {
+                return spaceId;
+            }
+
+            @Override
+            public Integer getParentId() {
+                return parentId;
+            }
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package org.sbtitcourses.mdwiki.service;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -9,14 +10,23 @@ import org.sbtitcourses.mdwiki.model.Page;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
 import org.sbtitcourses.mdwiki.repository.PageRepository;
+import org.sbtitcourses.mdwiki.repository.projection.PageSearchResult;
+import org.sbtitcourses.mdwiki.repository.projection.PageSummary;
 import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.PageForest;
+import org.sbtitcourses.mdwiki.util.PageTree;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
+import org.sbtitcourses.mdwiki.util.exception.ElementAlreadyExistsException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +41,8 @@ class PageServiceTests {
     private PageRepository pageRepository;
     @Mock
     private EntityFetcher entityFetcher;
+    @Mock
+    private PageAutocompleteService pageAutocompleteService;
     @InjectMocks
     private PageService pageService;
     private final Person owner = Person.builder().id(1).build();
@@ -41,6 +53,7 @@ class PageServiceTests {
             .id(1)
             .name("pageName")
             .space(space)
+            .path("/")
             .build();
     private final Page parentPage = Page.builder()
             .id(2)
@@ -55,7 +68,7 @@ class PageServiceTests {
     public void createShouldReturnPage() {
         when(entityFetcher.fetchSpace(1)).thenReturn(space);
         when(entityFetcher.getLoggedInUser()).thenReturn(owner);
-        when(pageRepository.save(pageToCreate)).thenReturn(pageWithId);
+        when(pageRepository.saveAndFlush(pageToCreate)).thenReturn(pageWithId);
 
         Page createdPage = pageService.create(pageToCreate, 1);
 
@@ -63,7 +76,37 @@ class PageServiceTests {
 
         verify(entityFetcher).fetchSpace(1);
         verify(entityFetcher).getLoggedInUser();
-        verify(pageRepository).save(pageToCreate);
+        verify(pageRepository).saveAndFlush(pageToCreate);
+        verify(pageAutocompleteService).pageSaved(pageToCreate);
+    }
+
+    @Test
+    public void searchShouldReturnSimilarPages() {
+        List<PageSearchResult> pages = List.of(mock(PageSearchResult.class));
+
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(pageRepository.findByOwnerAndNameSimilarTo(1, "testName", PageRequest.of(0, 10)))
+                .thenReturn(pages);
+
+        List<PageSearchResult> found = pageService.search("testName", 10);
+
+        assertEquals(pages, found);
+
+        verify(pageRepository).setWordSimilarityThreshold(anyDouble());
+        verify(pageRepository).findByOwnerAndNameSimilarTo(1, "testName", PageRequest.of(0, 10));
+    }
+
+    @Test
+    public void createWithDuplicateNameShouldThrowException() {
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(pageRepository.saveAndFlush(pageToCreate)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("duplicate", "23505"),
+                        "pages_space_id_name_key")));
+
+        assertThrows(ElementAlreadyExistsException.class, () -> pageService.create(pageToCreate, 1));
+
+        verifyNoInteractions(pageAutocompleteService);
     }
 
     @Test
@@ -81,7 +124,7 @@ class PageServiceTests {
     public void createSubpageShouldReturnPage() {
         when(entityFetcher.fetchPage(2, 1)).thenReturn(parentPage);
         when(entityFetcher.getLoggedInUser()).thenReturn(owner);
-        when(pageRepository.save(pageToCreate)).thenReturn(pageWithId);
+        when(pageRepository.saveAndFlush(pageToCreate)).thenReturn(pageWithId);
 
         Page createdSubpage = pageService.createSubpage(pageToCreate, 2, 1);
 
@@ -89,7 +132,7 @@ class PageServiceTests {
 
         verify(entityFetcher).fetchPage(2, 1);
         verify(entityFetcher).getLoggedInUser();
-        verify(pageRepository).save(pageToCreate);
+        verify(pageRepository).saveAndFlush(pageToCreate);
     }
 
     @Test
@@ -105,16 +148,18 @@ class PageServiceTests {
 
     @Test
     public void getAllShouldReturnPageList() {
-        List<Page> pages = new LinkedList<>();
-        pages.add(pageWithId);
-        pages.add(new Page());
+        PageSummary summary = mock(PageSummary.class);
+        when(summary.getId()).thenReturn(1);
+        List<PageSummary> pages = new LinkedList<>();
+        pages.add(summary);
+        pages.add(mock(PageSummary.class));
         Pageable pageable = PageRequest.of(0,1);
 
         when(entityFetcher.fetchSpace(1)).thenReturn(space);
         when(entityFetcher.getLoggedInUser()).thenReturn(owner);
         when(pageRepository.findBySpaceAndParentIsNullOrderById(space, pageable)).thenReturn(pages);
 
-        List<Page> gottenPages = pageService.get(1, 0, 1);
+        List<PageSummary> gottenPages = pageService.get(1, 0, 1);
 
         assertEquals(2, gottenPages.size());
         assertEquals(1, gottenPages.get(0).getId());
@@ -124,6 +169,116 @@ class PageServiceTests {
         verify(pageRepository).findBySpaceAndParentIsNullOrderById(space, pageable);
     }
 
+    @Test
+    public void getAfterShouldReturnPagesFollowingCursor() {
+        PageSummary summary = mock(PageSummary.class);
+        when(summary.getId()).thenReturn(1);
+        List<PageSummary> pages = new LinkedList<>();
+        pages.add(summary);
+        Pageable pageable = PageRequest.of(0, 1);
+
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(pageRepository.findBySpaceAndParentIsNullAndIdGreaterThanOrderById(space, 0, pageable))
+                .thenReturn(pages);
+
+        List<PageSummary> gottenPages = pageService.getAfter(1, 0, 1);
+
+        assertEquals(1, gottenPages.size());
+        assertEquals(1, gottenPages.get(0).getId());
+
+        verify(pageRepository).findBySpaceAndParentIsNullAndIdGreaterThanOrderById(space, 0, pageable);
+    }
+
+    @Test
+    public void getWithDescendantsShouldLoadSubtreesInOneQuery() {
+        PageSummary first = mock(PageSummary.class);
+        PageSummary second = mock(PageSummary.class);
+        when(first.getId()).thenReturn(1);
+        when(second.getId()).thenReturn(2);
+        List<PageSummary> descendants = List.of(mock(PageSummary.class));
+        Pageable pageable = PageRequest.of(0, 2);
+
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(pageRepository.findBySpaceAndParentIsNullOrderById(space, pageable)).thenReturn(List.of(first, second));
+        when(pageRepository.findDescendants(space, Set.of(1, 2))).thenReturn(descendants);
+
+        PageForest forest = pageService.getWithDescendants(1, 0, 2);
+
+        assertEquals(List.of(first, second), forest.getPages());
+        assertEquals(descendants, forest.getDescendants());
+        verify(entityFetcher).fetchSpace(1);
+        verify(entityFetcher).getLoggedInUser();
+        verify(pageRepository).findDescendants(space, Set.of(1, 2));
+    }
+
+    @Test
+    public void getAfterWithDescendantsOfEmptyBunchShouldSkipDescendantsQuery() {
+        Pageable pageable = PageRequest.of(0, 1);
+
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(pageRepository.findBySpaceAndParentIsNullAndIdGreaterThanOrderById(space, 5, pageable))
+                .thenReturn(List.of());
+
+        PageForest forest = pageService.getAfterWithDescendants(1, 5, 1);
+
+        assertTrue(forest.getPages().isEmpty());
+        assertTrue(forest.getDescendants().isEmpty());
+        verify(pageRepository, never()).findDescendants(any(), any());
+    }
+
+    @Test
+    public void getWithDescendantsWithAccessDeniedShouldThrowException() {
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        when(entityFetcher.getLoggedInUser()).thenReturn(notOwner);
+
+        assertThrows(AccessDeniedException.class, () -> pageService.getWithDescendants(1, 0, 1));
+
+        verify(pageRepository, never()).findBySpaceAndParentIsNullOrderById(any(), any());
+        verify(pageRepository, never()).findDescendants(any(), any());
+    }
+
+    @Test
+    public void getAncestorsShouldLoadAncestorsFromPaths() {
+        PageSearchResult first = mock(PageSearchResult.class);
+        PageSearchResult second = mock(PageSearchResult.class);
+        PageSummary ancestor = mock(PageSummary.class);
+        when(first.getPath()).thenReturn("/2/5/");
+        when(second.getPath()).thenReturn("/2/");
+        when(ancestor.getId()).thenReturn(2);
+
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(pageRepository.findByIdInAndOwnerId(Set.of(2, 5), 1)).thenReturn(List.of(ancestor));
+
+        Map<Integer, PageSummary> ancestors = pageService.getAncestors(List.of(first, second));
+
+        assertEquals(Map.of(2, ancestor), ancestors);
+    }
+
+    @Test
+    public void getAncestorsOfRootPagesShouldNotQuery() {
+        PageSearchResult root = mock(PageSearchResult.class);
+        when(root.getPath()).thenReturn("/");
+
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+
+        assertTrue(pageService.getAncestors(List.of(root)).isEmpty());
+
+        verifyNoInteractions(pageRepository);
+    }
+
+    @Test
+    public void getAfterWithAccessDeniedShouldThrowException() {
+        when(entityFetcher.fetchSpace(1)).thenReturn(space);
+        when(entityFetcher.getLoggedInUser()).thenReturn(notOwner);
+
+        assertThrows(AccessDeniedException.class, () -> pageService.getAfter(1, 0, 1));
+
+        verifyNoInteractions(pageRepository);
+    }
+
     @Test
     public void getAllWithAccessDeniedShouldThrowException() {
         when(entityFetcher.fetchSpace(1)).thenReturn(space);
@@ -148,6 +303,45 @@ class PageServiceTests {
         verify(entityFetcher).getLoggedInUser();
     }
 
+    @Test
+    public void getTreeShouldLoadSubtreeAndCountDescendants() {
+        List<PageSummary> pages = List.of(mock(PageSummary.class));
+
+        when(entityFetcher.fetchPage(1, 1)).thenReturn(pageWithId);
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(pageRepository.findSubtreeById(1, "/1/%", 3, true)).thenReturn(pages);
+        when(pageRepository.countByPathLike("/1/%", true)).thenReturn(10L);
+
+        PageTree tree = pageService.getTree(1, 1, 2);
+
+        assertEquals(pages, tree.getPages());
+        assertEquals(10, tree.getDescendantCount());
+    }
+
+    @Test
+    public void getTreeForNotOwnerShouldSkipPrivateSubpages() {
+        Space sharedSpace = Space.builder().id(1).owner(owner).shared(true).build();
+        Page sharedPage = Page.builder().id(3).space(sharedSpace).path("/1/2/").effectivelyShared(true).build();
+
+        when(entityFetcher.fetchPage(3, 1)).thenReturn(sharedPage);
+        when(entityFetcher.getLoggedInUser()).thenReturn(notOwner);
+
+        pageService.getTree(3, 1, 1);
+
+        verify(pageRepository).findSubtreeById(3, "/1/2/3/%", 4, false);
+        verify(pageRepository).countByPathLike("/1/2/3/%", false);
+    }
+
+    @Test
+    public void getTreeWithAccessDeniedShouldThrowException() {
+        when(entityFetcher.fetchPage(1, 1)).thenReturn(pageWithId);
+        when(entityFetcher.getLoggedInUser()).thenReturn(notOwner);
+
+        assertThrows(AccessDeniedException.class, () -> pageService.getTree(1, 1, 1));
+
+        verifyNoInteractions(pageRepository);
+    }
+
     @Test
     public void getWithAccessDeniedShouldThrowException() {
         when(entityFetcher.fetchPage(1, 1)).thenReturn(pageWithId);
@@ -169,10 +363,33 @@ class PageServiceTests {
         assertEquals(1, updatedPage.getId());
         assertEquals(pageToUpdateWith.getName(), updatedPage.getName());
         assertEquals(pageToUpdateWith.isShared(), updatedPage.isShared());
+        assertTrue(updatedPage.isEffectivelyShared());
 
         verify(entityFetcher).fetchPage(1, 1);
         verify(entityFetcher).getLoggedInUser();
-        verify(pageRepository).save(pageWithId);
+        verify(pageRepository).saveAndFlush(pageWithId);
+        verify(pageRepository).updateEffectivelySharedByPathLike("/1/%", true);
+    }
+
+    @Test
+    public void updateSubpageOfPrivatePageShouldKeepSubtreePrivate() {
+        Page subpage = Page.builder()
+                .id(3)
+                .name("subpageName")
+                .space(space)
+                .parent(parentPage)
+                .path("/2/")
+                .build();
+
+        when(entityFetcher.fetchPage(3, 1)).thenReturn(subpage);
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+
+        Page updatedPage = pageService.update(3, 1, pageToUpdateWith);
+
+        assertTrue(updatedPage.isShared());
+        assertFalse(updatedPage.isEffectivelyShared());
+
+        verify(pageRepository).updateEffectivelySharedByPathLike("/2/3/%", false);
     }
 
     @Test
@@ -199,6 +416,7 @@ class PageServiceTests {
         verify(entityFetcher, times(2)).fetchPage(1, 1);
         verify(entityFetcher).getLoggedInUser();
         verify(pageRepository).delete(pageWithId);
+        verify(pageAutocompleteService).pageDeleted(pageWithId);
     }
 
     @Test
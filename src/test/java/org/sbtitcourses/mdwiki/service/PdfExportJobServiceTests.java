@@ -0,0 +1,183 @@
+package org.sbtitcourses.mdwiki.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.util.ConvertedDocument;
+import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.PdfExportJob;
+import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.sbtitcourses.mdwiki.util.exception.ExportQueueFullException;
+import org.sbtitcourses.mdwiki.util.exception.PdfConversionException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тест для сервиса фонового экспорта документов в PDF формат
+ */
+@ExtendWith({MockitoExtension.class})
+class PdfExportJobServiceTests {
+
+    @Mock
+    private DocumentService documentService;
+    @Mock
+    private EntityFetcher entityFetcher;
+    @TempDir
+    private Path directory;
+    private PdfExportJobService pdfExportJobService;
+    private final Person owner = Person.builder().id(1).build();
+    private final Person notOwner = Person.builder().id(2).build();
+    private final byte[] pdf = {1, 2, 3};
+
+    @BeforeEach
+    public void setUp() {
+        pdfExportJobService = new PdfExportJobService(documentService, entityFetcher, 1, 1, Duration.ZERO,
+                directory.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pdfExportJobService.shutdown();
+    }
+
+    @Test
+    public void submitShouldConvertDocumentInBackground() throws Exception {
+        when(documentService.convertToPdf(1, 1, "times", 16, true))
+                .thenReturn(new ConvertedDocument(outputStream -> outputStream.write(pdf), "testName", "testTag"));
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+
+        PdfExportJob job = pdfExportJobService.submit(1, 1, "times", 16, true);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(PdfExportJob.Status.DONE, job.getStatus());
+        assertSame(job, pdfExportJobService.get(1, 1, job.getId()));
+
+        ConvertedDocument result = pdfExportJobService.getResult(1, 1, job.getId());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        result.writeTo(outputStream);
+
+        assertArrayEquals(pdf, outputStream.toByteArray());
+        assertEquals("testName", result.getDocumentName());
+        assertEquals("testTag", result.getETag());
+    }
+
+    @Test
+    public void submitShouldMarkJobAsFailedIfConversionFailed() throws Exception {
+        when(documentService.convertToPdf(1, 1, "times", 16, false))
+                .thenReturn(new ConvertedDocument(outputStream -> {
+                    throw new PdfConversionException("Ошибка конвертации документа");
+                }, "testName", "testTag"));
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+
+        PdfExportJob job = pdfExportJobService.submit(1, 1, "times", 16, false);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(PdfExportJob.Status.FAILED, job.getStatus());
+        assertThrows(PdfConversionException.class, () -> pdfExportJobService.getResult(1, 1, job.getId()));
+    }
+
+    @Test
+    public void submitShouldThrowExceptionIfQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(documentService.convertToPdf(1, 1, "times", 16, false))
+                .thenReturn(new ConvertedDocument(outputStream -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "testName", "testTag"));
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+
+        PdfExportJob running = pdfExportJobService.submit(1, 1, "times", 16, false);
+        started.await(5, TimeUnit.SECONDS);
+        PdfExportJob queued = pdfExportJobService.submit(1, 1, "times", 16, false);
+
+        assertThrows(ExportQueueFullException.class, () -> pdfExportJobService.submit(1, 1, "times", 16, false));
+        assertEquals(PdfExportJob.Status.RUNNING, running.getStatus());
+        assertEquals(PdfExportJob.Status.QUEUED, queued.getStatus());
+        assertThrows(ElementNotFoundException.class, () -> pdfExportJobService.getResult(1, 1, queued.getId()));
+
+        release.countDown();
+    }
+
+    @Test
+    public void getShouldThrowExceptionIfUserIsNotJobOwner() throws Exception {
+        when(documentService.convertToPdf(1, 1, "times", 16, false))
+                .thenReturn(new ConvertedDocument(outputStream -> outputStream.write(pdf), "testName", "testTag"));
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner, notOwner);
+
+        PdfExportJob job = pdfExportJobService.submit(1, 1, "times", 16, false);
+
+        assertThrows(ElementNotFoundException.class, () -> pdfExportJobService.get(1, 1, job.getId()));
+    }
+
+    @Test
+    public void removeExpiredJobsShouldRemoveFinishedJobs() throws Exception {
+        when(documentService.convertToPdf(1, 1, "times", 16, false))
+                .thenReturn(new ConvertedDocument(outputStream -> outputStream.write(pdf), "testName", "testTag"));
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+
+        PdfExportJob job = pdfExportJobService.submit(1, 1, "times", 16, false);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+        Thread.sleep(10);
+
+        pdfExportJobService.removeExpiredJobs();
+
+        assertThrows(ElementNotFoundException.class, () -> pdfExportJobService.get(1, 1, job.getId()));
+        assertFalse(job.getResult().toFile().exists());
+    }
+
+    @Test
+    public void removeExpiredJobsShouldKeepResultUntilDownloadFinished() throws Exception {
+        when(documentService.convertToPdf(1, 1, "times", 16, false))
+                .thenReturn(new ConvertedDocument(outputStream -> outputStream.write(pdf), "testName", "testTag"));
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+
+        PdfExportJob job = pdfExportJobService.submit(1, 1, "times", 16, false);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+        ConvertedDocument result = pdfExportJobService.getResult(1, 1, job.getId());
+        ConvertedDocument.Content content = result.render();
+        Thread.sleep(10);
+
+        pdfExportJobService.removeExpiredJobs();
+
+        assertThrows(ElementNotFoundException.class, result::render);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        content.writeTo(outputStream);
+        assertArrayEquals(pdf, outputStream.toByteArray());
+
+        content.close();
+
+        assertFalse(job.getResult().toFile().exists());
+    }
+
+    @Test
+    public void constructorShouldCleanOnlyOwnSubdirectory() throws Exception {
+        Path foreign = Files.writeString(directory.resolve("foreign.txt"), "keep");
+        Path stale = directory.resolve("mdwiki-pdf-export").resolve("pdf-export-stale.pdf");
+        Files.writeString(stale, "stale");
+
+        new PdfExportJobService(documentService, entityFetcher, 1, 1, Duration.ZERO, directory.toString()).shutdown();
+
+        assertTrue(Files.exists(foreign));
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.isDirectory(directory.resolve("mdwiki-pdf-export")));
+    }
+}
@@ -1,5 +1,6 @@
 package org.sbtitcourses.mdwiki.service;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -7,13 +8,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.repository.PersonRepository;
+import org.sbtitcourses.mdwiki.repository.projection.PersonSummary;
 import org.sbtitcourses.mdwiki.util.EntityFetcher;
+import org.sbtitcourses.mdwiki.util.PersonCache;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
+import org.sbtitcourses.mdwiki.util.exception.ElementAlreadyExistsException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +36,10 @@ class PersonServiceTests {
     private PersonRepository personRepository;
     @Mock
     private EntityFetcher entityFetcher;
+    @Mock
+    private PageAutocompleteService pageAutocompleteService;
+    @Mock
+    private PersonCache personCache;
     @InjectMocks
     private PersonService personService;
     private final Person personWithId = Person.builder()
@@ -47,17 +56,19 @@ class PersonServiceTests {
 
     @Test
     public void getAllShouldReturnPersonList() {
-        List<Person> people = new LinkedList<>();
-        people.add(personWithId);
-        Page<Person> page = new PageImpl<>(people);
+        PersonSummary summary = mock(PersonSummary.class);
+        when(summary.getId()).thenReturn(personWithId.getId());
+        List<PersonSummary> people = new LinkedList<>();
+        people.add(summary);
+        Pageable pageable = PageRequest.of(0, 1);
 
-        when(personRepository.findAll(any(Pageable.class))).thenReturn(page);
+        when(personRepository.findAllByOrderById(pageable)).thenReturn(people);
 
-        List<Person> gottenPeople = personService.get(0, 1);
+        List<PersonSummary> gottenPeople = personService.get(0, 1);
 
         assertEquals(people.size(), gottenPeople.size());
         assertEquals(personWithId.getId(), gottenPeople.get(0).getId());
-        verify(personRepository).findAll(any(Pageable.class));
+        verify(personRepository).findAllByOrderById(pageable);
     }
 
     @Test
@@ -86,7 +97,34 @@ class PersonServiceTests {
         assertEquals(personToUpdateWith.isEnabled(), updatedPerson.isEnabled());
         assertThrows(AccessDeniedException.class, () -> personService.update(2, personToUpdateWith));
         verify(personRepository).findById(1);
-        verify(personRepository).save(personWithId);
+        verify(personRepository).saveAndFlush(personWithId);
+        verify(personCache).evict(1);
+    }
+
+    @Test
+    public void updateWithTakenEmailShouldThrowException() {
+        when(entityFetcher.getLoggedInUser()).thenReturn(personWithId);
+        when(personRepository.findById(1)).thenReturn(Optional.of(personWithId));
+        when(personRepository.saveAndFlush(personWithId)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("duplicate", "23505"),
+                        "persons_email_key")));
+
+        assertThrows(ElementAlreadyExistsException.class, () -> personService.update(1, personToUpdateWith));
+        verify(personCache, never()).evict(1);
+    }
+
+    @Test
+    public void updateWithTakenUsernameShouldThrowException() {
+        when(entityFetcher.getLoggedInUser()).thenReturn(personWithId);
+        when(personRepository.findById(1)).thenReturn(Optional.of(personWithId));
+        when(personRepository.saveAndFlush(personWithId)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("duplicate", "23505"),
+                        "persons_username_key")));
+
+        ElementAlreadyExistsException e = assertThrows(ElementAlreadyExistsException.class,
+                () -> personService.update(1, personToUpdateWith));
+        assertEquals("Логин уже используется", e.getMessage());
+        verify(personCache, never()).evict(1);
     }
 
     @Test
@@ -98,5 +136,6 @@ class PersonServiceTests {
         assertThrows(ElementNotFoundException.class, () -> personService.delete(1));
         verify(personRepository, times(2)).findById(1);
         verify(personRepository).delete(personWithId);
+        verify(personCache).evict(1);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package org.sbtitcourses.mdwiki.service;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -8,12 +9,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.sbtitcourses.mdwiki.model.Person;
 import org.sbtitcourses.mdwiki.model.Space;
 import org.sbtitcourses.mdwiki.repository.SpaceRepository;
+import org.sbtitcourses.mdwiki.repository.projection.SpaceSummary;
 import org.sbtitcourses.mdwiki.util.EntityFetcher;
 import org.sbtitcourses.mdwiki.util.exception.AccessDeniedException;
+import org.sbtitcourses.mdwiki.util.exception.ElementAlreadyExistsException;
 import org.sbtitcourses.mdwiki.util.exception.ElementNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.sql.SQLException;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -30,6 +36,8 @@ class SpaceServiceTests {
     private SpaceRepository spaceRepository;
     @Mock
     private EntityFetcher entityFetcher;
+    @Mock
+    private PageAutocompleteService pageAutocompleteService;
     @InjectMocks
     private SpaceService spaceService;
     private final Person owner = Person.builder().id(1).build();
@@ -48,26 +56,38 @@ class SpaceServiceTests {
     @Test
     public void createShouldReturnSpace() {
         when(entityFetcher.getLoggedInUser()).thenReturn(owner);
-        when(spaceRepository.save(spaceToCreate)).thenReturn(spaceWithId);
+        when(spaceRepository.saveAndFlush(spaceToCreate)).thenReturn(spaceWithId);
 
         Space createdSpace = spaceService.create(spaceToCreate);
 
         assertEquals(1, createdSpace.getId());
 
         verify(entityFetcher).getLoggedInUser();
-        verify(spaceRepository).save(spaceToCreate);
+        verify(spaceRepository).saveAndFlush(spaceToCreate);
+    }
+
+    @Test
+    public void createWithDuplicateNameShouldThrowException() {
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(spaceRepository.saveAndFlush(spaceToCreate)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("duplicate", "23505"),
+                        "spaces_owner_id_name_key")));
+
+        assertThrows(ElementAlreadyExistsException.class, () -> spaceService.create(spaceToCreate));
     }
 
     @Test
     public void getAllShouldReturnSpaceList() {
-        List<Space> spaces = new LinkedList<>();
-        spaces.add(spaceWithId);
+        SpaceSummary summary = mock(SpaceSummary.class);
+        when(summary.getId()).thenReturn(1);
+        List<SpaceSummary> spaces = new LinkedList<>();
+        spaces.add(summary);
         Pageable pageable = PageRequest.of(0, 1);
 
         when(entityFetcher.getLoggedInUser()).thenReturn(owner);
         when(spaceRepository.findByOwnerOrderById(owner, pageable)).thenReturn(spaces);
 
-        List<Space> gottenSpaces = spaceService.get(0, 1);
+        List<SpaceSummary> gottenSpaces = spaceService.get(0, 1);
 
         assertEquals(1, gottenSpaces.size());
         assertEquals(1, gottenSpaces.get(0).getId());
@@ -78,13 +98,15 @@ class SpaceServiceTests {
 
     @Test
     public void getSharedShouldReturnSpaceList() {
-        List<Space> spaces = new LinkedList<>();
-        spaces.add(spaceWithId);
-        Pageable pageable = PageRequest.of(0, 1);
+        SpaceSummary summary = mock(SpaceSummary.class);
+        when(summary.getId()).thenReturn(1);
+        List<SpaceSummary> spaces = new LinkedList<>();
+        spaces.add(summary);
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("id"));
 
         when(spaceRepository.findBySharedTrue(pageable)).thenReturn(spaces);
 
-        List<Space> gottenSpaces = spaceService.getShared(0, 1);
+        List<SpaceSummary> gottenSpaces = spaceService.getShared(0, 1);
 
         assertEquals(1, gottenSpaces.size());
         assertEquals(1, gottenSpaces.get(0).getId());
@@ -92,6 +114,25 @@ class SpaceServiceTests {
         verify(spaceRepository).findBySharedTrue(pageable);
     }
 
+    @Test
+    public void getAfterShouldReturnSpacesFollowingCursor() {
+        SpaceSummary summary = mock(SpaceSummary.class);
+        when(summary.getId()).thenReturn(1);
+        List<SpaceSummary> spaces = new LinkedList<>();
+        spaces.add(summary);
+        Pageable pageable = PageRequest.of(0, 1);
+
+        when(entityFetcher.getLoggedInUser()).thenReturn(owner);
+        when(spaceRepository.findByOwnerAndIdGreaterThanOrderById(owner, 0, pageable)).thenReturn(spaces);
+
+        List<SpaceSummary> gottenSpaces = spaceService.getAfter(0, 1);
+
+        assertEquals(1, gottenSpaces.size());
+        assertEquals(1, gottenSpaces.get(0).getId());
+
+        verify(spaceRepository).findByOwnerAndIdGreaterThanOrderById(owner, 0, pageable);
+    }
+
     @Test
     public void getShouldReturnSpace() {
         when(entityFetcher.fetchSpace(1)).thenReturn(spaceWithId);
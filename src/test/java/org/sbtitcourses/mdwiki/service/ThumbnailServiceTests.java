@@ -0,0 +1,125 @@
+package org.sbtitcourses.mdwiki.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sbtitcourses.mdwiki.model.StoredFile;
+import org.sbtitcourses.mdwiki.repository.StoredFileRepository;
+import org.springframework.data.domain.PageRequest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тест для сервиса фонового создания превью изображений
+ */
+@ExtendWith({MockitoExtension.class})
+class ThumbnailServiceTests {
+
+    @Mock
+    private StoredFileRepository storedFileRepository;
+    @Mock
+    private ImageStorageService imageStorageService;
+    @TempDir
+    private Path directory;
+    private ThumbnailService thumbnailService;
+    private final StoredFile storedFile = new StoredFile();
+
+    @BeforeEach
+    public void setUp() {
+        thumbnailService = new ThumbnailService(storedFileRepository, imageStorageService, 1, 1, 2);
+
+        storedFile.setId(1);
+        storedFile.setThumbnailStatus(StoredFile.ThumbnailStatus.PENDING);
+        storedFile.setThumbnailHeight(10);
+        storedFile.setThumbnailWidth(10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        thumbnailService.shutdown();
+    }
+
+    @Test
+    public void submitShouldCreateThumbnailInBackground() throws Exception {
+        Path image = directory.resolve("image.png");
+        Path thumbnail = directory.resolve("thumbnails").resolve("image.png");
+        ImageIO.write(new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB), "png", image.toFile());
+
+        when(storedFileRepository.findById(1)).thenReturn(Optional.of(storedFile));
+        when(imageStorageService.getImageLocation(storedFile)).thenReturn(image);
+        when(imageStorageService.getThumbnailLocation(storedFile)).thenReturn(thumbnail);
+
+        thumbnailService.submit(1);
+
+        verify(storedFileRepository, timeout(5000)).updateThumbnailStatus(1, StoredFile.ThumbnailStatus.READY, 0);
+        assertTrue(Files.exists(thumbnail));
+        assertEquals(10, ImageIO.read(thumbnail.toFile()).getWidth());
+    }
+
+    @Test
+    public void submitShouldRetryAndFailAfterMaxAttempts() {
+        when(storedFileRepository.findById(1)).thenReturn(Optional.of(storedFile));
+        when(imageStorageService.getImageLocation(storedFile)).thenReturn(directory.resolve("missing.png"));
+        when(imageStorageService.getThumbnailLocation(storedFile))
+                .thenReturn(directory.resolve("thumbnails").resolve("missing.png"));
+
+        thumbnailService.submit(1);
+
+        verify(storedFileRepository, timeout(5000)).updateThumbnailStatus(1, StoredFile.ThumbnailStatus.PENDING, 1);
+
+        storedFile.setThumbnailAttempts(1);
+        thumbnailService.submit(1);
+
+        verify(storedFileRepository, timeout(5000)).updateThumbnailStatus(1, StoredFile.ThumbnailStatus.FAILED, 2);
+    }
+
+    @Test
+    public void submitShouldReuseThumbnailOfSameContent() throws Exception {
+        Path thumbnail = directory.resolve("thumbnail.png");
+        Files.write(thumbnail, new byte[]{1, 2, 3});
+
+        when(storedFileRepository.findById(1)).thenReturn(Optional.of(storedFile));
+        when(imageStorageService.getThumbnailLocation(storedFile)).thenReturn(thumbnail);
+
+        thumbnailService.submit(1);
+
+        verify(storedFileRepository, timeout(5000)).updateThumbnailStatus(1, StoredFile.ThumbnailStatus.READY, 0);
+        verify(imageStorageService, never()).getImageLocation(any());
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(thumbnail));
+    }
+
+    @Test
+    public void submitShouldSkipCreatedThumbnail() {
+        storedFile.setThumbnailStatus(StoredFile.ThumbnailStatus.READY);
+        when(storedFileRepository.findById(1)).thenReturn(Optional.of(storedFile));
+
+        thumbnailService.submit(1);
+
+        verify(storedFileRepository, timeout(5000)).findById(1);
+        verify(storedFileRepository, after(100).never()).updateThumbnailStatus(anyInt(), any(), anyInt());
+        verifyNoInteractions(imageStorageService);
+    }
+
+    @Test
+    public void retryPendingShouldSubmitPendingThumbnails() {
+        when(storedFileRepository.findByThumbnailStatusOrderById(StoredFile.ThumbnailStatus.PENDING,
+                PageRequest.of(0, 1))).thenReturn(List.of(storedFile));
+        when(storedFileRepository.findById(1)).thenReturn(Optional.empty());
+
+        thumbnailService.retryPending();
+
+        verify(storedFileRepository, timeout(5000)).findById(1);
+    }
+}
@@ -0,0 +1,88 @@
+package org.sbtitcourses.mdwiki.service.security;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.sbtitcourses.mdwiki.repository.PersonRepository;
+import org.sbtitcourses.mdwiki.util.exception.RegistrationFailedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тест для сервиса с логикой входа и регистрации пользователя
+ */
+@ExtendWith(MockitoExtension.class)
+class EntryServiceTests {
+
+    @Mock
+    private PersonRepository personRepository;
+    @Mock
+    private PersonDetailsService personDetailsService;
+    @Mock
+    private PasswordEncoder passwordEncoder;
+    @InjectMocks
+    private EntryService entryService;
+    private final Person person = Person.builder()
+            .username("testUsername")
+            .email("testEmail@mail.com")
+            .password("testPassword")
+            .build();
+
+    @Test
+    public void registerShouldSavePerson() {
+        when(personRepository.findAllByUsernameOrEmail("testUsername", "testEmail@mail.com")).thenReturn(List.of());
+        when(personRepository.saveAndFlush(person)).thenReturn(Person.builder().id(1).build());
+
+        Person registered = entryService.register(person);
+
+        assertEquals(1, registered.getId());
+        assertEquals("ROLE_USER", registered.getRole());
+        verify(passwordEncoder).encode("testPassword");
+    }
+
+    @Test
+    public void registerWithTakenUsernameAndEmailShouldReportBothErrors() {
+        when(personRepository.findAllByUsernameOrEmail("testUsername", "testEmail@mail.com")).thenReturn(List.of(
+                Person.builder().id(1).username("testUsername").email("otherEmail@mail.com").build(),
+                Person.builder().id(2).username("otherUsername").email("testEmail@mail.com").build()));
+
+        RegistrationFailedException e = assertThrows(RegistrationFailedException.class,
+                () -> entryService.register(person));
+
+        assertEquals(List.of("Пользователь с таким логином уже существует",
+                "Пользователь с таким адресом эл. почты уже существует"), e.getErrors());
+        verify(personRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void registerShouldTranslateConcurrentUsernameViolation() {
+        when(personRepository.findAllByUsernameOrEmail("testUsername", "testEmail@mail.com")).thenReturn(List.of());
+        when(personRepository.saveAndFlush(person)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException("duplicate", "23505"),
+                        "persons_username_key")));
+
+        RegistrationFailedException e = assertThrows(RegistrationFailedException.class,
+                () -> entryService.register(person));
+
+        assertEquals(List.of("Пользователь с таким логином уже существует"), e.getErrors());
+    }
+
+    @Test
+    public void registerShouldRethrowUnknownViolation() {
+        when(personRepository.findAllByUsernameOrEmail("testUsername", "testEmail@mail.com")).thenReturn(List.of());
+        when(personRepository.saveAndFlush(person)).thenThrow(new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", new SQLException("not null", "23502"), "name")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> entryService.register(person));
+    }
+}
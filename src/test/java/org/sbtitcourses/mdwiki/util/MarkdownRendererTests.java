@@ -0,0 +1,60 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тест для компонента конвертации markdown-документов в HTML
+ */
+class MarkdownRendererTests {
+
+    private final MarkdownRenderer markdownRenderer = new MarkdownRenderer(4, DataSize.ofMegabytes(1));
+
+    @AfterEach
+    public void tearDown() {
+        markdownRenderer.shutdown();
+    }
+
+    @Test
+    public void renderShouldKeepDocumentOrderWhenRenderingInParallel() {
+        List<String> documents = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+
+        for (int i = 0; i < 64; i++) {
+            // Первые документы длиннее остальных, поэтому конвертируются дольше.
+            String markdown = "# Page " + i + "\n\n" + "text ".repeat((64 - i) * 200);
+            documents.add(markdown);
+            expected.append("<h1>Page ").append(i).append("</h1>\n")
+                    .append("<p>").append("text ".repeat((64 - i) * 200).trim()).append("</p>\n");
+        }
+
+        assertEquals(expected.toString(), markdownRenderer.render(documents));
+        assertEquals(expected.toString(), markdownRenderer.render(documents));
+    }
+
+    @Test
+    public void renderForBrowserShouldEscapeHtmlAndUnsafeLinks() {
+        String html = markdownRenderer.renderForBrowser("<script>alert(1)</script>\n\n[x](javascript:alert(1))");
+
+        assertEquals("<p>&lt;script&gt;alert(1)&lt;/script&gt;</p>\n<p><a rel=\"nofollow\" href=\"\">x</a></p>\n", html);
+    }
+
+    @Test
+    public void renderShouldKeepInlineHtmlAfterRenderingForBrowser() {
+        String markdown = "a<br>b <u>underlined</u>";
+
+        assertEquals("<p>a&lt;br&gt;b &lt;u&gt;underlined&lt;/u&gt;</p>\n", markdownRenderer.renderForBrowser(markdown));
+        assertEquals("<p>a<br>b <u>underlined</u></p>\n", markdownRenderer.render(markdown));
+    }
+
+    @Test
+    public void renderShouldReturnSingleDocument() {
+        assertEquals("<h1>Page</h1>\n", markdownRenderer.render(List.of("# Page")));
+    }
+}
@@ -0,0 +1,101 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тест для кэша документов, сконвертированных в PDF формат
+ */
+class PdfCacheTests {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void keyOfShouldDistinguishDocumentSplits() {
+        assertNotEquals(PdfCache.keyOf(List.of("a\n\nb"), "times", 16, true, "user"),
+                PdfCache.keyOf(List.of("a", "b"), "times", 16, true, "user"));
+        assertNotEquals(PdfCache.keyOf(List.of("ab", ""), "times", 16, true, "user"),
+                PdfCache.keyOf(List.of("a", "b"), "times", 16, true, "user"));
+        assertEquals(PdfCache.keyOf(List.of("a", "b"), "times", 16, true, "user"),
+                PdfCache.keyOf(List.of("a", "b"), "times", 16, true, "user"));
+    }
+
+    @Test
+    public void constructorShouldCleanOnlyOwnSubdirectory() throws Exception {
+        Path foreign = Files.writeString(directory.resolve("foreign.txt"), "keep");
+        Path stale = Files.createDirectories(directory.resolve("mdwiki-pdf-cache")).resolve("stale.pdf");
+        Files.writeString(stale, "stale");
+
+        new PdfCache(DataSize.ofKilobytes(1), DataSize.ofKilobytes(1), directory.toString(), DataSize.ofMegabytes(1));
+
+        assertTrue(Files.exists(foreign));
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.isDirectory(directory.resolve("mdwiki-pdf-cache")));
+    }
+
+    @Test
+    public void recorderShouldCacheOnlyDocumentsWithinEntrySize() throws IOException {
+        PdfCache pdfCache = new PdfCache(DataSize.ofKilobytes(64), DataSize.ofBytes(4), "", DataSize.ofMegabytes(1));
+        byte[] small = {1, 2, 3};
+        byte[] large = {1, 2, 3, 4, 5, 6, 7, 8};
+
+        PdfCache.Recorder recorder = pdfCache.recorder("small", List.of(1));
+        recorder.getOutputStream().write(small);
+        recorder.commit();
+
+        assertArrayEquals(small, pdfCache.get("small"));
+        assertArrayEquals(small, contentOf(recorder));
+
+        recorder = pdfCache.recorder("large", List.of(1));
+        OutputStream outputStream = recorder.getOutputStream();
+        outputStream.write(large, 0, 3);
+        outputStream.write(large, 3, 5);
+        outputStream.close();
+        recorder.commit();
+
+        assertNull(pdfCache.get("large"));
+        assertArrayEquals(large, contentOf(recorder));
+    }
+
+    @Test
+    public void recorderShouldDeleteTemporaryFileOnClose() throws IOException {
+        PdfCache pdfCache = new PdfCache(DataSize.ofKilobytes(64), DataSize.ofBytes(4), directory.toString(),
+                DataSize.ofMegabytes(1));
+        Path cacheDirectory = directory.resolve("mdwiki-pdf-cache");
+
+        PdfCache.Recorder recorder = pdfCache.recorder("large", List.of(1));
+        recorder.getOutputStream().write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        recorder.commit();
+
+        assertEquals(1, countFiles(cacheDirectory));
+
+        recorder.close();
+
+        assertEquals(0, countFiles(cacheDirectory));
+    }
+
+    private static byte[] contentOf(PdfCache.Recorder recorder) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        recorder.writeTo(outputStream);
+
+        return outputStream.toByteArray();
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
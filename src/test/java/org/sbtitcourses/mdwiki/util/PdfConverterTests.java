@@ -0,0 +1,76 @@
+package org.sbtitcourses.mdwiki.util;
+
+import com.lowagie.text.pdf.PdfReader;
+import org.junit.jupiter.api.Test;
+import org.sbtitcourses.mdwiki.util.exception.PdfConversionException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тест для компонента конвертации HTML markdown-документа в формат PDF
+ */
+class PdfConverterTests {
+
+    private final PdfConverter pdfConverter = new PdfConverter(1);
+
+    @Test
+    public void convertShouldKeepCauseAndReleaseRendererAfterFailure() {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("closed");
+            }
+        };
+
+        PdfConversionException exception = assertThrows(PdfConversionException.class,
+                () -> pdfConverter.convert("<h1>test</h1>", "times", 16, GUID -> null, failing));
+        assertNotNull(exception.getCause());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> pdfConverter.convert("<h1>test</h1>", "times", 16, GUID -> null, outputStream));
+        assertTrue(outputStream.toString(StandardCharsets.ISO_8859_1).startsWith("%PDF"));
+    }
+
+    @Test
+    public void convertWithUnknownFontShouldThrowException() {
+        assertThrows(PdfConversionException.class, () -> pdfConverter.convert("<h1>test</h1>", "unknown", 16,
+                GUID -> null, OutputStream.nullOutputStream()));
+    }
+
+    @Test
+    public void convertShouldRenderInlineHtmlOfDocument() throws IOException {
+        MarkdownRenderer markdownRenderer = new MarkdownRenderer(1, DataSize.ofMegabytes(1));
+        String html = markdownRenderer.render("a<br>b <u>underlined</u>");
+        markdownRenderer.shutdown();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        pdfConverter.convert(html, "times", 16, GUID -> null, outputStream);
+
+        PdfReader reader = new PdfReader(outputStream.toByteArray());
+        String content = new String(reader.getPageContent(1), StandardCharsets.ISO_8859_1);
+        reader.close();
+
+        // Текст встроенного шрифта записан ID глифов, поэтому проверяется разметка страницы:
+        // <br> переносит текст на вторую строку, а <u> рисует линию подчеркивания.
+        Set<String> lines = new HashSet<>();
+        Matcher matcher = Pattern.compile("1 0 0 1 \\S+ (\\S+) Tm").matcher(content);
+        while (matcher.find()) {
+            lines.add(matcher.group(1));
+        }
+
+        assertEquals(2, lines.size());
+        assertTrue(content.contains("\nf\n"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sbtitcourses.mdwiki.model.Person;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тест для кэша аутентифицированных пользователей
+ */
+class PersonCacheTests {
+
+    private final Map<Integer, Integer> loads = new HashMap<>();
+    private final IntFunction<Person> loader = id -> {
+        loads.merge(id, 1, Integer::sum);
+        return Person.builder().id(id).build();
+    };
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void getShouldReloadExpiredPerson() {
+        PersonCache cached = new PersonCache(10, Duration.ofMinutes(1));
+        PersonCache expired = new PersonCache(10, Duration.ZERO);
+
+        cached.get(1, loader);
+        cached.get(1, loader);
+        expired.get(2, loader);
+        expired.get(2, loader);
+
+        assertEquals(1, loads.get(1));
+        assertEquals(2, loads.get(2));
+    }
+
+    @Test
+    public void getShouldEvictLeastRecentlyUsedPersonWhenFull() {
+        PersonCache personCache = new PersonCache(2, Duration.ofMinutes(1));
+
+        personCache.get(1, loader);
+        personCache.get(2, loader);
+        personCache.get(1, loader);
+        personCache.get(3, loader);
+        personCache.get(1, loader);
+        personCache.get(2, loader);
+
+        assertEquals(1, loads.get(1));
+        assertEquals(2, loads.get(2));
+        assertEquals(1, loads.get(3));
+    }
+
+    @Test
+    public void getShouldNotCachePersonLoadedBeforeEviction() {
+        PersonCache personCache = new PersonCache(10, Duration.ofMinutes(1));
+
+        personCache.get(1, id -> {
+            personCache.evict(id);
+            return loader.apply(id);
+        });
+        personCache.get(1, loader);
+        personCache.get(1, loader);
+
+        assertEquals(2, loads.get(1));
+    }
+
+    @Test
+    public void getShouldReturnPersonFromRequestUntilEvicted() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        PersonCache personCache = new PersonCache(10, Duration.ZERO);
+
+        Person person = personCache.get(1, loader);
+        assertSame(person, personCache.get(1, loader));
+
+        personCache.evict(1);
+
+        assertNotSame(person, personCache.get(1, loader));
+        assertEquals(2, loads.get(1));
+    }
+}
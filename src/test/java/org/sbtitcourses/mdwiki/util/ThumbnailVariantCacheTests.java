@@ -0,0 +1,166 @@
+package org.sbtitcourses.mdwiki.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тест для кэша превью изображений
+ */
+class ThumbnailVariantCacheTests {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void getShouldWriteVariantOnceForConcurrentRequests() throws Exception {
+        ThumbnailVariantCache cache = new ThumbnailVariantCache(directory.toString(), DataSize.ofBytes(100), 2);
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Path> first = executor.submit(() -> cache.get("key.png", target -> {
+                writes.incrementAndGet();
+                writing.countDown();
+                try {
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                Files.write(target, new byte[]{1, 2, 3});
+            }));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            Future<Path> second = executor.submit(() -> cache.get("key.png", target -> {
+                writes.incrementAndGet();
+                Files.write(target, new byte[]{4});
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, writes.get());
+            assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(first.get()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getShouldEvictLeastRecentlyUsedVariants() throws Exception {
+        ThumbnailVariantCache cache = new ThumbnailVariantCache(directory.toString(), DataSize.ofBytes(10), 2);
+
+        Path first = cache.get("first.png", target -> Files.write(target, new byte[4]));
+        Path second = cache.get("second.png", target -> Files.write(target, new byte[4]));
+        cache.get("first.png", target -> fail("Превью должно быть в кэше"));
+        Path third = cache.get("third.png", target -> Files.write(target, new byte[4]));
+
+        assertEquals(2, cache.size());
+        assertTrue(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertTrue(Files.exists(third));
+    }
+
+    @Test
+    public void getShouldRetryFailedVariant() throws Exception {
+        ThumbnailVariantCache cache = new ThumbnailVariantCache(directory.toString(), DataSize.ofBytes(10), 2);
+
+        assertThrows(UncheckedIOException.class, () -> cache.get("key.png", target -> {
+            throw new IOException();
+        }));
+
+        Path variant = cache.get("key.png", target -> Files.write(target, new byte[]{1}));
+
+        assertArrayEquals(new byte[]{1}, Files.readAllBytes(variant));
+        try (var files = Files.list(variant.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void constructorShouldCleanOnlyOwnSubdirectory() throws Exception {
+        Path foreign = Files.write(directory.resolve("foreign.txt"), new byte[]{1});
+        Path stale = directory.resolve("mdwiki-thumbnails").resolve("stale.png");
+        Files.createDirectories(stale.getParent());
+        Files.write(stale, new byte[]{1});
+
+        new ThumbnailVariantCache(directory.toString(), DataSize.ofBytes(10), 2);
+
+        assertTrue(Files.exists(foreign));
+        assertFalse(Files.exists(stale));
+    }
+
+    @Test
+    public void evictionShouldNotDeleteVariantRewrittenWithSameKey() throws Exception {
+        ThumbnailVariantCache cache = new ThumbnailVariantCache(directory.toString(), DataSize.ofBytes(4), 2);
+
+        Path first = cache.get("key.png", target -> Files.write(target, new byte[4]));
+        cache.get("other.png", target -> Files.write(target, new byte[4]));
+        Path rewritten = cache.get("key.png", target -> Files.write(target, new byte[]{1, 2, 3, 4}));
+
+        assertNotEquals(first, rewritten);
+        assertFalse(Files.exists(first));
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, Files.readAllBytes(rewritten));
+    }
+
+    @Test
+    public void getShouldRewriteVariantWithMissingFile() throws Exception {
+        ThumbnailVariantCache cache = new ThumbnailVariantCache(directory.toString(), DataSize.ofBytes(10), 2);
+
+        Path deleted = cache.get("key.png", target -> Files.write(target, new byte[]{1}));
+        Files.delete(deleted);
+        Path variant = cache.get("key.png", target -> Files.write(target, new byte[]{2}));
+
+        assertEquals(1, cache.size());
+        assertArrayEquals(new byte[]{2}, Files.readAllBytes(variant));
+    }
+
+    @Test
+    public void getShouldLimitConcurrentWrites() throws Exception {
+        ThumbnailVariantCache cache = new ThumbnailVariantCache(directory.toString(), DataSize.ofBytes(100), 1);
+        AtomicInteger writing = new AtomicInteger();
+        AtomicInteger maxWriting = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<Path>> variants = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String key = "key" + i + ".png";
+                variants.add(executor.submit(() -> cache.get(key, target -> {
+                    maxWriting.accumulateAndGet(writing.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    writing.decrementAndGet();
+                    Files.write(target, new byte[]{1});
+                })));
+            }
+            for (Future<Path> variant : variants) {
+                assertTrue(Files.exists(variant.get(5, TimeUnit.SECONDS)));
+            }
+
+            assertEquals(1, maxWriting.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}